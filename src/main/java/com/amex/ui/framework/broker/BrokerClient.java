@@ -0,0 +1,164 @@
+package com.amex.ui.framework.broker;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.remote.codec.w3c.W3CHttpCommandCodec;
+import org.openqa.selenium.remote.codec.w3c.W3CHttpResponseCodec;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leases sessions from a {@link BrowserBroker} (executionMode=broker). Each lease holds its
+ * own loopback connection until it is given back, so if this JVM dies the broker sees the
+ * connection close and takes the session back.
+ */
+public class BrokerClient {
+    private static final Map<WebDriver, Lease> leases = new ConcurrentHashMap<>();
+
+    private static class Lease {
+        final Socket socket;
+        final PrintWriter out;
+        final BufferedReader in;
+
+        Lease(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private BrokerClient() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Leases a warm session, waiting for the broker to free or start one
+     */
+    public static WebDriver lease() {
+        int port = Integer.parseInt(ConfigReader.getProperty("broker.port", "7071"));
+        Lease lease = null;
+        try {
+            lease = new Lease(new Socket(InetAddress.getLoopbackAddress(), port));
+            lease.out.println("LEASE " + ProcessHandle.current().pid());
+            String reply = lease.in.readLine();
+            if (reply == null || !reply.startsWith("SESSION ")) {
+                throw new SessionNotCreatedException("Browser broker refused lease: " + reply);
+            }
+            String[] parts = reply.split(" ", 4);
+            Map<String, Object> capabilities = new Json().toType(parts[3], Json.MAP_TYPE);
+            WebDriver session = attach(new URL(parts[2]), parts[1], capabilities);
+            leases.put(session, lease);
+            return session;
+        } catch (IOException e) {
+            close(lease);
+            throw new SessionNotCreatedException("Browser broker not reachable on port " + port
+                    + " (start BrowserBroker first)", e);
+        } catch (RuntimeException e) {
+            close(lease);
+            throw e;
+        }
+    }
+
+    public static boolean isLeased(WebDriver session) {
+        return session != null && leases.containsKey(session);
+    }
+
+    /**
+     * Returns a leased session to the pool instead of quitting it
+     * @param broken Whether the broker should discard it rather than reset it for the next lease
+     */
+    public static void giveBack(WebDriver session, boolean broken) {
+        Lease lease = leases.remove(session);
+        if (lease == null) {
+            return;
+        }
+        try {
+            lease.out.println(broken ? "RETURN BROKEN" : "RETURN");
+            lease.in.readLine();
+        } catch (IOException e) {
+            // Closing the connection returns the lease as well
+        } finally {
+            close(lease);
+        }
+    }
+
+    private static void close(Lease lease) {
+        if (lease == null) {
+            return;
+        }
+        try {
+            lease.socket.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+
+    /**
+     * Attaches to a session started by another process: the new-session command is answered
+     * locally with the existing session, every other command goes to its driver as usual
+     */
+    private static WebDriver attach(URL driverUrl, String sessionId, Map<String, Object> capabilities) {
+        return new RemoteWebDriver(new AttachedExecutor(driverUrl, sessionId, capabilities),
+                new ImmutableCapabilities(capabilities));
+    }
+
+    /**
+     * Speaks W3C to the driver of a leased session. HttpCommandExecutor only picks its codecs
+     * from the new-session handshake, which never reaches the driver here, so this encodes and
+     * decodes with the W3C codecs itself.
+     */
+    private static class AttachedExecutor implements CommandExecutor {
+        private final W3CHttpCommandCodec commandCodec = new W3CHttpCommandCodec();
+        private final W3CHttpResponseCodec responseCodec = new W3CHttpResponseCodec();
+        private final HttpClient client;
+        private final String sessionId;
+        private final Map<String, Object> capabilities;
+
+        AttachedExecutor(URL driverUrl, String sessionId, Map<String, Object> capabilities) {
+            this.client = HttpClient.Factory.createDefault().createClient(ClientConfig.defaultConfig().baseUrl(driverUrl));
+            this.sessionId = sessionId;
+            this.capabilities = capabilities;
+        }
+
+        @Override
+        public Response execute(Command command) {
+            if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                Response response = new Response(new SessionId(sessionId));
+                response.setState("success");
+                response.setValue(capabilities);
+                return response;
+            }
+            try {
+                Response response = responseCodec.decode(client.execute(commandCodec.encode(command)));
+                if (response.getSessionId() == null) {
+                    response.setSessionId(sessionId);
+                }
+                return response;
+            } finally {
+                if (DriverCommand.QUIT.equals(command.getName())) {
+                    client.close();
+                }
+            }
+        }
+    }
+}
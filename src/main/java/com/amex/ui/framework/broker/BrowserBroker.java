@@ -0,0 +1,318 @@
+package com.amex.ui.framework.broker;
+
+import com.amex.ui.framework.config.ConfigReader;
+import com.amex.ui.framework.config.DriverManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local process that owns a pool of warm browser sessions and leases them to test JVMs, so
+ * several surefire forks share one pool instead of each launching its own browsers. Sessions
+ * are started with the same config as DriverManager and handed out as their driver URL and
+ * session id, which {@link BrokerClient} attaches to.
+ *
+ * Protocol, one loopback connection per lease: the client sends "LEASE &lt;pid&gt;" and gets
+ * "SESSION &lt;id&gt; &lt;driverUrl&gt; &lt;capabilitiesJson&gt;" or "ERROR &lt;reason&gt;"; it keeps the
+ * connection open while it uses the session and sends "RETURN" or "RETURN BROKEN" when done.
+ * Returned sessions are reset before the next lease: extra windows closed, then cookies of every
+ * domain and storage of every origin the lease visited cleared through CDP. Sessions that cannot
+ * be fully reset (no CDP, i.e. not Chromium) are discarded and replaced by a new warm session.
+ * A connection that closes without RETURN, because its JVM crashed, returns the lease the same way.
+ */
+public class BrowserBroker {
+    private final int poolSize;
+    private final int warmSessions;
+    private final long leaseTimeoutMillis;
+    private final Deque<WebDriver> idle = new ArrayDeque<>();
+    private final List<WebDriver> all = new ArrayList<>();
+    private int starting;
+    private final ExecutorService resets = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "broker-reset");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger leases = new AtomicInteger();
+    private final AtomicInteger reclaimed = new AtomicInteger();
+
+    BrowserBroker(int poolSize, int warmSessions, long leaseTimeoutMillis) {
+        this.poolSize = poolSize;
+        this.warmSessions = Math.min(warmSessions, poolSize);
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        ConfigReader.loadConfig();
+        BrowserBroker broker = new BrowserBroker(Integer.parseInt(ConfigReader.getProperty("broker.poolSize", "4")),
+                Integer.parseInt(ConfigReader.getProperty("broker.warmSessions", "2")),
+                Long.parseLong(ConfigReader.getProperty("broker.leaseTimeoutSeconds", "600")) * 1000);
+        Runtime.getRuntime().addShutdownHook(new Thread(broker::shutdown));
+
+        for (int i = 0; i < broker.warmSessions; i++) {
+            broker.refill();
+        }
+        broker.serve(Integer.parseInt(ConfigReader.getProperty("broker.port", "7071")));
+    }
+
+    private void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Browser broker listening on 127.0.0.1:" + port + ", pool of " + poolSize);
+            while (true) {
+                Socket client = server.accept();
+                Thread thread = new Thread(() -> handle(client), "broker-lease");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Starts a session in the background while fewer than broker.warmSessions are idle or starting,
+     * so leases do not pay for browser startup
+     */
+    private void refill() {
+        synchronized (this) {
+            if (idle.size() + starting >= warmSessions || all.size() + starting >= poolSize) {
+                return;
+            }
+            starting++;
+        }
+        resets.execute(() -> {
+            WebDriver session = start();
+            if (session != null) {
+                giveBack(session);
+            }
+        });
+    }
+
+    private void handle(Socket client) {
+        WebDriver session = null;
+        boolean broken = false;
+        try (Socket socket = client) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+
+            String request = in.readLine();
+            if (request == null || !request.startsWith("LEASE")) {
+                out.println("ERROR expected: LEASE <pid>");
+                return;
+            }
+            session = acquire();
+            if (session == null) {
+                out.println("ERROR no session available within " + leaseTimeoutMillis / 1000 + "s");
+                return;
+            }
+            leases.incrementAndGet();
+            out.println("SESSION " + describe(session));
+
+            // Blocks for the whole lease; end of stream means the client JVM went away
+            String release = in.readLine();
+            if (release == null) {
+                reclaimed.incrementAndGet();
+                System.out.println("Reclaiming lease of " + request.substring(5).trim() + ": connection closed");
+            } else {
+                broken = release.endsWith("BROKEN");
+                out.println("OK");
+            }
+        } catch (IOException e) {
+            reclaimed.incrementAndGet();
+            System.err.println("Lease connection failed: " + e.getMessage());
+        } finally {
+            if (session != null) {
+                returnLease(session, broken);
+            }
+        }
+    }
+
+    private static String describe(WebDriver session) {
+        RemoteWebDriver remote = (RemoteWebDriver) session;
+        CommandExecutor executor = remote.getCommandExecutor();
+        // Grid sessions come behind a TracedCommandExecutor, which does not expose its address
+        String url = executor instanceof HttpCommandExecutor
+                ? ((HttpCommandExecutor) executor).getAddressOfRemoteServer().toString()
+                : ConfigReader.getProperty("grid.url", "http://localhost:4444");
+        // Capabilities on the rest of the line; pretty printing only puts line breaks between tokens
+        String capabilities = new Json().toJson(remote.getCapabilities().asMap()).replace('\n', ' ');
+        return remote.getSessionId() + " " + url + " " + capabilities;
+    }
+
+    /**
+     * An idle session, a newly started one while the pool is not full, or null after the lease timeout
+     */
+    private WebDriver acquire() {
+        long deadline = System.currentTimeMillis() + leaseTimeoutMillis;
+        synchronized (this) {
+            while (idle.isEmpty() && all.size() + starting >= poolSize) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            if (!idle.isEmpty()) {
+                return idle.pollFirst();
+            }
+            starting++;
+        }
+        return start();
+    }
+
+    private WebDriver start() {
+        try {
+            WebDriver session = DriverManager.createDriver();
+            synchronized (this) {
+                all.add(session);
+            }
+            return session;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to start pooled session: " + e.getMessage());
+            return null;
+        } finally {
+            synchronized (this) {
+                starting--;
+                notifyAll();
+            }
+        }
+    }
+
+    private void returnLease(WebDriver session, boolean broken) {
+        resets.execute(() -> {
+            if (!broken && reset(session)) {
+                giveBack(session);
+            } else {
+                discard(session);
+                refill();
+            }
+        });
+    }
+
+    private synchronized void giveBack(WebDriver session) {
+        idle.addLast(session);
+        notifyAll();
+    }
+
+    private void discard(WebDriver session) {
+        synchronized (this) {
+            all.remove(session);
+            notifyAll();
+        }
+        try {
+            session.quit();
+        } catch (RuntimeException e) {
+            // Already gone
+        }
+    }
+
+    /**
+     * Leaves a returned session as a new one: one window on about:blank, no cookies, no storage.
+     * deleteAllCookies and the Web Storage API only reach the current document's domain, so this
+     * goes through CDP: cookies are cleared browser-wide, storage per origin seen in the windows'
+     * navigation history or the cookie jar.
+     * @return Whether the session was fully reset and can be leased again
+     */
+    private static boolean reset(WebDriver session) {
+        if (!(session instanceof HasCdp)) {
+            return false;
+        }
+        HasCdp cdp = (HasCdp) session;
+        try {
+            Set<String> origins = new LinkedHashSet<>();
+            List<String> handles = new ArrayList<>(session.getWindowHandles());
+            for (int i = handles.size() - 1; i >= 0; i--) {
+                session.switchTo().window(handles.get(i));
+                addHistoryOrigins(cdp, origins);
+                if (i > 0) {
+                    session.close();
+                }
+            }
+            session.get("about:blank");
+
+            Map<String, Object> cookies = cdp.executeCdpCommand("Network.getAllCookies", new HashMap<>());
+            for (Object cookie : (List<?>) cookies.getOrDefault("cookies", Collections.emptyList())) {
+                String domain = String.valueOf(((Map<?, ?>) cookie).get("domain")).replaceFirst("^\\.", "");
+                origins.add("https://" + domain);
+                origins.add("http://" + domain);
+            }
+            cdp.executeCdpCommand("Network.clearBrowserCookies", new HashMap<>());
+            for (String origin : origins) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("origin", origin);
+                params.put("storageTypes", "all");
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", params);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Discarding pooled session that failed to reset: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void addHistoryOrigins(HasCdp cdp, Set<String> origins) {
+        Map<String, Object> history = cdp.executeCdpCommand("Page.getNavigationHistory", new HashMap<>());
+        for (Object entry : (List<?>) history.getOrDefault("entries", Collections.emptyList())) {
+            try {
+                URI uri = URI.create(String.valueOf(((Map<?, ?>) entry).get("url")));
+                if (("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) && uri.getHost() != null) {
+                    origins.add(uri.getScheme() + "://" + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort()));
+                }
+            } catch (IllegalArgumentException e) {
+                // Not a URL an origin can be taken from
+            }
+        }
+    }
+
+    private void shutdown() {
+        List<WebDriver> sessions;
+        synchronized (this) {
+            sessions = new ArrayList<>(all);
+            all.clear();
+            idle.clear();
+        }
+        System.out.println("Browser broker stopping after " + leases.get() + " leases, "
+                + reclaimed.get() + " reclaimed from closed connections");
+        resets.shutdownNow();
+        for (WebDriver session : sessions) {
+            try {
+                session.quit();
+            } catch (RuntimeException e) {
+                System.err.println("Failed to quit pooled session: " + e.getMessage());
+            }
+        }
+        try {
+            resets.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
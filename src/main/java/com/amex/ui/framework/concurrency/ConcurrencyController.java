@@ -0,0 +1,260 @@
+package com.amex.ui.framework.concurrency;
+
+import com.amex.ui.framework.config.ConfigReader;
+import com.amex.ui.framework.config.DriverManager;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes test parallelism by host load instead of a fixed thread count. TestNG runs with up to
+ * concurrency.max threads (0 = one per CPU), and each test takes a permit from this controller before its browser
+ * session is started, so the number of tests and sessions running at once is the current level.
+ *
+ * The level starts at concurrency.initial. Every concurrency.intervalSeconds it is lowered
+ * (by a quarter) when host CPU or free memory cross their limits or when page load and click
+ * latency grow past concurrency.latencyFactor times their best observed value, and raised by one
+ * when the host has headroom and every permit is in use. Each change is logged with its reason.
+ */
+public class ConcurrencyController {
+    private static ConcurrencyController instance;
+
+    private static final ThreadLocal<Boolean> holdsPermit = ThreadLocal.withInitial(() -> false);
+
+    private final int minLevel;
+    private final int maxLevel;
+    private final double maxCpu;
+    private final long minFreeMb;
+    private final double latencyFactor;
+    private final ScheduledExecutorService scheduler;
+
+    private int level;
+    private int running;
+    private int peakRunning;
+    // Latency of each operation relative to the best seen for it, since the last adjustment
+    private final List<Double> latencyRatios = new ArrayList<>();
+    private final Map<String, Long> bestLatencyMillis = new ConcurrentHashMap<>();
+    private final List<String> history = Collections.synchronizedList(new ArrayList<>());
+
+    private ConcurrencyController() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        this.minLevel = Integer.parseInt(ConfigReader.getProperty("concurrency.min", "1"));
+        int max = Integer.parseInt(ConfigReader.getProperty("concurrency.max", "0"));
+        this.maxLevel = max > 0 ? max : cpus;
+        this.level = Math.max(minLevel, Math.min(maxLevel,
+                Integer.parseInt(ConfigReader.getProperty("concurrency.initial", "2"))));
+        this.maxCpu = Double.parseDouble(ConfigReader.getProperty("concurrency.maxCpu", "0.85"));
+        this.minFreeMb = Long.parseLong(ConfigReader.getProperty("concurrency.minFreeMB", "1024"));
+        this.latencyFactor = Double.parseDouble(ConfigReader.getProperty("concurrency.latencyFactor", "2.0"));
+
+        long interval = Long.parseLong(ConfigReader.getProperty("concurrency.intervalSeconds", "5"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "concurrency-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::adjust, interval, interval, TimeUnit.SECONDS);
+        log("start at " + level + " (min " + minLevel + ", max " + maxLevel + ")");
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("concurrency.adaptive", "false"));
+    }
+
+    private static synchronized ConcurrencyController getInstance() {
+        if (instance == null) {
+            instance = new ConcurrencyController();
+        }
+        return instance;
+    }
+
+    /**
+     * Blocks until the current level allows one more running test. A thread that has to wait
+     * first quits the session it kept for reuse, so lowering the level also frees browsers.
+     */
+    public static void acquire() {
+        if (!isEnabled() || holdsPermit.get()) {
+            return;
+        }
+        ConcurrencyController controller = getInstance();
+        synchronized (controller) {
+            if (controller.running >= controller.level && DriverManager.isSessionReuse()) {
+                DriverManager.quitDriver();
+            }
+            try {
+                while (controller.running >= controller.level) {
+                    controller.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a concurrency permit", e);
+            }
+            controller.running++;
+            controller.peakRunning = Math.max(controller.peakRunning, controller.running);
+        }
+        holdsPermit.set(true);
+    }
+
+    /**
+     * Returns the current thread's permit, once its test has released its session
+     */
+    public static void release() {
+        if (!holdsPermit.get()) {
+            return;
+        }
+        holdsPermit.remove();
+        ConcurrencyController controller = getInstance();
+        synchronized (controller) {
+            controller.running--;
+            controller.notifyAll();
+        }
+    }
+
+    /**
+     * Records how long a page load or click took, compared with the fastest time seen for the same operation
+     * @param operation Stable name of the operation, e.g. page class and action
+     */
+    public static void recordLatency(String operation, long millis) {
+        if (!isEnabled()) {
+            return;
+        }
+        ConcurrencyController controller = getInstance();
+        long best = controller.bestLatencyMillis.merge(operation, millis, Math::min);
+        // Below 50 ms, noise would dominate the ratio
+        double ratio = (double) millis / Math.max(50, best);
+        synchronized (controller) {
+            controller.latencyRatios.add(ratio);
+        }
+    }
+
+    private void adjust() {
+        try {
+            double cpu = getCpuLoad();
+            long freeMb = getFreeMemoryMb();
+            double latency;
+            int running;
+            synchronized (this) {
+                latency = median(latencyRatios);
+                latencyRatios.clear();
+                running = this.running;
+            }
+
+            String reason = null;
+            int next = level;
+            if (cpu > maxCpu) {
+                reason = String.format("cpu %.0f%% > %.0f%%", cpu * 100, maxCpu * 100);
+            } else if (freeMb >= 0 && freeMb < minFreeMb) {
+                reason = "free memory " + freeMb + " MB < " + minFreeMb + " MB";
+            } else if (latency > latencyFactor) {
+                reason = String.format("latency %.1fx best > %.1fx", latency, latencyFactor);
+            }
+            if (reason != null) {
+                next = Math.max(minLevel, Math.min(level - 1, level * 3 / 4));
+            } else if (running >= level && cpu < maxCpu - 0.15) {
+                // Only grow while every permit is in use, otherwise more would not run anyway
+                next = Math.min(maxLevel, level + 1);
+                reason = String.format("headroom: cpu %.0f%%, free memory %d MB, latency %.1fx best",
+                        cpu * 100, freeMb, latency);
+            }
+
+            if (next != level) {
+                synchronized (this) {
+                    log(level + " -> " + next + " (" + reason + ", running " + running + ")");
+                    level = next;
+                    notifyAll();
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Concurrency controller failed to adjust: " + e.getMessage());
+        }
+    }
+
+    private void log(String message) {
+        String line = LocalTime.now().truncatedTo(ChronoUnit.SECONDS) + " " + message;
+        history.add(line);
+        System.out.println("Concurrency: " + line);
+    }
+
+    /**
+     * Host CPU load from 0 to 1, or 0 if the JVM does not expose it
+     */
+    @SuppressWarnings("deprecation")
+    private static double getCpuLoad() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            double load = ((com.sun.management.OperatingSystemMXBean) os).getSystemCpuLoad();
+            return load < 0 ? 0 : load;
+        }
+        return 0;
+    }
+
+    /**
+     * Memory available to new processes in MB, including reclaimable cache on Linux, or -1 if unknown
+     */
+    @SuppressWarnings("deprecation")
+    private static long getFreeMemoryMb() {
+        Path meminfo = Paths.get("/proc/meminfo");
+        if (Files.isReadable(meminfo)) {
+            try {
+                for (String line : Files.readAllLines(meminfo)) {
+                    if (line.startsWith("MemAvailable:")) {
+                        return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Fall back to the JVM's view below
+            }
+        }
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize() / (1024 * 1024);
+        }
+        return -1;
+    }
+
+    private static double median(List<Double> values) {
+        if (values.isEmpty()) {
+            return 1.0;
+        }
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /**
+     * Levels chosen over the run, for the suite summary report
+     */
+    public static String getReportSection() {
+        ConcurrencyController controller;
+        synchronized (ConcurrencyController.class) {
+            controller = instance;
+        }
+        if (controller == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        synchronized (controller) {
+            sb.append("Adaptive Concurrency: final level ").append(controller.level)
+                    .append(", peak running ").append(controller.peakRunning).append('\n');
+        }
+        synchronized (controller.history) {
+            for (String line : controller.history) {
+                sb.append("- ").append(line).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
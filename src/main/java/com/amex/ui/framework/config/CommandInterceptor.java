@@ -0,0 +1,115 @@
+package com.amex.ui.framework.config;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+import utils.CommandStats;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decorates a session so every WebDriver command is counted in {@link CommandStats}, and
+ * identical reads with no mutating command in between are flagged. With commands.cache=true,
+ * the current URL, title and window handles are served from memory until the next mutating
+ * command or for at most commands.cacheTtlMs, so waits polling the URL still see redirects.
+ * Commands are also reported to the {@link HangWatchdog}, which bounds their duration.
+ */
+class CommandInterceptor extends WebDriverDecorator<WebDriver> {
+    // Reads whose result only changes when something is done to the page
+    private static final Set<String> READS = new HashSet<>(Arrays.asList(
+            "getCurrentUrl", "getTitle", "getWindowHandle", "getWindowHandles", "getPageSource",
+            "getText", "getAttribute", "getDomAttribute", "getDomProperty", "getCssValue", "getTagName",
+            "isDisplayed", "isEnabled", "isSelected", "getRect", "getLocation", "getSize", "getAccessibleName",
+            "getAriaRole"));
+    private static final Set<String> CACHEABLE = new HashSet<>(Arrays.asList(
+            "getCurrentUrl", "getTitle", "getWindowHandle", "getWindowHandles"));
+    // Commands that neither read page state nor change it
+    private static final Set<String> NEUTRAL = new HashSet<>(Arrays.asList(
+            "findElement", "findElements", "getScreenshotAs", "getCapabilities", "getShadowRoot", "getSessionId"));
+    // Methods answered locally, without a round-trip
+    private static final List<Class<?>> LOCAL_TYPES = Arrays.asList(WebDriver.Options.class, WebDriver.Navigation.class,
+            WebDriver.TargetLocator.class, WebDriver.Timeouts.class, WebDriver.Window.class);
+
+    private final boolean cacheEnabled;
+    private final long cacheTtlMillis;
+    private final Map<String, Object> cache = new HashMap<>();
+    private final Map<String, Long> cachedAt = new HashMap<>();
+    private final Set<String> readsSinceMutation = new HashSet<>();
+
+    private CommandInterceptor() {
+        this.cacheEnabled = Boolean.parseBoolean(ConfigReader.getProperty("commands.cache", "false"));
+        this.cacheTtlMillis = Long.parseLong(ConfigReader.getProperty("commands.cacheTtlMs", "500"));
+    }
+
+    static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("commands.intercept", "true"));
+    }
+
+    static WebDriver wrap(WebDriver session) {
+        return new CommandInterceptor().decorate(session);
+    }
+
+    @Override
+    public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (method.getDeclaringClass() == Object.class || LOCAL_TYPES.contains(method.getReturnType())
+                || name.startsWith("getWrapped")) {
+            return super.call(target, method, args);
+        }
+
+        Object original = target.getOriginal();
+        boolean driverCall = original instanceof WebDriver;
+        synchronized (this) {
+            if (cacheEnabled && driverCall && CACHEABLE.contains(name)) {
+                Long at = cachedAt.get(name);
+                if (at != null && System.currentTimeMillis() - at <= cacheTtlMillis) {
+                    CommandStats.recordCacheHit(name);
+                    return cache.get(name);
+                }
+            }
+
+            boolean repeated = false;
+            if (READS.contains(name)) {
+                repeated = !readsSinceMutation.add(identity(original) + "." + name + Arrays.toString(args));
+            } else if (!NEUTRAL.contains(name)) {
+                readsSinceMutation.clear();
+                cache.clear();
+                cachedAt.clear();
+            }
+            CommandStats.recordCommand(name, repeated);
+        }
+
+        Object result;
+        HangWatchdog.commandStarted(name);
+        try {
+            result = super.call(target, method, args);
+        } finally {
+            HangWatchdog.commandFinished();
+        }
+        if (cacheEnabled && driverCall && CACHEABLE.contains(name)) {
+            synchronized (this) {
+                cache.put(name, result);
+                cachedAt.put(name, System.currentTimeMillis());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Elements located again for the same DOM node share their remote id
+     */
+    private static String identity(Object target) {
+        if (target instanceof RemoteWebElement) {
+            return ((RemoteWebElement) target).getId();
+        }
+        return target instanceof WebElement ? String.valueOf(System.identityHashCode(target)) : "driver";
+    }
+}
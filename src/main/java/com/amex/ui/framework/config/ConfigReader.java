@@ -1,6 +1,8 @@
 package com.amex.ui.framework.config;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 public class ConfigReader {
@@ -39,4 +41,54 @@ public class ConfigReader {
         }
         return properties.getProperty(key, defaultValue);
     }
+
+    /**
+     * Overrides a property for the rest of this JVM, e.g. for modes started from code.
+     * A null value removes the property.
+     */
+    public static void overrideProperty(String key, String value) {
+        if (!isLoaded) {
+            loadConfig();
+        }
+        if (value == null) {
+            properties.remove(key);
+        } else {
+            properties.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Starts a set of overrides that are undone on close, e.g. for the duration of a test class
+     */
+    public static Overrides overrides() {
+        if (!isLoaded) {
+            loadConfig();
+        }
+        return new Overrides();
+    }
+
+    /**
+     * Properties overridden through one scope. Closing restores the values they had before the
+     * first override, and removes those that were not set at all.
+     */
+    public static final class Overrides implements AutoCloseable {
+        private final Map<String, String> previous = new LinkedHashMap<>();
+
+        private Overrides() {
+        }
+
+        public Overrides set(String key, String value) {
+            if (!previous.containsKey(key)) {
+                previous.put(key, properties.getProperty(key));
+            }
+            overrideProperty(key, value);
+            return this;
+        }
+
+        @Override
+        public void close() {
+            previous.forEach(ConfigReader::overrideProperty);
+            previous.clear();
+        }
+    }
 }
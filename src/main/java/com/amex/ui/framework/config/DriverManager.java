@@ -1,15 +1,41 @@
 package com.amex.ui.framework.config;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.safari.SafariDriver;
+import org.openqa.selenium.safari.SafariOptions;
 import org.openqa.selenium.chrome.ChromeOptions;
 import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.remote.AbstractDriverOptions;
+import com.amex.ui.framework.broker.BrokerClient;
+import com.amex.ui.framework.trace.Span;
+import com.amex.ui.framework.trace.Tracer;
+import utils.ExecutionStats;
+import utils.NetworkIdle;
+import utils.ScreencastRecorder;
+import utils.SessionTelemetry;
+import utils.StreamingReportWriter;
 import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DriverManager {
     private static ThreadLocal<WebDriver> driver = new ThreadLocal<>();
+    // The undecorated session, which the grid queue and liveSessions know by identity
+    private static ThreadLocal<WebDriver> session = new ThreadLocal<>();
+    private static ThreadLocal<String> sessionLabel = new ThreadLocal<>();
+    // Page object last created on the thread's session, for attributing its DOM snapshots
+    private static ThreadLocal<String> currentPage = new ThreadLocal<>();
+    private static final AtomicInteger sessionCounter = new AtomicInteger();
+    // Sessions kept open between tests, so they can be quit at suite end from any thread
+    private static final Set<WebDriver> liveSessions = ConcurrentHashMap.newKeySet();
 
     private DriverManager() {
         // Private constructor to prevent instantiation
@@ -22,12 +48,110 @@ public class DriverManager {
         return driver.get();
     }
 
+    /**
+     * Whether the current thread has a session, without starting one
+     */
+    public static boolean hasDriver() {
+        return driver.get() != null;
+    }
+
     public static void initDriver() {
+        // A reused session stays bound to its thread until it is recycled
+        if (driver.get() != null && isSessionReuse()) {
+            return;
+        }
+
+        sessionLabel.set((isTabMode() ? "tab-" : "session-") + sessionCounter.incrementAndGet());
+        currentPage.remove();
+
+        try (Span span = Tracer.start("session start").attr("session", sessionLabel.get())
+                .attr("mode", isTabMode() ? "tab" : isBrokerMode() ? "broker" : GridSessionQueue.isRemote() ? "grid" : "local")) {
+            // In tab mode every test thread gets its own tab of one shared browser process
+            if (isTabMode()) {
+                bind(SharedBrowser.getInstance().openTab());
+                return;
+            }
+            // Warm sessions leased from the browser broker process are returned, never quit, by this JVM
+            if (isBrokerMode()) {
+                bind(BrokerClient.lease());
+                return;
+            }
+
+            WebDriver newDriver = createDriver();
+            liveSessions.add(newDriver);
+            bind(newDriver);
+
+            if (GridSessionQueue.isRemote()) {
+                long waitMillis = GridSessionQueue.getLastWaitMillis();
+                span.attr("gridWaitMs", waitMillis);
+                ExecutionStats.recordGridWait(waitMillis);
+                StreamingReportWriter.recordStep("grid slot wait", waitMillis);
+            }
+        }
+    }
+
+    /**
+     * Binds a new session to the current thread, behind the command interceptor unless it is disabled
+     */
+    private static void bind(WebDriver newDriver) {
+        session.set(newDriver);
+        driver.set(CommandInterceptor.isEnabled() ? CommandInterceptor.wrap(newDriver) : newDriver);
+    }
+
+    /**
+     * The current thread's session without the command interceptor, as created
+     */
+    static WebDriver getSession() {
+        return session.get();
+    }
+
+    /**
+     * Time the current thread waited for a grid slot when its session was created, in ms
+     */
+    public static long getGridWaitMillis() {
+        return GridSessionQueue.getLastWaitMillis();
+    }
+
+    /**
+     * Starts a new browser session with the configured options and default timeouts,
+     * locally or on the Selenium Grid when remote mode is enabled. Also used by the
+     * browser broker to fill its pool.
+     */
+    public static WebDriver createDriver() {
         String browser = ConfigReader.getProperty("browser").toLowerCase();
+        Capabilities options = createOptions(browser);
+        WebDriver newDriver = GridSessionQueue.isRemote() ? GridSessionQueue.createSession(options)
+                : createLocalDriver(browser, options);
+
+        // Set default timeout
+        newDriver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+        newDriver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
+        // Readiness checks run as async scripts bounded by explicitWait, so leave them headroom
+        int explicitWait = Integer.parseInt(ConfigReader.getProperty("explicitWait", "30"));
+        newDriver.manage().timeouts().scriptTimeout(Duration.ofSeconds(explicitWait + 5));
+        newDriver.manage().window().maximize();
 
+        // Track fetch/XHR from the first script of every document
+        if (newDriver instanceof HasCdp) {
+            NetworkIdle.installOnNewDocument((HasCdp) newDriver);
+        }
+        return newDriver;
+    }
+
+    /**
+     * Browser options shared by local and remote launches
+     */
+    private static Capabilities createOptions(String browser) {
+        AbstractDriverOptions<?> options = createBrowserOptions(browser);
+        // eager and none return from navigation before subresources finish; pages then wait for their own readiness
+        options.setPageLoadStrategy(PageLoadStrategy.fromString(
+                ConfigReader.getProperty("pageLoadStrategy", "normal").toLowerCase()));
+        return options;
+    }
+
+    private static AbstractDriverOptions<?> createBrowserOptions(String browser) {
         switch (browser) {
             case "chrome":
-                WebDriverManager.chromedriver().setup();
                 ChromeOptions options = new ChromeOptions();
                 options.addArguments("--start-maximized");
                 options.addArguments("--disable-notifications");
@@ -35,33 +159,176 @@ public class DriverManager {
                 if (Boolean.parseBoolean(ConfigReader.getProperty("headless"))) {
                     options.addArguments("--headless");
                 }
-                driver.set(new ChromeDriver(options));
-                break;
+                return options;
+            case "firefox":
+                return new FirefoxOptions();
+            case "edge":
+                return new EdgeOptions();
+            case "safari":
+                return new SafariOptions();
+            default:
+                throw new RuntimeException("Unsupported browser: " + browser);
+        }
+    }
+
+    private static WebDriver createLocalDriver(String browser, Capabilities options) {
+        switch (browser) {
+            case "chrome":
+                WebDriverManager.chromedriver().setup();
+                return new ChromeDriver((ChromeOptions) options);
             case "firefox":
                 WebDriverManager.firefoxdriver().setup();
-                driver.set(new FirefoxDriver());
-                break;
+                return new FirefoxDriver((FirefoxOptions) options);
             case "edge":
                 WebDriverManager.edgedriver().setup();
-                driver.set(new EdgeDriver());
-                break;
+                return new EdgeDriver((EdgeOptions) options);
             case "safari":
-                driver.set(new SafariDriver());
-                break;
+                return new SafariDriver((SafariOptions) options);
             default:
                 throw new RuntimeException("Unsupported browser: " + browser);
         }
+    }
 
-        // Set default timeout
-        driver.get().manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        driver.get().manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
-        driver.get().manage().window().maximize();
+    /**
+     * Whether tests share one browser process, each bound to its own tab
+     */
+    public static boolean isTabMode() {
+        return "tab".equalsIgnoreCase(ConfigReader.getProperty("executionMode", "process"));
+    }
+
+    /**
+     * Whether sessions are leased from a BrowserBroker process shared with other JVMs
+     */
+    public static boolean isBrokerMode() {
+        return "broker".equalsIgnoreCase(ConfigReader.getProperty("executionMode", "process"));
+    }
+
+    /**
+     * Whether a session is kept for the next test on the same thread instead of being quit
+     */
+    public static boolean isSessionReuse() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("session.reuse", "false"));
+    }
+
+    /**
+     * Name of the current thread's session, stable for its whole lifetime
+     */
+    public static String getSessionLabel() {
+        return sessionLabel.get();
+    }
+
+    /**
+     * Records the page object the current thread's session is on, called from the BasePage constructor
+     */
+    public static void setCurrentPage(String page) {
+        currentPage.set(page);
+    }
+
+    /**
+     * Simple class name of the page object last created on the current thread's session, or null if none was
+     */
+    public static String getCurrentPage() {
+        return currentPage.get();
+    }
+
+    /**
+     * Ends a test's use of the session: samples its resource telemetry, then either
+     * quits it or, when sessions are reused, keeps it unless it crossed a recycle threshold
+     * @param testName Test that just ran, recorded with the telemetry sample
+     */
+    public static void releaseDriver(String testName) {
+        WebDriver current = driver.get();
+        if (current == null) {
+            return;
+        }
+        try (Span span = Tracer.start("session release")) {
+            span.attr("session", getSessionLabel());
+            release(current, testName);
+        }
+    }
+
+    private static void release(WebDriver current, String testName) {
+        SessionTelemetry.Sample sample = null;
+        if (SessionTelemetry.isEnabled()) {
+            sample = SessionTelemetry.sample(current, getSessionLabel(), testName);
+        }
+
+        if (!isSessionReuse()) {
+            quitDriver();
+            return;
+        }
+
+        String recycleReason = SessionTelemetry.getRecycleReason(sample);
+        if (recycleReason != null) {
+            System.out.println("Recycling " + getSessionLabel() + ": " + recycleReason + " (" + sample + ")");
+            quitDriver();
+            return;
+        }
+
+        // Leave the session clean for the next test; tabs share cookies, so leave those alone
+        if (!isTabMode()) {
+            current.manage().deleteAllCookies();
+        }
+        current.get("about:blank");
     }
 
     public static void quitDriver() {
         if (driver.get() != null) {
-            driver.get().quit();
+            // In tab mode this only closes the tab bound to the current thread, in broker mode it returns the lease
+            liveSessions.remove(session.get());
+            ScreencastRecorder.stop();
+            try (Span span = Tracer.start("session quit")) {
+                span.attr("session", getSessionLabel());
+                if (BrokerClient.isLeased(session.get())) {
+                    BrokerClient.giveBack(session.get(), false);
+                } else {
+                    driver.get().quit();
+                }
+            } finally {
+                GridSessionQueue.release(session.get());
+                driver.remove();
+                session.remove();
+                sessionLabel.remove();
+                currentPage.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the current thread's session without talking to it, after the hang watchdog killed it
+     */
+    public static void abandonDriver() {
+        if (driver.get() != null) {
+            liveSessions.remove(session.get());
+            ScreencastRecorder.stop();
+            BrokerClient.giveBack(session.get(), true);
+            GridSessionQueue.release(session.get());
             driver.remove();
+            session.remove();
+            sessionLabel.remove();
+            currentPage.remove();
+        }
+    }
+
+    /**
+     * Quits every session still open at suite end: reused sessions of all threads
+     * and the shared browser process used by tab mode. Does nothing while
+     * session.keepAlive is set, as the test daemon keeps sessions warm between runs.
+     */
+    public static void quitAllDrivers() {
+        if (Boolean.parseBoolean(ConfigReader.getProperty("session.keepAlive", "false"))) {
+            return;
+        }
+        for (WebDriver session : liveSessions) {
+            try {
+                session.quit();
+            } catch (Exception e) {
+                System.err.println("Failed to quit session: " + e.getMessage());
+            } finally {
+                GridSessionQueue.release(session);
+            }
         }
+        liveSessions.clear();
+        SharedBrowser.shutdown();
     }
 }
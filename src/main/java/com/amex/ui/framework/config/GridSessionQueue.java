@@ -0,0 +1,120 @@
+package com.amex.ui.framework.config;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Creates RemoteWebDriver sessions on a Selenium Grid (grid.url). Session requests wait in a
+ * fair queue for one of grid.maxSessions slots (0 = no client-side limit), and when the grid
+ * itself is saturated the request is retried with backoff until grid.queueTimeoutSeconds,
+ * instead of failing the test. Requests the grid can never serve, such as unsupported
+ * capabilities, fail straight away. The time spent waiting is kept per thread for reporting.
+ */
+class GridSessionQueue {
+    private static final long MAX_BACKOFF_MS = 10_000;
+
+    // Refusals that a later request can get past: the grid's own queue timing out or every slot busy.
+    // Anything else, such as no node supporting the capabilities, fails the same way every time.
+    private static final Pattern RETRYABLE = Pattern.compile(
+            "(?i)timed out|timeout|queue|no (free|available) slot|slots? (are )?busy|at capacity|try again");
+
+    private static Semaphore slots;
+    private static final Set<WebDriver> slotHolders = ConcurrentHashMap.newKeySet();
+    private static final ThreadLocal<Long> lastWaitMillis = ThreadLocal.withInitial(() -> 0L);
+
+    private GridSessionQueue() {
+        // Private constructor to prevent instantiation
+    }
+
+    static boolean isRemote() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("grid.enabled", "false"));
+    }
+
+    /**
+     * Time the current thread's last session request spent queued, in ms
+     */
+    static long getLastWaitMillis() {
+        return lastWaitMillis.get();
+    }
+
+    static WebDriver createSession(Capabilities options) {
+        URL gridUrl;
+        try {
+            gridUrl = new URL(ConfigReader.getProperty("grid.url", "http://localhost:4444"));
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Invalid grid.url", e);
+        }
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(ConfigReader.getProperty("grid.queueTimeoutSeconds", "600")));
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutMillis;
+
+        Semaphore limit = getSlots();
+        boolean holdsSlot = false;
+        try {
+            if (limit != null) {
+                if (!limit.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new SessionNotCreatedException("No grid slot free after " + timeoutMillis + "ms");
+                }
+                holdsSlot = true;
+            }
+
+            long backoff = 500;
+            while (true) {
+                try {
+                    RemoteWebDriver session = new RemoteWebDriver(gridUrl, options);
+                    if (holdsSlot) {
+                        slotHolders.add(session);
+                        holdsSlot = false;
+                    }
+                    lastWaitMillis.set(System.currentTimeMillis() - start);
+                    return session;
+                } catch (SessionNotCreatedException e) {
+                    // Grid saturated or its own queue timed out: keep our place and ask again
+                    if (!isRetryable(e) || System.currentTimeMillis() + backoff > deadline) {
+                        throw e;
+                    }
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SessionNotCreatedException("Interrupted while waiting for a grid slot");
+        } finally {
+            // Session creation failed after taking a slot
+            if (holdsSlot) {
+                limit.release();
+            }
+        }
+    }
+
+    private static boolean isRetryable(SessionNotCreatedException e) {
+        return e.getRawMessage() != null && RETRYABLE.matcher(e.getRawMessage()).find();
+    }
+
+    /**
+     * Frees the slot held by a session, if it holds one
+     */
+    static void release(WebDriver session) {
+        if (session != null && slotHolders.remove(session)) {
+            slots.release();
+        }
+    }
+
+    private static synchronized Semaphore getSlots() {
+        int maxSessions = Integer.parseInt(ConfigReader.getProperty("grid.maxSessions", "0"));
+        if (slots == null && maxSessions > 0) {
+            slots = new Semaphore(maxSessions, true);
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,318 @@
+package com.amex.ui.framework.config;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import utils.ArtifactStore;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounds how long a test (watchdog.testTimeoutSeconds) and a single WebDriver command
+ * (watchdog.commandTimeoutSeconds) may run, so a hung browser or driver call cannot stall a
+ * worker thread. On expiry the watchdog stores a thread dump and the session state in the
+ * artifact store, force-kills the local driver process with its browser, which makes the
+ * blocked call fail, and interrupts the worker; BaseTest then marks the test failed.
+ *
+ * Grid sessions are not killed, as their processes are remote; the worker is only interrupted.
+ * In tab mode the hung command holds the shared browser's lock, so every tab is stuck behind
+ * it: the whole shared browser is killed (quit, on a grid) and the next tab starts a new one.
+ * Other tests running in its tabs fail with it.
+ */
+public class HangWatchdog {
+    private static final Map<Thread, Watch> watches = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Watch> current = new ThreadLocal<>();
+    private static final long FIRE_WAIT_MILLIS = 60_000;
+    private static ScheduledExecutorService scheduler;
+
+    private enum State { RUNNING, FIRING, FIRED, DONE }
+
+    private static class Watch {
+        final Thread thread = Thread.currentThread();
+        final String testName;
+        final String sessionLabel;
+        final WebDriver session;
+        final long testDeadlineMillis;
+        volatile String command;
+        volatile long commandStartMillis;
+        volatile String firedReason;
+        // RUNNING moves to FIRING (then FIRED) or to DONE, whichever of fire and testFinished comes first
+        final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
+        final CountDownLatch fireCompleted = new CountDownLatch(1);
+
+        Watch(String testName, String sessionLabel, WebDriver session, long testDeadlineMillis) {
+            this.testName = testName;
+            this.sessionLabel = sessionLabel;
+            this.session = session;
+            this.testDeadlineMillis = testDeadlineMillis;
+        }
+    }
+
+    private HangWatchdog() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("watchdog.enabled", "true"));
+    }
+
+    /**
+     * Starts watching the current thread's test and its session, once the session is started
+     */
+    public static void testStarted(String testName) {
+        if (!isEnabled()) {
+            return;
+        }
+        long timeout = getSeconds("watchdog.testTimeoutSeconds", "600") * 1000;
+        Watch watch = new Watch(testName, DriverManager.getSessionLabel(), DriverManager.getSession(),
+                System.currentTimeMillis() + timeout);
+        current.set(watch);
+        watches.put(watch.thread, watch);
+        startScheduler();
+    }
+
+    /**
+     * Stops watching the current thread. If the watchdog is reclaiming the test at that moment,
+     * waits for it to finish, so it cannot kill the session or interrupt the thread's next test.
+     */
+    public static void testFinished() {
+        Watch watch = current.get();
+        if (watch != null) {
+            current.remove();
+            watches.remove(watch.thread);
+            if (!watch.state.compareAndSet(State.RUNNING, State.DONE)) {
+                awaitFire(watch);
+            }
+            // Clear an interrupt the worker has not consumed, so it does not fail the next test
+            Thread.interrupted();
+        }
+    }
+
+    private static void awaitFire(Watch watch) {
+        long deadline = System.currentTimeMillis() + FIRE_WAIT_MILLIS;
+        long remaining;
+        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+            try {
+                if (watch.fireCompleted.await(remaining, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                // The watchdog's own interrupt of this thread; it is cleared once the wait is over
+            }
+        }
+        System.err.println("Hang watchdog: still reclaiming " + watch.testName + " after " + FIRE_WAIT_MILLIS + " ms");
+    }
+
+    /**
+     * Why the watchdog killed the current thread's test, or null if it did not
+     */
+    public static String getFiredReason() {
+        Watch watch = current.get();
+        return watch == null ? null : watch.firedReason;
+    }
+
+    /**
+     * Called by the command interceptor around each WebDriver command
+     */
+    static void commandStarted(String command) {
+        Watch watch = current.get();
+        if (watch != null) {
+            watch.commandStartMillis = System.currentTimeMillis();
+            watch.command = command;
+        }
+    }
+
+    static void commandFinished() {
+        Watch watch = current.get();
+        if (watch != null) {
+            watch.command = null;
+        }
+    }
+
+    private static synchronized void startScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hang-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(HangWatchdog::check, 1, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void check() {
+        long now = System.currentTimeMillis();
+        long commandTimeout = getSeconds("watchdog.commandTimeoutSeconds", "120") * 1000;
+        for (Watch watch : watches.values()) {
+            if (watch.state.get() != State.RUNNING) {
+                continue;
+            }
+            String command = watch.command;
+            if (command != null && now - watch.commandStartMillis > commandTimeout) {
+                fire(watch, "WebDriver command " + command + " did not return within " + commandTimeout / 1000 + " s");
+            } else if (now > watch.testDeadlineMillis) {
+                fire(watch, "Test exceeded watchdog.testTimeoutSeconds"
+                        + (command != null ? " while running WebDriver command " + command : ""));
+            }
+        }
+    }
+
+    private static void fire(Watch watch, String reason) {
+        // A test that has finished may already have handed its session to the thread's next test
+        if (!watch.state.compareAndSet(State.RUNNING, State.FIRING)) {
+            return;
+        }
+        try {
+            watch.firedReason = reason;
+            System.err.println("Hang watchdog: " + watch.testName + " on " + watch.sessionLabel + ": " + reason);
+            ArtifactStore.store(watch.testName, "watchdog", "threaddump", dumpThreads());
+            ArtifactStore.store(watch.testName, "watchdog", "session", describe(watch, reason));
+
+            int killed;
+            if (DriverManager.isTabMode()) {
+                killed = discardSharedBrowser();
+            } else {
+                killed = killDriverProcess(watch.session);
+            }
+            System.err.println("Hang watchdog: killed " + killed + " processes of " + watch.sessionLabel
+                    + ", interrupting " + watch.thread.getName());
+            watch.thread.interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("Hang watchdog failed to reclaim " + watch.testName + ": " + e.getMessage());
+        } finally {
+            watch.state.set(State.FIRED);
+            watch.fireCompleted.countDown();
+        }
+    }
+
+    private static String describe(Watch watch, String reason) {
+        long now = System.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        sb.append("reason: ").append(reason).append('\n');
+        sb.append("test: ").append(watch.testName).append('\n');
+        sb.append("thread: ").append(watch.thread.getName()).append(" (").append(watch.thread.getState()).append(")\n");
+        sb.append("session: ").append(watch.sessionLabel).append('\n');
+        if (watch.session instanceof RemoteWebDriver) {
+            sb.append("sessionId: ").append(((RemoteWebDriver) watch.session).getSessionId()).append('\n');
+            sb.append("capabilities: ").append(((RemoteWebDriver) watch.session).getCapabilities()).append('\n');
+        }
+        String command = watch.command;
+        if (command != null) {
+            sb.append("command: ").append(command).append(", running for ")
+                    .append(now - watch.commandStartMillis).append(" ms\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * All threads with full stacks and the locks they hold or wait for
+     */
+    private static String dumpThreads() {
+        StringBuilder sb = new StringBuilder();
+        for (ThreadInfo info : ManagementFactory.getThreadMXBean().dumpAllThreads(true, true)) {
+            sb.append('"').append(info.getThreadName()).append("\" ").append(info.getThreadState());
+            if (info.getLockName() != null) {
+                sb.append(" on ").append(info.getLockName());
+            }
+            if (info.getLockOwnerName() != null) {
+                sb.append(" owned by \"").append(info.getLockOwnerName()).append('"');
+            }
+            sb.append('\n');
+            for (StackTraceElement frame : info.getStackTrace()) {
+                sb.append("\tat ").append(frame).append('\n');
+            }
+            for (LockInfo lock : info.getLockedSynchronizers()) {
+                sb.append("\t- locked ").append(lock).append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Kills the shared browser of tab mode, or quits it from a separate thread when it runs on a
+     * grid; interrupting the worker alone would leave its HTTP call, and the browser lock, held
+     * @return Number of processes killed
+     */
+    private static int discardSharedBrowser() {
+        WebDriver browser = SharedBrowser.discard();
+        if (browser == null) {
+            return 0;
+        }
+        int killed = killDriverProcess(browser);
+        if (killed == 0) {
+            Thread quit = new Thread(() -> {
+                try {
+                    browser.quit();
+                } catch (RuntimeException e) {
+                    System.err.println("Hang watchdog failed to quit the shared browser: " + e.getMessage());
+                }
+            }, "hang-watchdog-quit");
+            quit.setDaemon(true);
+            quit.start();
+        }
+        return killed;
+    }
+
+    /**
+     * Force-kills the local driver process serving a session, and the browser it started
+     * @return Number of processes killed
+     */
+    private static int killDriverProcess(WebDriver session) {
+        if (!(session instanceof RemoteWebDriver) || GridSessionQueue.isRemote()) {
+            return 0;
+        }
+        CommandExecutor executor = ((RemoteWebDriver) session).getCommandExecutor();
+        if (!(executor instanceof HttpCommandExecutor)) {
+            return 0;
+        }
+        String port = String.valueOf(((HttpCommandExecutor) executor).getAddressOfRemoteServer().getPort());
+        int killed = 0;
+        // Driver services are started by this JVM and identified by the port they listen on
+        for (ProcessHandle driver : (Iterable<ProcessHandle>) ProcessHandle.current().children()::iterator) {
+            if (!listensOn(driver, port)) {
+                continue;
+            }
+            for (ProcessHandle child : (Iterable<ProcessHandle>) driver.descendants()::iterator) {
+                if (child.destroyForcibly()) {
+                    killed++;
+                }
+            }
+            if (driver.destroyForcibly()) {
+                killed++;
+            }
+        }
+        return killed;
+    }
+
+    private static boolean listensOn(ProcessHandle process, String port) {
+        Optional<String[]> arguments = process.info().arguments();
+        if (!arguments.isPresent()) {
+            return false;
+        }
+        List<String> args = List.of(arguments.get());
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (arg.equals("--port=" + port) || (arg.equals("--port") && i + 1 < args.size() && args.get(i + 1).equals(port))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getSeconds(String key, String defaultValue) {
+        return Long.parseLong(ConfigReader.getProperty(key, defaultValue));
+    }
+}
@@ -0,0 +1,186 @@
+package com.amex.ui.framework.config;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Interactive;
+import org.openqa.selenium.interactions.Locatable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One browser process shared by several test threads, each bound to its own tab.
+ * A WebDriver session executes one command at a time, so every call made through a
+ * tab driver takes the browser lock and switches to the tab's window handle first.
+ * The implicit wait is kept at 0, so a findElement holds the lock for one round-trip
+ * instead of blocking every other tab while it waits; page elements and WaitUtils poll
+ * outside the lock. Classic WebDriver cannot create isolated browser contexts, so cookies and storage
+ * are shared between tabs of the same process.
+ */
+class SharedBrowser {
+    private static SharedBrowser instance;
+
+    private final WebDriver browser;
+    private final Object lock = new Object();
+    private String activeHandle;
+
+    private SharedBrowser(WebDriver browser) {
+        this.browser = browser;
+        // The initial window stays open so closing the last tab does not end the session
+        this.activeHandle = browser.getWindowHandle();
+    }
+
+    static synchronized SharedBrowser getInstance() {
+        if (instance == null) {
+            WebDriver browser = DriverManager.createDriver();
+            browser.manage().timeouts().implicitlyWait(Duration.ZERO);
+            instance = new SharedBrowser(browser);
+        }
+        return instance;
+    }
+
+    static synchronized void shutdown() {
+        if (instance != null) {
+            instance.browser.quit();
+            instance = null;
+        }
+    }
+
+    /**
+     * Drops a hung browser without taking its lock, which the hung command holds. Tabs already
+     * open on it fail once it is killed, and the next tab opened starts a new browser.
+     * @return The dropped browser, or null if none was running
+     */
+    static synchronized WebDriver discard() {
+        if (instance == null) {
+            return null;
+        }
+        WebDriver browser = instance.browser;
+        instance = null;
+        return browser;
+    }
+
+    /**
+     * Opens a new tab and returns a driver whose commands always run against it
+     */
+    WebDriver openTab() {
+        synchronized (lock) {
+            browser.switchTo().newWindow(WindowType.TAB);
+            activeHandle = browser.getWindowHandle();
+            return (WebDriver) route(browser, WebDriver.class, activeHandle);
+        }
+    }
+
+    private void closeTab(String handle) {
+        synchronized (lock) {
+            try {
+                if (browser.getWindowHandles().contains(handle)) {
+                    browser.switchTo().window(handle);
+                    browser.close();
+                }
+            } catch (WebDriverException e) {
+                // The browser was discarded and killed, its tabs went with it
+            } finally {
+                activeHandle = null;
+            }
+        }
+    }
+
+    private Object invoke(String handle, Object target, Method method, Object[] args) throws Throwable {
+        synchronized (lock) {
+            if (!handle.equals(activeHandle)) {
+                browser.switchTo().window(handle);
+                activeHandle = handle;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                // Switching windows or frames by hand invalidates the cached handle
+                if (method.getDeclaringClass() == WebDriver.TargetLocator.class) {
+                    activeHandle = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wraps a Selenium object so that it and everything it returns stay bound to a tab
+     */
+    private Object route(Object target, Class<?> type, String handle) {
+        if (target == null || !type.isInterface() || !type.getName().startsWith("org.openqa.selenium")) {
+            return target;
+        }
+
+        Class<?>[] interfaces;
+        if (type == WebDriver.class) {
+            interfaces = new Class<?>[]{WebDriver.class, JavascriptExecutor.class, TakesScreenshot.class,
+                    Interactive.class, HasCapabilities.class};
+        } else if (type == WebElement.class) {
+            interfaces = new Class<?>[]{WebElement.class, WrapsElement.class, Locatable.class, TakesScreenshot.class};
+        } else {
+            interfaces = new Class<?>[]{type};
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), interfaces, new TabHandler(target, handle));
+    }
+
+    private class TabHandler implements InvocationHandler {
+        private final Object target;
+        private final String handle;
+
+        TabHandler(Object target, String handle) {
+            this.target = target;
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (method.getDeclaringClass() == Object.class) {
+                if ("equals".equals(name)) {
+                    return proxy == args[0];
+                }
+                return method.invoke(target, args);
+            }
+            if (target instanceof WebDriver && ("quit".equals(name) || "close".equals(name))) {
+                closeTab(handle);
+                return null;
+            }
+            if (target instanceof WebDriver.Timeouts && "implicitlyWait".equals(name)) {
+                // Shared by all tabs and served under the lock, so it stays at 0
+                return proxy;
+            }
+            if ("getWrappedElement".equals(name)) {
+                // Lets Selenium serialise the element as a script or action argument
+                return target;
+            }
+
+            Object result = SharedBrowser.this.invoke(handle, target, method, args);
+
+            if (result instanceof List && "findElements".equals(name)) {
+                List<Object> routed = new ArrayList<>();
+                for (Object element : (List<?>) result) {
+                    routed.add(route(element, WebElement.class, handle));
+                }
+                return routed;
+            }
+            if (result instanceof WebElement) {
+                // Covers elements returned from executeScript as well as findElement
+                return route(result, WebElement.class, handle);
+            }
+            return route(result, method.getReturnType(), handle);
+        }
+    }
+}
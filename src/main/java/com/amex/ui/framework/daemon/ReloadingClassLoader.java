@@ -0,0 +1,66 @@
+package com.amex.ui.framework.daemon;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Child-first loader for page objects and tests, read straight from the build output
+ * directories. Everything else (DriverManager, utils, Selenium, TestNG) comes from the
+ * parent, so the daemon's warm sessions and caches survive a reload.
+ */
+class ReloadingClassLoader extends ClassLoader {
+    private final List<Path> classDirs;
+    private final List<String> reloadablePackages;
+
+    ReloadingClassLoader(ClassLoader parent, List<Path> classDirs, List<String> reloadablePackages) {
+        super(parent);
+        this.classDirs = classDirs;
+        this.reloadablePackages = reloadablePackages;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isReloadable(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                loaded = findClass(name);
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        String file = name.replace('.', '/') + ".class";
+        for (Path dir : classDirs) {
+            Path classFile = dir.resolve(file);
+            if (Files.isRegularFile(classFile)) {
+                try {
+                    byte[] bytes = Files.readAllBytes(classFile);
+                    return defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        }
+        // Not in the build output (e.g. a reloadable package inside a jar): fall back to the parent
+        return super.loadClass(name, false);
+    }
+
+    private boolean isReloadable(String name) {
+        for (String prefix : reloadablePackages) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
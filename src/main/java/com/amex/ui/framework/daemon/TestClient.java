@@ -0,0 +1,46 @@
+package com.amex.ui.framework.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Thin client for {@link TestDaemon}: submits one test class or method and prints results
+ * as they stream back. Exits with status 1 if any test failed.
+ *
+ * Usage: TestClient &lt;testClass&gt;[#method] [port]
+ */
+public class TestClient {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TestClient <testClass>[#method] [port]");
+            System.exit(2);
+        }
+        String target = args[0].contains(".") ? args[0] : "com.amex.ui.tests." + args[0];
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+
+        int failed = 0;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out.println("RUN " + target);
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                System.out.println(line);
+                if (line.startsWith("FAIL") || line.startsWith("ERROR")) {
+                    failed++;
+                }
+                if (line.startsWith("DONE")) {
+                    break;
+                }
+            }
+        }
+        System.exit(failed > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,175 @@
+package com.amex.ui.framework.daemon;
+
+import com.amex.ui.framework.config.ConfigReader;
+import com.amex.ui.framework.config.DriverManager;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import utils.TestListeners;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Long-running local test runner for the developer loop. It keeps the JVM, config and
+ * browser sessions warm between runs and executes tests submitted by {@link TestClient}
+ * over a loopback socket, streaming results back as they finish. Page objects and test
+ * classes are reloaded from target/classes and target/test-classes whenever they change,
+ * so recompiling is enough to pick up edits.
+ *
+ * Protocol: the client sends one line "RUN &lt;testClass&gt;[#method]", the daemon answers
+ * with PASS/FAIL/SKIP lines and a final "DONE passed failed skipped" line.
+ */
+public class TestDaemon {
+    private static final List<Path> CLASS_DIRS = Arrays.asList(Paths.get("target/classes"), Paths.get("target/test-classes"));
+    private static final List<String> RELOADABLE_PACKAGES = Arrays.asList("pages.", "com.amex.ui.tests.");
+
+    private ReloadingClassLoader loader;
+    private long loadedAt = -1;
+
+    public static void main(String[] args) throws IOException {
+        ConfigReader.loadConfig();
+        // Keep one session per runner thread across tests and runs
+        ConfigReader.overrideProperty("session.reuse", "true");
+        ConfigReader.overrideProperty("session.keepAlive", "true");
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            ConfigReader.overrideProperty("session.keepAlive", "false");
+            DriverManager.quitAllDrivers();
+        }));
+
+        int port = Integer.parseInt(ConfigReader.getProperty("daemon.port", "7070"));
+        new TestDaemon().serve(port);
+    }
+
+    private void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Test daemon listening on 127.0.0.1:" + port);
+            // One run at a time on this thread, so the thread-bound warm sessions are reused
+            while (true) {
+                try (Socket client = server.accept()) {
+                    handle(client);
+                } catch (IOException e) {
+                    System.err.println("Client connection failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(Socket client) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.UTF_8);
+
+        String request = in.readLine();
+        if (request == null || !request.startsWith("RUN ")) {
+            out.println("ERROR expected: RUN <testClass>[#method]");
+            return;
+        }
+        String[] target = request.substring(4).trim().split("#", 2);
+
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        try {
+            ClassLoader classLoader = getClassLoader();
+            Thread.currentThread().setContextClassLoader(classLoader);
+            Class<?> testClass = Class.forName(target[0], true, classLoader);
+            run(testClass, target.length > 1 ? target[1] : null, out);
+        } catch (ClassNotFoundException e) {
+            out.println("ERROR test class not found: " + target[0]);
+        } catch (Exception e) {
+            out.println("ERROR " + e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+    }
+
+    private void run(Class<?> testClass, String method, PrintWriter out) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("daemon");
+        XmlTest test = new XmlTest(suite);
+        test.setName(testClass.getSimpleName());
+        XmlClass xmlClass = new XmlClass(testClass);
+        if (method != null) {
+            xmlClass.setIncludedMethods(Collections.singletonList(new XmlInclude(method)));
+        }
+        test.setXmlClasses(Collections.singletonList(xmlClass));
+
+        int[] counts = new int[3];
+        TestNG testng = new TestNG();
+        testng.setUseDefaultListeners(false);
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.addListener(new TestListeners());
+        testng.addListener(new ITestListener() {
+            @Override
+            public void onTestSuccess(ITestResult result) {
+                counts[0]++;
+                out.println("PASS " + describe(result));
+            }
+
+            @Override
+            public void onTestFailure(ITestResult result) {
+                counts[1]++;
+                Throwable throwable = result.getThrowable();
+                out.println("FAIL " + describe(result) + (throwable != null ? " - " + throwable : ""));
+            }
+
+            @Override
+            public void onTestSkipped(ITestResult result) {
+                counts[2]++;
+                out.println("SKIP " + describe(result));
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        testng.run();
+        out.println("DONE " + counts[0] + " " + counts[1] + " " + counts[2] + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private static String describe(ITestResult result) {
+        return result.getTestClass().getRealClass().getSimpleName() + "." + result.getName()
+                + " (" + (result.getEndMillis() - result.getStartMillis()) + "ms)";
+    }
+
+    /**
+     * Reuses the current loader unless a class file changed since it was created
+     */
+    private ClassLoader getClassLoader() throws IOException {
+        long lastModified = latestClassFileChange();
+        if (loader == null || lastModified > loadedAt) {
+            loader = new ReloadingClassLoader(TestDaemon.class.getClassLoader(), CLASS_DIRS, RELOADABLE_PACKAGES);
+            loadedAt = lastModified;
+            System.out.println("Loaded page objects and tests from " + CLASS_DIRS);
+        }
+        return loader;
+    }
+
+    private static long latestClassFileChange() throws IOException {
+        long latest = 0;
+        for (Path dir : CLASS_DIRS) {
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(dir)) {
+                latest = Math.max(latest, files.filter(p -> p.toString().endsWith(".class"))
+                        .mapToLong(p -> p.toFile().lastModified()).max().orElse(0));
+            }
+        }
+        return latest;
+    }
+}
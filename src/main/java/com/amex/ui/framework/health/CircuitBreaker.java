@@ -0,0 +1,225 @@
+package com.amex.ui.framework.health;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.SkipException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suite-wide circuit breaker on the target site (baseUrl), shared by all test threads. A
+ * preflight probe runs at suite start; after health.failureThreshold consecutive navigation or
+ * timeout failures the target is probed, and if that fails too the breaker opens and the
+ * remaining tests are skipped immediately instead of each waiting out its page-load timeout
+ * and retries. While open, the target is probed again
+ * after health.probeBackoffSeconds, doubling up to health.probeBackoffMaxSeconds, and the
+ * breaker closes as soon as a probe succeeds.
+ */
+public class CircuitBreaker {
+    private static final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private static int consecutiveFailures;
+    private static boolean open;
+    private static String openReason;
+    private static long nextProbeMillis;
+    private static long backoffMillis;
+    private static boolean probing;
+
+    private static final AtomicInteger opened = new AtomicInteger();
+    private static final AtomicInteger skipped = new AtomicInteger();
+    private static final AtomicInteger probes = new AtomicInteger();
+
+    private CircuitBreaker() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("health.breaker", "true"));
+    }
+
+    public static synchronized boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Probes the target before the first test, opening the breaker right away if it is down
+     */
+    public static void preflight() {
+        if (!isEnabled()) {
+            return;
+        }
+        String failure = probe();
+        synchronized (CircuitBreaker.class) {
+            if (failure == null) {
+                System.out.println("Target health: " + getTarget() + " is up");
+            } else {
+                trip("preflight probe failed: " + failure);
+            }
+        }
+    }
+
+    /**
+     * Called before each test: skips it while the breaker is open, probing the target once the backoff has passed
+     * @throws SkipException With the reason the breaker opened
+     */
+    public static void checkOrSkip() {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (CircuitBreaker.class) {
+            if (!open) {
+                return;
+            }
+            // One thread probes, the others skip meanwhile
+            if (probing || System.currentTimeMillis() < nextProbeMillis) {
+                throw skip();
+            }
+            probing = true;
+        }
+
+        String failure = probe();
+        synchronized (CircuitBreaker.class) {
+            probing = false;
+            if (failure == null) {
+                System.out.println("Target health: " + getTarget() + " is back up, closing circuit breaker");
+                open = false;
+                consecutiveFailures = 0;
+                return;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, getSeconds("health.probeBackoffMaxSeconds", "240") * 1000);
+            nextProbeMillis = System.currentTimeMillis() + backoffMillis;
+            System.out.println("Target health: probe failed (" + failure + "), next probe in " + backoffMillis / 1000 + " s");
+            throw skip();
+        }
+    }
+
+    /**
+     * Called after each test attempt with its failure, or null if it passed. At the failure
+     * threshold the target is probed, and the breaker only opens if the probe fails as well.
+     */
+    public static void recordResult(Throwable failure) {
+        if (!isEnabled() || failure instanceof SkipException) {
+            return;
+        }
+        String reason;
+        synchronized (CircuitBreaker.class) {
+            if (!isNavigationFailure(failure)) {
+                // The target answered: an assertion failure is the test's own problem
+                consecutiveFailures = 0;
+                return;
+            }
+            consecutiveFailures++;
+            int threshold = Integer.parseInt(ConfigReader.getProperty("health.failureThreshold", "3"));
+            if (open || probing || consecutiveFailures < threshold) {
+                return;
+            }
+            probing = true;
+            reason = consecutiveFailures + " consecutive navigation/timeout failures, last: " + firstLine(failure);
+        }
+
+        // Element waits time out too, on a site that is up: confirm with a direct request first
+        String probeFailure = probe();
+        synchronized (CircuitBreaker.class) {
+            probing = false;
+            if (probeFailure == null) {
+                System.out.println("Target health: " + getTarget() + " is up despite " + reason
+                        + ", keeping circuit breaker closed");
+                consecutiveFailures = 0;
+            } else if (!open) {
+                trip(reason + "; probe failed: " + probeFailure);
+            }
+        }
+    }
+
+    private static void trip(String reason) {
+        open = true;
+        openReason = reason;
+        backoffMillis = getSeconds("health.probeBackoffSeconds", "15") * 1000;
+        nextProbeMillis = System.currentTimeMillis() + backoffMillis;
+        opened.incrementAndGet();
+        System.err.println("Target health: circuit breaker OPEN for " + getTarget() + ": " + reason);
+    }
+
+    private static SkipException skip() {
+        skipped.incrementAndGet();
+        long wait = Math.max(0, nextProbeMillis - System.currentTimeMillis()) / 1000;
+        return new SkipException("Target " + getTarget() + " is unavailable (circuit breaker open: " + openReason
+                + "); next probe in " + wait + " s");
+    }
+
+    /**
+     * Page loads and waits that timed out, and browser network errors (DNS, refused, reset)
+     */
+    private static boolean isNavigationFailure(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException) {
+                return true;
+            }
+            String message = t.getMessage();
+            if (t instanceof WebDriverException && message != null
+                    && (message.contains("net::ERR_") || message.contains("Reached error page")
+                    || message.contains("timeout: Timed out receiving message"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Requests baseUrl within health.probeTimeoutSeconds
+     * @return Why the target is unhealthy, or null if it answered without a server error
+     */
+    private static String probe() {
+        probes.incrementAndGet();
+        long timeout = getSeconds("health.probeTimeoutSeconds", "10");
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(getTarget()))
+                    .timeout(Duration.ofSeconds(timeout))
+                    .GET()
+                    .build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 500 ? "HTTP " + status : null;
+        } catch (HttpTimeoutException e) {
+            return "no response within " + timeout + " s";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (Exception e) {
+            return e.getMessage() == null ? e.getClass().getSimpleName() : e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private static String getTarget() {
+        return ConfigReader.getProperty("baseUrl");
+    }
+
+    private static long getSeconds(String key, String defaultValue) {
+        return Long.parseLong(ConfigReader.getProperty(key, defaultValue));
+    }
+
+    private static String firstLine(Throwable failure) {
+        String message = String.valueOf(failure.getMessage());
+        int newline = message.indexOf('\n');
+        return failure.getClass().getSimpleName() + ": " + (newline < 0 ? message : message.substring(0, newline));
+    }
+
+    /**
+     * Breaker activity, for the suite summary report
+     */
+    public static String getReportSection() {
+        if (opened.get() == 0) {
+            return "";
+        }
+        return String.format("Target Health: circuit breaker opened %d times, %d tests skipped, %d probes%s%n",
+                opened.get(), skipped.get(), probes.get(), isOpen() ? ", still open at suite end" : "");
+    }
+}
@@ -0,0 +1,343 @@
+package com.amex.ui.framework.lint;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lenient HTML parser building a W3C DOM, so saved page sources can be queried with the JDK's
+ * XPath engine. It covers what browsers serialise back from getPageSource: void elements,
+ * raw-text elements, unquoted attributes, character references and the common implied end
+ * tags. Tag and attribute names are lower-cased as in an HTML document; names that are not
+ * valid XML (e.g. Vue's @click) are dropped, they cannot appear in an XPath name test anyway.
+ */
+final class HtmlParser {
+    private static final Set<String> VOID = new HashSet<>(Arrays.asList(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"));
+    private static final Set<String> RAW_TEXT = new HashSet<>(Arrays.asList("script", "style", "textarea", "title"));
+    // Elements whose text browsers do not expose to text() matching in a useful way
+    private static final Set<String> SKIPPED_TEXT = new HashSet<>(Arrays.asList("script", "style"));
+    private static final Set<String> CLOSES_P = new HashSet<>(Arrays.asList(
+            "address", "article", "aside", "blockquote", "div", "dl", "fieldset", "footer", "form", "h1", "h2", "h3",
+            "h4", "h5", "h6", "header", "hr", "main", "nav", "ol", "p", "pre", "section", "table", "ul"));
+    // Open element closed by the start of another, e.g. <li> by the next <li>
+    private static final Map<String, Set<String>> IMPLIED_END = new HashMap<>();
+
+    static {
+        IMPLIED_END.put("li", new HashSet<>(Arrays.asList("li")));
+        IMPLIED_END.put("dt", new HashSet<>(Arrays.asList("dt", "dd")));
+        IMPLIED_END.put("dd", new HashSet<>(Arrays.asList("dt", "dd")));
+        IMPLIED_END.put("option", new HashSet<>(Arrays.asList("option", "optgroup")));
+        IMPLIED_END.put("tr", new HashSet<>(Arrays.asList("tr")));
+        IMPLIED_END.put("td", new HashSet<>(Arrays.asList("td", "th", "tr")));
+        IMPLIED_END.put("th", new HashSet<>(Arrays.asList("td", "th", "tr")));
+        IMPLIED_END.put("p", CLOSES_P);
+    }
+
+    private final String html;
+    private int pos;
+    private final Document document;
+    private final Deque<Node> open = new ArrayDeque<>();
+
+    private HtmlParser(String html) {
+        this.html = html;
+        try {
+            this.document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("No DOM implementation available", e);
+        }
+    }
+
+    static Document parse(String html) {
+        HtmlParser parser = new HtmlParser(html);
+        parser.run();
+        return parser.document;
+    }
+
+    private void run() {
+        Element root = document.createElement("html");
+        document.appendChild(root);
+        open.push(root);
+        boolean explicitRoot = false;
+
+        int length = html.length();
+        while (pos < length) {
+            int lt = html.indexOf('<', pos);
+            if (lt < 0) {
+                text(html.substring(pos));
+                break;
+            }
+            if (lt > pos) {
+                text(html.substring(pos, lt));
+            }
+            pos = lt;
+            if (html.startsWith("<!--", pos)) {
+                int end = html.indexOf("-->", pos + 4);
+                pos = end < 0 ? length : end + 3;
+            } else if (html.startsWith("<!", pos) || html.startsWith("<?", pos)) {
+                int end = html.indexOf('>', pos);
+                pos = end < 0 ? length : end + 1;
+            } else if (html.startsWith("</", pos)) {
+                endTag();
+            } else if (pos + 1 < length && Character.isLetter(html.charAt(pos + 1))) {
+                explicitRoot = startTag(root, explicitRoot);
+            } else {
+                text("<");
+                pos++;
+            }
+        }
+    }
+
+    private boolean startTag(Element root, boolean explicitRoot) {
+        pos++;
+        String name = readName().toLowerCase(Locale.ROOT);
+        Map<String, String> attributes = new HashMap<>();
+        boolean selfClosing = false;
+        int length = html.length();
+        while (pos < length) {
+            skipWhitespace();
+            if (pos >= length) {
+                break;
+            }
+            char c = html.charAt(pos);
+            if (c == '>') {
+                pos++;
+                break;
+            }
+            if (c == '/') {
+                selfClosing = true;
+                pos++;
+                continue;
+            }
+            String attribute = readAttributeName().toLowerCase(Locale.ROOT);
+            if (attribute.isEmpty()) {
+                pos++;
+                continue;
+            }
+            skipWhitespace();
+            String value = "";
+            if (pos < length && html.charAt(pos) == '=') {
+                pos++;
+                skipWhitespace();
+                value = decode(readAttributeValue());
+            }
+            attributes.putIfAbsent(attribute, value);
+        }
+
+        // The implicit root takes the attributes of a real <html> tag
+        Element element;
+        if ("html".equals(name) && !explicitRoot) {
+            element = root;
+            explicitRoot = true;
+        } else {
+            closeImplied(name);
+            try {
+                element = document.createElement(name);
+            } catch (DOMException e) {
+                element = document.createElement("unknown");
+            }
+            open.peek().appendChild(element);
+        }
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            try {
+                element.setAttribute(attribute.getKey(), attribute.getValue());
+            } catch (DOMException e) {
+                // Not a valid XML name
+            }
+        }
+
+        if (RAW_TEXT.contains(name)) {
+            int end = indexOfIgnoreCase("</" + name, pos);
+            String content = html.substring(pos, end < 0 ? length : end);
+            if (!SKIPPED_TEXT.contains(name)) {
+                element.appendChild(document.createTextNode(decode(content)));
+            }
+            pos = end < 0 ? length : html.indexOf('>', end) + 1;
+            if (pos == 0) {
+                pos = length;
+            }
+        } else if (!VOID.contains(name) && !selfClosing) {
+            open.push(element);
+        }
+        return explicitRoot;
+    }
+
+    private void closeImplied(String starting) {
+        // Can close several, e.g. a new <tr> closes the open cell and then its row
+        while (open.size() > 1) {
+            Set<String> closers = IMPLIED_END.get(open.peek().getNodeName());
+            if (closers == null || !closers.contains(starting)) {
+                break;
+            }
+            open.pop();
+        }
+    }
+
+    private void endTag() {
+        pos += 2;
+        String name = readName().toLowerCase(Locale.ROOT);
+        int end = html.indexOf('>', pos);
+        pos = end < 0 ? html.length() : end + 1;
+        // Close up to the matching open element; a stray end tag is ignored
+        boolean found = false;
+        for (Node node : open) {
+            if (node.getNodeName().equals(name)) {
+                found = true;
+                break;
+            }
+        }
+        if (found) {
+            while (open.size() > 1) {
+                if (open.pop().getNodeName().equals(name)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void text(String raw) {
+        if (!raw.isEmpty()) {
+            open.peek().appendChild(document.createTextNode(decode(raw)));
+        }
+    }
+
+    private String readName() {
+        int start = pos;
+        while (pos < html.length()) {
+            char c = html.charAt(pos);
+            if (Character.isWhitespace(c) || c == '>' || c == '/') {
+                break;
+            }
+            pos++;
+        }
+        return html.substring(start, pos);
+    }
+
+    private String readAttributeName() {
+        int start = pos;
+        while (pos < html.length()) {
+            char c = html.charAt(pos);
+            if (Character.isWhitespace(c) || c == '>' || c == '=' || (c == '/' && pos > start)) {
+                break;
+            }
+            pos++;
+        }
+        return html.substring(start, pos);
+    }
+
+    private String readAttributeValue() {
+        if (pos >= html.length()) {
+            return "";
+        }
+        char quote = html.charAt(pos);
+        if (quote == '"' || quote == '\'') {
+            int end = html.indexOf(quote, pos + 1);
+            String value = html.substring(pos + 1, end < 0 ? html.length() : end);
+            pos = end < 0 ? html.length() : end + 1;
+            return value;
+        }
+        int start = pos;
+        while (pos < html.length() && !Character.isWhitespace(html.charAt(pos)) && html.charAt(pos) != '>') {
+            pos++;
+        }
+        return html.substring(start, pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < html.length() && Character.isWhitespace(html.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private int indexOfIgnoreCase(String needle, int from) {
+        for (int i = from; i <= html.length() - needle.length(); i++) {
+            if (html.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes numeric and the common named character references
+     */
+    static String decode(String text) {
+        int amp = text.indexOf('&');
+        if (amp < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        int last = 0;
+        while (amp >= 0) {
+            int semicolon = text.indexOf(';', amp);
+            if (semicolon < 0) {
+                break;
+            }
+            if (semicolon - amp > 10) {
+                // A bare ampersand, as in "A & B": references further on are still decoded
+                amp = text.indexOf('&', amp + 1);
+                continue;
+            }
+            String entity = text.substring(amp + 1, semicolon);
+            String replacement = null;
+            try {
+                if (entity.startsWith("#x") || entity.startsWith("#X")) {
+                    replacement = new String(Character.toChars(Integer.parseInt(entity.substring(2), 16)));
+                } else if (entity.startsWith("#")) {
+                    replacement = new String(Character.toChars(Integer.parseInt(entity.substring(1))));
+                } else {
+                    replacement = namedEntity(entity);
+                }
+            } catch (IllegalArgumentException e) {
+                // Not a character reference, keep it as text
+            }
+            if (replacement != null) {
+                sb.append(text, last, amp).append(replacement);
+                last = semicolon + 1;
+            }
+            amp = text.indexOf('&', amp + 1);
+        }
+        return sb.append(text, last, text.length()).toString();
+    }
+
+    private static String namedEntity(String name) {
+        switch (name) {
+            case "amp":
+                return "&";
+            case "lt":
+                return "<";
+            case "gt":
+                return ">";
+            case "quot":
+                return "\"";
+            case "apos":
+                return "'";
+            case "nbsp":
+                return "\u00a0";
+            case "eacute":
+                return "\u00e9";
+            case "egrave":
+                return "\u00e8";
+            case "agrave":
+                return "\u00e0";
+            case "ccedil":
+                return "\u00e7";
+            case "rsquo":
+                return "\u2019";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.amex.ui.framework.lint;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Checks every @FindBy, @FindBys and @FindAll locator of the page objects against saved DOM
+ * snapshots, with no browser. Locators are translated to XPath and evaluated on each snapshot:
+ *
+ *   ZERO        no match in any snapshot of the locator's page
+ *   MULTI       a WebElement field matches several elements, Selenium silently takes the first
+ *   SLOW        evaluation averages more than lint.slowMs per snapshot
+ *   UNVERIFIED  no snapshot of the page and no match in any other snapshot
+ *
+ * Snapshots are the files and directories given as arguments (.html, .htm, .html.gz), or by
+ * default the DOM artifacts indexed in target/artifacts/index.tsv plus any *_dom.html under
+ * target. A DOM artifact belongs to the page object that was current when it was captured, as
+ * recorded in the index; a snapshot file belongs to the page class its file name names.
+ * The report goes to stdout and target/locator-lint.txt; the exit status is 1 on ZERO or MULTI.
+ *
+ * Run after compiling, e.g.
+ *   mvn -q compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *   java -cp target/classes:$(cat cp.txt) com.amex.ui.framework.lint.LocatorLinter [snapshots...]
+ */
+public class LocatorLinter {
+    private static final String PAGES_PACKAGE = "pages";
+    private static final Path ARTIFACT_INDEX = Paths.get("target", "artifacts", "index.tsv");
+    private static final Path REPORT = Paths.get("target", "locator-lint.txt");
+
+    private final XPath xpath = XPathFactory.newInstance().newXPath();
+    private final double slowMillis = Double.parseDouble(ConfigReader.getProperty("lint.slowMs", "25"));
+
+    /**
+     * One page object field and its locator, as alternatives (@FindAll) of chained steps (@FindBys)
+     */
+    private static class Locator {
+        final String page;
+        final String field;
+        final boolean list;
+        final String description;
+        final List<List<XPathExpression>> alternatives = new ArrayList<>();
+        final List<String> xpaths = new ArrayList<>();
+        String error;
+
+        Locator(String page, String field, boolean list, String description) {
+            this.page = page;
+            this.field = field;
+            this.list = list;
+            this.description = description;
+        }
+    }
+
+    private static class Snapshot {
+        final String source;
+        final String page;
+        final Document document;
+
+        Snapshot(String source, String page, Document document) {
+            this.source = source;
+            this.page = page;
+            this.document = document;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int problems = new LocatorLinter().run(args);
+        System.exit(problems > 0 ? 1 : 0);
+    }
+
+    /**
+     * @return Number of ZERO and MULTI findings
+     */
+    int run(String[] args) throws IOException {
+        long begin = System.nanoTime();
+        List<Class<?>> pages = findPageClasses();
+        Set<String> pageNames = pages.stream().map(Class::getSimpleName).collect(Collectors.toSet());
+        List<Locator> locators = new ArrayList<>();
+        for (Class<?> page : pages) {
+            locators.addAll(readLocators(page));
+        }
+        List<Snapshot> snapshots = args.length > 0 ? loadSnapshots(args, pageNames) : loadDefaultSnapshots(pageNames);
+
+        StringBuilder report = new StringBuilder();
+        int problems = 0;
+        for (Locator locator : locators) {
+            String finding = lint(locator, snapshots);
+            if (finding.startsWith("ZERO") || finding.startsWith("MULTI") || finding.startsWith("ERROR")) {
+                problems++;
+            }
+            report.append(finding).append(System.lineSeparator());
+        }
+        report.insert(0, String.format("Locator lint: %d locators in %d page classes, %d snapshots, %d problems (%.1f s)%n",
+                locators.size(), pages.size(), snapshots.size(), problems, (System.nanoTime() - begin) / 1e9));
+        if (snapshots.isEmpty()) {
+            report.append("No DOM snapshots found: pass .html files or directories, or run the suite to collect them")
+                    .append(System.lineSeparator());
+        }
+
+        System.out.print(report);
+        Files.createDirectories(REPORT.getParent());
+        Files.write(REPORT, report.toString().getBytes(StandardCharsets.UTF_8));
+        return problems;
+    }
+
+    private String lint(Locator locator, List<Snapshot> snapshots) {
+        if (locator.error != null) {
+            return line("ERROR", locator, locator.error);
+        }
+
+        int ownSnapshots = 0;
+        int ownMatched = 0;
+        int otherMatched = 0;
+        int maxMatches = 0;
+        String maxSource = null;
+        long nanos = 0;
+        for (Snapshot snapshot : snapshots) {
+            long start = System.nanoTime();
+            int matches;
+            try {
+                matches = count(locator, snapshot.document);
+            } catch (XPathExpressionException e) {
+                return line("ERROR", locator, e.getMessage());
+            }
+            nanos += System.nanoTime() - start;
+
+            boolean own = locator.page.equals(snapshot.page);
+            if (own) {
+                ownSnapshots++;
+                if (matches > 0) {
+                    ownMatched++;
+                }
+            } else if (matches > 0) {
+                otherMatched++;
+            }
+            if (matches > maxMatches && (own || snapshot.page == null)) {
+                maxMatches = matches;
+                maxSource = snapshot.source;
+            }
+        }
+        double avgMillis = snapshots.isEmpty() ? 0 : nanos / 1e6 / snapshots.size();
+
+        if (ownSnapshots > 0 && ownMatched == 0) {
+            return line("ZERO", locator, "no match in " + ownSnapshots + " " + locator.page + " snapshots");
+        }
+        if (ownSnapshots == 0 && otherMatched == 0 && maxMatches == 0) {
+            return line("UNVERIFIED", locator, "no " + locator.page + " snapshot, no match in "
+                    + snapshots.size() + " others");
+        }
+        if (!locator.list && maxMatches > 1) {
+            return line("MULTI", locator, maxMatches + " matches in " + maxSource
+                    + ", the field gets the first");
+        }
+        if (avgMillis > slowMillis) {
+            return line("SLOW", locator, String.format("%.1f ms per snapshot%s", avgMillis,
+                    locator.xpaths.stream().anyMatch(x -> x.startsWith("//*")) ? ", unanchored //* scan" : ""));
+        }
+        return line("OK", locator, String.format("%.1f ms per snapshot", avgMillis));
+    }
+
+    private static String line(String status, Locator locator, String detail) {
+        return String.format("%-10s %s.%s  %s  %s", status, locator.page, locator.field, locator.description, detail);
+    }
+
+    /**
+     * Elements matched by a locator, the union of its alternatives, each step searching below the last
+     */
+    private int count(Locator locator, Document document) throws XPathExpressionException {
+        Set<Node> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<XPathExpression> chain : locator.alternatives) {
+            List<Node> context = Collections.singletonList(document);
+            for (XPathExpression step : chain) {
+                Set<Node> next = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Node node : context) {
+                    NodeList nodes = (NodeList) step.evaluate(node, XPathConstants.NODESET);
+                    for (int i = 0; i < nodes.getLength(); i++) {
+                        next.add(nodes.item(i));
+                    }
+                }
+                context = new ArrayList<>(next);
+            }
+            matched.addAll(context);
+        }
+        return matched.size();
+    }
+
+    private List<Locator> readLocators(Class<?> page) {
+        List<Locator> locators = new ArrayList<>();
+        for (Field field : page.getDeclaredFields()) {
+            FindBy findBy = field.getAnnotation(FindBy.class);
+            FindBys findBys = field.getAnnotation(FindBys.class);
+            FindAll findAll = field.getAnnotation(FindAll.class);
+            if (findBy == null && findBys == null && findAll == null) {
+                continue;
+            }
+            boolean list = List.class.isAssignableFrom(field.getType());
+
+            List<FindBy[]> alternatives = new ArrayList<>();
+            if (findBy != null) {
+                alternatives.add(new FindBy[]{findBy});
+            } else if (findBys != null) {
+                alternatives.add(findBys.value());
+            } else {
+                for (FindBy alternative : findAll.value()) {
+                    alternatives.add(new FindBy[]{alternative});
+                }
+            }
+
+            String description = alternatives.stream()
+                    .map(chain -> Stream.of(chain).map(LocatorXPath::describe).collect(Collectors.joining(" > ")))
+                    .collect(Collectors.joining(" | "));
+            Locator locator = new Locator(page.getSimpleName(), field.getName(), list, description);
+            try {
+                for (FindBy[] chain : alternatives) {
+                    List<XPathExpression> steps = new ArrayList<>();
+                    for (int i = 0; i < chain.length; i++) {
+                        String expression = LocatorXPath.of(chain[i], i > 0);
+                        locator.xpaths.add(expression);
+                        steps.add(xpath.compile(expression));
+                    }
+                    locator.alternatives.add(steps);
+                }
+            } catch (IllegalArgumentException | XPathExpressionException e) {
+                locator.error = "cannot evaluate offline: " + e.getMessage();
+            }
+            locators.add(locator);
+        }
+        return locators;
+    }
+
+    /**
+     * Page object classes compiled into the pages package, loaded without running their initialisers
+     */
+    private static List<Class<?>> findPageClasses() throws IOException {
+        ClassLoader loader = LocatorLinter.class.getClassLoader();
+        URL url = loader.getResource(PAGES_PACKAGE);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            throw new RuntimeException("Compiled " + PAGES_PACKAGE + " package not found on the class path");
+        }
+        List<Class<?>> pages = new ArrayList<>();
+        try (Stream<Path> files = Files.list(Paths.get(url.toURI()))) {
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".class") && !fileName.contains("$")) {
+                    pages.add(Class.forName(PAGES_PACKAGE + "." + fileName.substring(0, fileName.length() - 6), false, loader));
+                }
+            }
+        } catch (URISyntaxException | ClassNotFoundException e) {
+            throw new RuntimeException("Failed to load page classes: " + e.getMessage(), e);
+        }
+        return pages;
+    }
+
+    private static List<Snapshot> loadSnapshots(String[] args, Set<String> pageNames) throws IOException {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            List<Path> files;
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    files = walk.filter(LocatorLinter::isHtmlFile).sorted().collect(Collectors.toList());
+                }
+            } else {
+                files = Collections.singletonList(path);
+            }
+            for (Path file : files) {
+                snapshots.add(new Snapshot(file.toString(), pageNamed(file.getFileName().toString(), pageNames),
+                        HtmlParser.parse(read(file))));
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * DOM artifacts of failed tests, attributed to the page they were taken on, plus *_dom.html files
+     */
+    private static List<Snapshot> loadDefaultSnapshots(Set<String> pageNames) throws IOException {
+        // Identical DOMs are stored once, so index lines are keyed by blob
+        Map<String, String> blobs = new LinkedHashMap<>();
+        if (Files.exists(ARTIFACT_INDEX)) {
+            for (String line : Files.readAllLines(ARTIFACT_INDEX, StandardCharsets.UTF_8)) {
+                String[] columns = line.split("\t");
+                if (columns.length >= 8 && "dom".equals(columns[3]) && Files.exists(Paths.get(columns[7]))) {
+                    // The last step may well name the page the test was leaving, so only the recorded page counts
+                    String page = columns.length >= 9 && pageNames.contains(columns[8]) ? columns[8] : null;
+                    if (page != null || !blobs.containsKey(columns[7])) {
+                        blobs.put(columns[7], page);
+                    }
+                }
+            }
+        }
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, String> blob : blobs.entrySet()) {
+            snapshots.add(new Snapshot(blob.getKey(), blob.getValue(), HtmlParser.parse(read(Paths.get(blob.getKey())))));
+        }
+
+        Path target = Paths.get("target");
+        if (Files.isDirectory(target)) {
+            try (Stream<Path> walk = Files.walk(target)) {
+                for (Path file : walk.filter(p -> p.getFileName().toString().matches(".*_dom\\.html(\\.gz)?"))
+                        .sorted().collect(Collectors.toList())) {
+                    snapshots.add(new Snapshot(file.toString(), pageNamed(file.getFileName().toString(), pageNames),
+                            HtmlParser.parse(read(file))));
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Longest page class name contained in the text, or null if none is
+     */
+    private static String pageNamed(String text, Set<String> pageNames) {
+        String page = null;
+        for (String name : pageNames) {
+            if (text.contains(name) && (page == null || name.length() > page.length())) {
+                page = name;
+            }
+        }
+        return page;
+    }
+
+    private static boolean isHtmlFile(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        return name.endsWith(".html") || name.endsWith(".htm") || name.endsWith(".html.gz");
+    }
+
+    private static String read(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        // Artifact blobs are gzipped whatever their name says
+        if (data.length > 2 && (data[0] & 0xFF) == 0x1F && (data[1] & 0xFF) == 0x8B) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                data = in.readAllBytes();
+            }
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,277 @@
+package com.amex.ui.framework.lint;
+
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.How;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates @FindBy locators to XPath 1.0, the query language the JDK can evaluate on a
+ * parsed DOM. CSS selectors are supported for type, id, class and attribute selectors, the
+ * descendant, child and sibling combinators, :first-child, :last-child and selector groups;
+ * anything else is rejected with an IllegalArgumentException.
+ */
+final class LocatorXPath {
+
+    private LocatorXPath() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * @param relative Whether the expression is evaluated below an element, as in a @FindBys chain
+     */
+    static String of(FindBy findBy, boolean relative) {
+        String prefix = relative ? ".//" : "//";
+        How how = findBy.how();
+        String using = findBy.using();
+        if (how == How.UNSET) {
+            if (!findBy.xpath().isEmpty()) {
+                how = How.XPATH;
+                using = findBy.xpath();
+            } else if (!findBy.css().isEmpty()) {
+                how = How.CSS;
+                using = findBy.css();
+            } else if (!findBy.id().isEmpty()) {
+                how = How.ID;
+                using = findBy.id();
+            } else if (!findBy.name().isEmpty()) {
+                how = How.NAME;
+                using = findBy.name();
+            } else if (!findBy.className().isEmpty()) {
+                how = How.CLASS_NAME;
+                using = findBy.className();
+            } else if (!findBy.tagName().isEmpty()) {
+                how = How.TAG_NAME;
+                using = findBy.tagName();
+            } else if (!findBy.linkText().isEmpty()) {
+                how = How.LINK_TEXT;
+                using = findBy.linkText();
+            } else if (!findBy.partialLinkText().isEmpty()) {
+                how = How.PARTIAL_LINK_TEXT;
+                using = findBy.partialLinkText();
+            }
+        }
+
+        switch (how) {
+            case XPATH:
+                return using;
+            case CSS:
+                return css(using, prefix);
+            case ID:
+                return prefix + "*[@id=" + literal(using) + "]";
+            case NAME:
+                return prefix + "*[@name=" + literal(using) + "]";
+            case ID_OR_NAME:
+                return prefix + "*[@id=" + literal(using) + " or @name=" + literal(using) + "]";
+            case CLASS_NAME:
+                return prefix + "*[" + hasClass(using) + "]";
+            case TAG_NAME:
+                return prefix + using.toLowerCase();
+            case LINK_TEXT:
+                // Link text is matched as rendered, where &nbsp; reads as a space
+                return prefix + "a[normalize-space(translate(., '\u00a0', ' '))=" + literal(using.trim()) + "]";
+            case PARTIAL_LINK_TEXT:
+                return prefix + "a[contains(translate(., '\u00a0', ' '), " + literal(using) + ")]";
+            default:
+                throw new IllegalArgumentException("No locator given");
+        }
+    }
+
+    /**
+     * Locator as written in the page object, for the report
+     */
+    static String describe(FindBy findBy) {
+        if (findBy.how() != How.UNSET) {
+            return findBy.how().name().toLowerCase() + "=" + findBy.using();
+        }
+        String[][] candidates = {{"xpath", findBy.xpath()}, {"css", findBy.css()}, {"id", findBy.id()},
+                {"name", findBy.name()}, {"className", findBy.className()}, {"tagName", findBy.tagName()},
+                {"linkText", findBy.linkText()}, {"partialLinkText", findBy.partialLinkText()}};
+        for (String[] candidate : candidates) {
+            if (!candidate[1].isEmpty()) {
+                return candidate[0] + "=" + candidate[1];
+            }
+        }
+        return "(empty)";
+    }
+
+    static String css(String selector, String prefix) {
+        List<String> groups = new ArrayList<>();
+        for (String group : split(selector)) {
+            groups.add(cssGroup(group.trim(), prefix));
+        }
+        return String.join(" | ", groups);
+    }
+
+    private static String cssGroup(String selector, String prefix) {
+        StringBuilder xpath = new StringBuilder();
+        String axis = prefix;
+        int i = 0;
+        while (i < selector.length()) {
+            // One compound selector: optional type, then id, class, attribute and pseudo-class parts
+            int start = i;
+            String tag = "*";
+            List<String> predicates = new ArrayList<>();
+            if (i < selector.length() && (Character.isLetter(selector.charAt(i)) || selector.charAt(i) == '*')) {
+                int end = identifierEnd(selector, i + 1);
+                tag = selector.substring(i, end).toLowerCase();
+                i = end;
+            }
+            while (i < selector.length() && "#.[:".indexOf(selector.charAt(i)) >= 0) {
+                char c = selector.charAt(i);
+                if (c == '#' || c == '.') {
+                    int end = identifierEnd(selector, i + 1);
+                    String name = selector.substring(i + 1, end);
+                    predicates.add(c == '#' ? "@id=" + literal(name) : hasClass(name));
+                    i = end;
+                } else if (c == '[') {
+                    int end = selector.indexOf(']', i);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unclosed attribute selector in " + selector);
+                    }
+                    predicates.add(attribute(selector.substring(i + 1, end)));
+                    i = end + 1;
+                } else {
+                    int end = identifierEnd(selector, i + 1);
+                    String pseudo = selector.substring(i + 1, end);
+                    if ("first-child".equals(pseudo)) {
+                        predicates.add("not(preceding-sibling::*)");
+                    } else if ("last-child".equals(pseudo)) {
+                        predicates.add("not(following-sibling::*)");
+                    } else {
+                        throw new IllegalArgumentException("Unsupported CSS pseudo-class :" + pseudo);
+                    }
+                    i = end;
+                }
+            }
+            if (i == start) {
+                throw new IllegalArgumentException("Unsupported CSS selector: " + selector);
+            }
+
+            if (axis.endsWith("following-sibling::*[1]")) {
+                xpath.append(axis);
+                if (!"*".equals(tag)) {
+                    predicates.add(0, "self::" + tag);
+                }
+            } else {
+                xpath.append(axis).append(tag);
+            }
+            for (String predicate : predicates) {
+                xpath.append('[').append(predicate).append(']');
+            }
+
+            // Combinator to the next compound selector
+            int next = i;
+            while (next < selector.length() && selector.charAt(next) == ' ') {
+                next++;
+            }
+            if (next >= selector.length()) {
+                break;
+            }
+            char combinator = selector.charAt(next);
+            if (combinator == '>' || combinator == '+' || combinator == '~') {
+                next++;
+                while (next < selector.length() && selector.charAt(next) == ' ') {
+                    next++;
+                }
+                axis = combinator == '>' ? "/" : combinator == '+' ? "/following-sibling::*[1]" : "/following-sibling::";
+            } else if (next > i) {
+                axis = "//";
+            } else {
+                throw new IllegalArgumentException("Unsupported CSS selector: " + selector);
+            }
+            i = next;
+        }
+        return xpath.toString();
+    }
+
+    private static String attribute(String body) {
+        int op = -1;
+        for (int i = 0; i < body.length(); i++) {
+            if (body.charAt(i) == '=') {
+                op = i;
+                break;
+            }
+        }
+        if (op < 0) {
+            return "@" + body.trim();
+        }
+        char modifier = op > 0 ? body.charAt(op - 1) : ' ';
+        boolean hasModifier = "~^$*|".indexOf(modifier) >= 0;
+        String name = "@" + body.substring(0, hasModifier ? op - 1 : op).trim();
+        String value = body.substring(op + 1).trim();
+        if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')) {
+            value = value.substring(1, value.length() - 1);
+        }
+        String v = literal(value);
+        switch (hasModifier ? modifier : '=') {
+            case '~':
+                return "contains(concat(' ', normalize-space(" + name + "), ' '), " + literal(" " + value + " ") + ")";
+            case '^':
+                return "starts-with(" + name + ", " + v + ")";
+            case '$':
+                return "substring(" + name + ", string-length(" + name + ") - " + value.length() + " + 1) = " + v;
+            case '*':
+                return "contains(" + name + ", " + v + ")";
+            case '|':
+                return "(" + name + " = " + v + " or starts-with(" + name + ", " + literal(value + "-") + "))";
+            default:
+                return name + " = " + v;
+        }
+    }
+
+    private static String hasClass(String name) {
+        return "contains(concat(' ', normalize-space(@class), ' '), " + literal(" " + name + " ") + ")";
+    }
+
+    private static int identifierEnd(String s, int from) {
+        int i = from;
+        while (i < s.length() && (Character.isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '-' || s.charAt(i) == '_')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Splits a selector group at commas outside attribute selectors and quotes
+     */
+    private static List<String> split(String selector) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(selector.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(selector.substring(start));
+        return parts;
+    }
+
+    /**
+     * XPath string literal, using concat() when the value holds both kinds of quote
+     */
+    static String literal(String value) {
+        if (value.indexOf('\'') < 0) {
+            return "'" + value + "'";
+        }
+        if (value.indexOf('"') < 0) {
+            return "\"" + value + "\"";
+        }
+        return "concat('" + value.replace("'", "', \"'\", '") + "')";
+    }
+}
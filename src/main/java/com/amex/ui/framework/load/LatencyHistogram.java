@@ -0,0 +1,58 @@
+package com.amex.ui.framework.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size latency histogram with 1 ms buckets up to one minute, so memory stays
+ * constant however many requests are recorded. Safe to update from many threads.
+ */
+public class LatencyHistogram {
+    private static final int MAX_MILLIS = 60_000;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(MAX_MILLIS + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public void record(long millis, boolean error) {
+        buckets.incrementAndGet((int) Math.min(Math.max(millis, 0), MAX_MILLIS));
+        count.incrementAndGet();
+        maxMillis.accumulateAndGet(millis, Math::max);
+        if (error) {
+            errors.incrementAndGet();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    /**
+     * Latency at the given percentile, in ms
+     * @param percentile Between 0 and 100
+     */
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i <= MAX_MILLIS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return i;
+            }
+        }
+        return MAX_MILLIS;
+    }
+}
@@ -0,0 +1,295 @@
+package com.amex.ui.framework.load;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Executes a {@link LoadScenario} without a browser. Scenario iterations (virtual users) are
+ * started at a fixed target rate, each running its steps in order on the non-blocking JDK
+ * HttpClient with its own cookies and extracted variables. At most maxVirtualUsers iterations
+ * run at once; iterations that cannot start because of that limit are counted as dropped.
+ *
+ * Usage: LoadRunner &lt;scenario.json&gt; &lt;iterationsPerSecond&gt; &lt;maxVirtualUsers&gt; &lt;durationSeconds&gt;
+ */
+public class LoadRunner {
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{([^}]+)}");
+    private static final Set<Integer> REDIRECTS = Set.of(301, 302, 303, 307, 308);
+    private static final int MAX_REDIRECTS = 10;
+
+    private final LoadScenario scenario;
+    private final double iterationsPerSecond;
+    private final int maxVirtualUsers;
+    private final Duration duration;
+    private final HttpClient client;
+
+    public LoadRunner(LoadScenario scenario, double iterationsPerSecond, int maxVirtualUsers, Duration duration) {
+        this.scenario = scenario;
+        this.iterationsPerSecond = iterationsPerSecond;
+        this.maxVirtualUsers = maxVirtualUsers;
+        this.duration = duration;
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Latency and error figures of one load run
+     */
+    public static class Result {
+        private final Map<String, LatencyHistogram> steps;
+        private final long iterations;
+        private final long dropped;
+        private final long elapsedMillis;
+
+        Result(Map<String, LatencyHistogram> steps, long iterations, long dropped, long elapsedMillis) {
+            this.steps = steps;
+            this.iterations = iterations;
+            this.dropped = dropped;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public Map<String, LatencyHistogram> getSteps() {
+            return steps;
+        }
+
+        public long getTotalRequests() {
+            return steps.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+        }
+
+        public long getTotalErrors() {
+            return steps.values().stream().mapToLong(LatencyHistogram::getErrors).sum();
+        }
+
+        public double getErrorRate() {
+            long total = getTotalRequests();
+            return total == 0 ? 0 : (double) getTotalErrors() / total;
+        }
+
+        public long getDroppedIterations() {
+            return dropped;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Load Test Summary\n");
+            sb.append("=================\n");
+            sb.append("Iterations: ").append(iterations).append(" (dropped: ").append(dropped).append(")\n");
+            sb.append(String.format("Requests: %d, %.1f req/s, error rate %.2f%%%n",
+                    getTotalRequests(), getTotalRequests() * 1000.0 / Math.max(1, elapsedMillis), getErrorRate() * 100));
+            for (Map.Entry<String, LatencyHistogram> entry : steps.entrySet()) {
+                LatencyHistogram h = entry.getValue();
+                sb.append(String.format("- %s: count=%d errors=%d p50=%dms p90=%dms p95=%dms p99=%dms max=%dms%n",
+                        entry.getKey(), h.getCount(), h.getErrors(), h.getPercentile(50), h.getPercentile(90),
+                        h.getPercentile(95), h.getPercentile(99), h.getMaxMillis()));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Runs the scenario for the configured duration and waits for in-flight iterations
+     */
+    public Result run() throws InterruptedException {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        for (LoadScenario.Step step : scenario.getSteps()) {
+            histograms.put(step.name, new LatencyHistogram());
+        }
+
+        Semaphore virtualUsers = new Semaphore(maxVirtualUsers);
+        AtomicLong iterations = new AtomicLong();
+        AtomicLong dropped = new AtomicLong();
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / iterationsPerSecond);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long start = System.currentTimeMillis();
+        scheduler.scheduleAtFixedRate(() -> {
+            if (!virtualUsers.tryAcquire()) {
+                dropped.incrementAndGet();
+                return;
+            }
+            iterations.incrementAndGet();
+            runIteration(histograms).whenComplete((v, e) -> virtualUsers.release());
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        Thread.sleep(duration.toMillis());
+        scheduler.shutdownNow();
+
+        // Let running iterations finish so their requests are counted
+        if (virtualUsers.tryAcquire(maxVirtualUsers, 60, TimeUnit.SECONDS)) {
+            virtualUsers.release(maxVirtualUsers);
+        }
+        return new Result(histograms, iterations.get(), dropped.get(), System.currentTimeMillis() - start);
+    }
+
+    private CompletableFuture<Void> runIteration(Map<String, LatencyHistogram> histograms) {
+        Map<String, String> variables = new HashMap<>();
+        // In-memory store only: honours domain, path, Max-Age and Expires like a browser would
+        CookieManager cookies = new CookieManager();
+
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (LoadScenario.Step step : scenario.getSteps()) {
+            LatencyHistogram histogram = histograms.get(step.name);
+            chain = chain.thenCompose(v -> executeStep(step, variables, cookies, histogram));
+        }
+        // A failed step ends the iteration; the failure is already counted in its histogram
+        return chain.exceptionally(e -> null);
+    }
+
+    private CompletableFuture<Void> executeStep(LoadScenario.Step step, Map<String, String> variables,
+                                                CookieManager cookies, LatencyHistogram histogram) {
+        boolean formEncoded = "application/x-www-form-urlencoded".equals(step.contentType);
+        URI uri = URI.create(substituteUrl(step.url, variables));
+        String body = step.body != null ? substitute(step.body, variables, formEncoded) : null;
+
+        long startNanos = System.nanoTime();
+        return send(uri, step.method, body, step.contentType, cookies, 0)
+                .handle((response, error) -> {
+                    // The step's latency includes every redirect it took
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                    boolean failed = error != null || response.statusCode() >= 400
+                            || !extract(step, response.body(), variables);
+                    histogram.record(millis, failed);
+                    if (failed) {
+                        throw new CompletionException(new RuntimeException("Step failed: " + step.name, error));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Sends a request and follows its redirects, storing the cookies set on every hop, as a
+     * login or form post typically sets its session cookie on the 302 rather than on the final page
+     */
+    private CompletableFuture<HttpResponse<String>> send(URI uri, String method, String body, String contentType,
+                                                         CookieManager cookies, int redirects) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30));
+        if (body != null) {
+            request.method(method, HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        if (contentType != null && body != null) {
+            request.header("Content-Type", contentType);
+        }
+        String cookieHeader = cookieHeader(cookies, uri);
+        if (!cookieHeader.isEmpty()) {
+            request.header("Cookie", cookieHeader);
+        }
+
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString()).thenCompose(response -> {
+            try {
+                cookies.put(uri, response.headers().map());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            int status = response.statusCode();
+            Optional<String> location = response.headers().firstValue("location");
+            if (!REDIRECTS.contains(status) || location.isEmpty()) {
+                return CompletableFuture.completedFuture(response);
+            }
+            if (redirects >= MAX_REDIRECTS) {
+                throw new CompletionException(new RuntimeException("More than " + MAX_REDIRECTS + " redirects from " + uri));
+            }
+            // 307 and 308 repeat the request as it was; the others turn it into a GET, as browsers do
+            boolean keep = status == 307 || status == 308;
+            return send(uri.resolve(location.get()), keep ? method : "GET", keep ? body : null,
+                    contentType, cookies, redirects + 1);
+        });
+    }
+
+    /**
+     * Cookies the store holds for the URI, unexpired and matching its domain, path and scheme
+     */
+    private static String cookieHeader(CookieManager cookies, URI uri) {
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        StringBuilder header = new StringBuilder();
+        for (HttpCookie cookie : cookies.getCookieStore().get(uri)) {
+            if ((secure || !cookie.getSecure()) && pathMatches(path, cookie.getPath())) {
+                header.append(header.length() > 0 ? "; " : "").append(cookie.getName()).append('=').append(cookie.getValue());
+            }
+        }
+        return header.toString();
+    }
+
+    private static boolean pathMatches(String path, String cookiePath) {
+        if (cookiePath == null || cookiePath.isEmpty() || path.equals(cookiePath)) {
+            return true;
+        }
+        return path.startsWith(cookiePath) && (cookiePath.endsWith("/") || path.charAt(cookiePath.length()) == '/');
+    }
+
+    private static boolean extract(LoadScenario.Step step, String body, Map<String, String> variables) {
+        for (Map.Entry<String, Pattern> rule : step.extractPatterns.entrySet()) {
+            Matcher matcher = rule.getValue().matcher(body);
+            if (!matcher.find()) {
+                // A missing token would make every later step fail, so count it here
+                return false;
+            }
+            variables.put(rule.getKey(), matcher.group(1));
+        }
+        return true;
+    }
+
+    /**
+     * Substitutes variables into a URL, URL-encoding those in the query string (GET form fields)
+     */
+    private static String substituteUrl(String url, Map<String, String> variables) {
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return substitute(url, variables, false);
+        }
+        return substitute(url.substring(0, query), variables, false) + "?"
+                + substitute(url.substring(query + 1), variables, true);
+    }
+
+    private static String substitute(String template, Map<String, String> variables, boolean urlEncode) {
+        Matcher matcher = VARIABLE.matcher(template);
+        StringBuffer sb = new StringBuffer();
+        while (matcher.find()) {
+            String value = variables.getOrDefault(matcher.group(1), "");
+            if (urlEncode) {
+                value = URLEncoder.encode(value, StandardCharsets.UTF_8);
+            }
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 4) {
+            System.err.println("Usage: LoadRunner <scenario.json> <iterationsPerSecond> <maxVirtualUsers> <durationSeconds>");
+            System.exit(1);
+        }
+        LoadScenario scenario = LoadScenario.load(Paths.get(args[0]));
+        LoadRunner runner = new LoadRunner(scenario, Double.parseDouble(args[1]),
+                Integer.parseInt(args[2]), Duration.ofSeconds(Long.parseLong(args[3])));
+        System.out.println(runner.run());
+    }
+}
@@ -0,0 +1,117 @@
+package com.amex.ui.framework.load;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP-level replay of a UI flow: an ordered list of requests, where values extracted from
+ * one response (tokens, ids) are substituted into later requests as ${name}.
+ */
+public class LoadScenario {
+    private final String name;
+    private final List<Step> steps;
+
+    /**
+     * One request of the scenario
+     */
+    public static class Step {
+        public String name;
+        public String method = "GET";
+        public String url;
+        public String body;
+        public String contentType;
+        // Variable name -> regex whose first group is extracted from the response body
+        public Map<String, String> extract = new LinkedHashMap<>();
+        // The extract regexes compiled once, when the scenario is built, rather than per request
+        Map<String, Pattern> extractPatterns = Collections.emptyMap();
+
+        public Step() {
+        }
+
+        public Step(String name, String method, String url) {
+            this.name = name;
+            this.method = method;
+            this.url = url;
+        }
+    }
+
+    public LoadScenario(String name, List<Step> steps) {
+        this.name = name;
+        this.steps = steps;
+        for (Step step : steps) {
+            Map<String, Pattern> patterns = new LinkedHashMap<>();
+            step.extract.forEach((variable, regex) -> patterns.put(variable, Pattern.compile(regex)));
+            step.extractPatterns = patterns;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Reads a scenario saved with {@link #save(Path)}
+     */
+    @SuppressWarnings("unchecked")
+    public static LoadScenario load(Path file) {
+        try {
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            Map<String, Object> raw = new Json().toType(json, Json.MAP_TYPE);
+
+            List<Step> steps = new ArrayList<>();
+            for (Map<String, Object> rawStep : (List<Map<String, Object>>) raw.get("steps")) {
+                Step step = new Step((String) rawStep.get("name"), (String) rawStep.get("method"), (String) rawStep.get("url"));
+                step.body = (String) rawStep.get("body");
+                step.contentType = (String) rawStep.get("contentType");
+                if (rawStep.get("extract") != null) {
+                    step.extract.putAll((Map<String, String>) rawStep.get("extract"));
+                }
+                steps.add(step);
+            }
+            return new LoadScenario((String) raw.get("name"), steps);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read load scenario " + file, e);
+        }
+    }
+
+    /**
+     * Writes the scenario as JSON
+     */
+    public void save(Path file) {
+        List<Map<String, Object>> rawSteps = new ArrayList<>();
+        for (Step step : steps) {
+            Map<String, Object> rawStep = new LinkedHashMap<>();
+            rawStep.put("name", step.name);
+            rawStep.put("method", step.method);
+            rawStep.put("url", step.url);
+            rawStep.put("body", step.body);
+            rawStep.put("contentType", step.contentType);
+            rawStep.put("extract", step.extract);
+            rawSteps.add(rawStep);
+        }
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("name", name);
+        raw.put("steps", rawSteps);
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, new Json().toJson(raw).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write load scenario " + file, e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.amex.ui.framework.load;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Records a browser run of a flow as a {@link LoadScenario}: every loaded page becomes a GET,
+ * every form submission a request with the form fields, in the query string for method=get
+ * forms and in the body otherwise. Hidden form fields are treated as dynamic tokens: they are
+ * extracted from the page that rendered the form and substituted on replay.
+ */
+public class ScenarioRecorder {
+    private static final String LOAD_DIR = "target/load/";
+
+    private static final String FORM_SCRIPT =
+            "var el = arguments[0];" +
+                    "var form = el.form || el.closest('form');" +
+                    "if (!form) return null;" +
+                    "var fields = [];" +
+                    "for (var i = 0; i < form.elements.length; i++) {" +
+                    " var f = form.elements[i];" +
+                    " if (!f.name || f.disabled || ((f.type === 'checkbox' || f.type === 'radio') && !f.checked)) continue;" +
+                    " fields.push({name: f.name, value: f.value, hidden: f.type === 'hidden'}); }" +
+                    "return {action: form.action || location.href, method: (form.method || 'get').toUpperCase(), fields: fields};";
+
+    private static final ThreadLocal<List<LoadScenario.Step>> steps = ThreadLocal.withInitial(ArrayList::new);
+
+    private ScenarioRecorder() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("load.record", "false"));
+    }
+
+    /**
+     * Records the page currently shown as a GET step
+     */
+    public static void recordPage(WebDriver driver, String pageName) {
+        steps.get().add(new LoadScenario.Step(pageName, "GET", driver.getCurrentUrl()));
+    }
+
+    /**
+     * Records the submission of the form that owns the given element as a POST step
+     */
+    @SuppressWarnings("unchecked")
+    public static void recordFormSubmit(WebDriver driver, WebElement formElement, String stepName) {
+        Map<String, Object> form = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(FORM_SCRIPT, formElement);
+        if (form == null) {
+            System.err.println("Not recording " + stepName + ": element is not inside a form");
+            return;
+        }
+
+        List<LoadScenario.Step> recorded = steps.get();
+        LoadScenario.Step formPage = recorded.isEmpty() ? null : recorded.get(recorded.size() - 1);
+
+        StringBuilder body = new StringBuilder();
+        for (Map<String, Object> field : (List<Map<String, Object>>) form.get("fields")) {
+            String name = (String) field.get("name");
+            String value = (String) field.get("value");
+
+            // Hidden fields usually carry per-session tokens, so correlate them instead of replaying the recorded value
+            if (Boolean.TRUE.equals(field.get("hidden")) && formPage != null) {
+                formPage.extract.put(name, tokenPattern(name));
+                value = "${" + name + "}";
+            } else {
+                value = URLEncoder.encode(value, StandardCharsets.UTF_8);
+            }
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            body.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=').append(value);
+        }
+
+        String method = (String) form.get("method");
+        String action = (String) form.get("action");
+        LoadScenario.Step step;
+        if ("GET".equals(method)) {
+            // Submitting a GET form replaces the action's query string with the fields
+            String url = action.split("[?#]", 2)[0];
+            step = new LoadScenario.Step(stepName, "GET", body.length() > 0 ? url + "?" + body : url);
+        } else {
+            step = new LoadScenario.Step(stepName, method, action);
+            step.body = body.toString();
+            step.contentType = "application/x-www-form-urlencoded";
+        }
+        recorded.add(step);
+    }
+
+    /**
+     * Regex capturing the value of the input with the given name, whatever the attribute order
+     * and quoting: the name is matched by a lookahead inside the tag, then the value is captured
+     */
+    private static String tokenPattern(String name) {
+        return "(?i)<input(?=[^>]*\\sname\\s*=\\s*[\"']?" + Pattern.quote(name) + "[\"'\\s/>])"
+                + "[^>]*\\svalue\\s*=\\s*[\"']?([^\"'\\s>]*)";
+    }
+
+    /**
+     * Saves the steps recorded on this thread to target/load/&lt;testName&gt;.json and resets the recorder
+     */
+    public static void save(String testName) {
+        List<LoadScenario.Step> recorded = steps.get();
+        steps.remove();
+        if (recorded.isEmpty()) {
+            return;
+        }
+        new LoadScenario(testName, recorded).save(Paths.get(LOAD_DIR, testName + ".json"));
+    }
+
+    /**
+     * Drops the steps recorded on this thread, e.g. after a failed run
+     */
+    public static void discard() {
+        steps.remove();
+    }
+}
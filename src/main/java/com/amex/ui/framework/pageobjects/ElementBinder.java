@@ -0,0 +1,17 @@
+package com.amex.ui.framework.pageobjects;
+
+import org.openqa.selenium.SearchContext;
+
+/**
+ * Assigns the @FindBy fields of one page object class. Implementations named
+ * &lt;PageClass&gt;_Elements are generated at compile time by {@link PageObjectProcessor}.
+ */
+public interface ElementBinder<T> {
+
+    /**
+     * @param page Page object whose fields are assigned
+     * @param context Driver or element the locators are evaluated against
+     * @param timeoutSeconds How long to wait for elements to appear, as AjaxElementLocatorFactory does
+     */
+    void bind(T page, SearchContext context, int timeoutSeconds);
+}
@@ -0,0 +1,201 @@
+package com.amex.ui.framework.pageobjects;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Coordinates;
+import org.openqa.selenium.interactions.Locatable;
+
+import java.util.List;
+
+/**
+ * Element field assigned by generated binders. Like a PageFactory proxy it locates the
+ * element on every call (or once with @CacheLookup) and waits for it to appear, but each
+ * method is a plain virtual call instead of a reflective InvocationHandler dispatch.
+ */
+public class LazyElement implements WebElement, WrapsElement, Locatable {
+    private static final long POLLING_INTERVAL_MS = 250;
+
+    private final SearchContext context;
+    private final By by;
+    private final boolean cacheLookup;
+    private final int timeoutSeconds;
+    private WebElement cached;
+
+    public LazyElement(SearchContext context, By by, boolean cacheLookup, int timeoutSeconds) {
+        this.context = context;
+        this.by = by;
+        this.cacheLookup = cacheLookup;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    private WebElement locate() {
+        if (cached != null) {
+            return cached;
+        }
+        long deadline = System.currentTimeMillis() + timeoutSeconds * 1000L;
+        while (true) {
+            try {
+                WebElement element = context.findElement(by);
+                if (cacheLookup) {
+                    cached = element;
+                }
+                return element;
+            } catch (NoSuchElementException e) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw e;
+                }
+                sleep();
+            }
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLLING_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while locating element", e);
+        }
+    }
+
+    /**
+     * Whether a stale element is found again on the next call, i.e. the lookup is not cached
+     */
+    public boolean isRelocatable() {
+        return !cacheLookup;
+    }
+
+    @Override
+    public WebElement getWrappedElement() {
+        return locate();
+    }
+
+    @Override
+    public Coordinates getCoordinates() {
+        return ((Locatable) locate()).getCoordinates();
+    }
+
+    @Override
+    public void click() {
+        locate().click();
+    }
+
+    @Override
+    public void submit() {
+        locate().submit();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        locate().sendKeys(keysToSend);
+    }
+
+    @Override
+    public void clear() {
+        locate().clear();
+    }
+
+    @Override
+    public String getTagName() {
+        return locate().getTagName();
+    }
+
+    @Override
+    public String getDomProperty(String name) {
+        return locate().getDomProperty(name);
+    }
+
+    @Override
+    public String getDomAttribute(String name) {
+        return locate().getDomAttribute(name);
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        return locate().getAttribute(name);
+    }
+
+    @Override
+    public String getAriaRole() {
+        return locate().getAriaRole();
+    }
+
+    @Override
+    public String getAccessibleName() {
+        return locate().getAccessibleName();
+    }
+
+    @Override
+    public boolean isSelected() {
+        return locate().isSelected();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return locate().isEnabled();
+    }
+
+    @Override
+    public String getText() {
+        return locate().getText();
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return locate().findElements(by);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return locate().findElement(by);
+    }
+
+    @Override
+    public SearchContext getShadowRoot() {
+        return locate().getShadowRoot();
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return locate().isDisplayed();
+    }
+
+    @Override
+    public Point getLocation() {
+        return locate().getLocation();
+    }
+
+    @Override
+    public Dimension getSize() {
+        return locate().getSize();
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return locate().getRect();
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        return locate().getCssValue(propertyName);
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return locate().getScreenshotAs(target);
+    }
+
+    @Override
+    public String toString() {
+        return "LazyElement(" + by + ")";
+    }
+}
@@ -0,0 +1,74 @@
+package com.amex.ui.framework.pageobjects;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * List field assigned by generated binders. Like the AjaxElementLocator list it re-finds
+ * the elements on every access (or once with @CacheLookup), waiting up to the timeout for
+ * at least one match before returning an empty list.
+ */
+public class LazyElementList extends AbstractList<WebElement> {
+    private static final long POLLING_INTERVAL_MS = 250;
+
+    private final SearchContext context;
+    private final By by;
+    private final boolean cacheLookup;
+    private final int timeoutSeconds;
+    private List<WebElement> cached;
+
+    public LazyElementList(SearchContext context, By by, boolean cacheLookup, int timeoutSeconds) {
+        this.context = context;
+        this.by = by;
+        this.cacheLookup = cacheLookup;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    private List<WebElement> locate() {
+        if (cached != null) {
+            return cached;
+        }
+        long deadline = System.currentTimeMillis() + timeoutSeconds * 1000L;
+        List<WebElement> elements = context.findElements(by);
+        while (elements.isEmpty() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLLING_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException("Interrupted while locating elements", e);
+            }
+            elements = context.findElements(by);
+        }
+        if (cacheLookup) {
+            cached = elements;
+        }
+        return elements;
+    }
+
+    @Override
+    public WebElement get(int index) {
+        return locate().get(index);
+    }
+
+    @Override
+    public int size() {
+        return locate().size();
+    }
+
+    @Override
+    public Iterator<WebElement> iterator() {
+        // Iterate over one lookup rather than re-finding for every get()
+        return locate().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return "LazyElementList(" + by + ")";
+    }
+}
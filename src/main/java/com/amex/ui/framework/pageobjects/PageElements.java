@@ -0,0 +1,80 @@
+package com.amex.ui.framework.pageobjects;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.pagefactory.AjaxElementLocatorFactory;
+
+import java.lang.reflect.Field;
+
+/**
+ * Initialises page object fields with the binders generated by {@link PageObjectProcessor}.
+ * The binder of each class is looked up once and cached, so constructing a page costs a
+ * few direct field assignments. Classes without a generated binder (processor not run,
+ * private fields, @FindBys/@FindAll) fall back to PageFactory, as does pageObjects.binding=reflective.
+ */
+public class PageElements {
+    private static final String BINDER_SUFFIX = "_Elements";
+
+    // Markers for classes without a generated binder
+    private static final ElementBinder<Object> NO_FIELDS = (page, context, timeoutSeconds) -> { };
+    private static final ElementBinder<Object> REFLECTIVE = (page, context, timeoutSeconds) -> { };
+
+    // Stored on each class, so binders of reloaded page classes do not pin old class loaders
+    private static final ClassValue<ElementBinder<Object>> binders = new ClassValue<ElementBinder<Object>>() {
+        @Override
+        protected ElementBinder<Object> computeValue(Class<?> type) {
+            return loadBinder(type);
+        }
+    };
+
+    private PageElements() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Assigns all @FindBy fields of the page and its superclasses
+     */
+    public static void initElements(Object page, SearchContext context, int timeoutSeconds) {
+        if ("reflective".equalsIgnoreCase(ConfigReader.getProperty("pageObjects.binding", "generated"))) {
+            PageFactory.initElements(new AjaxElementLocatorFactory(context, timeoutSeconds), page);
+            return;
+        }
+
+        for (Class<?> type = page.getClass(); type != Object.class; type = type.getSuperclass()) {
+            ElementBinder<Object> binder = binders.get(type);
+            if (binder == REFLECTIVE) {
+                // PageFactory walks the whole hierarchy itself
+                PageFactory.initElements(new AjaxElementLocatorFactory(context, timeoutSeconds), page);
+                return;
+            }
+            binder.bind(page, context, timeoutSeconds);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ElementBinder<Object> loadBinder(Class<?> type) {
+        String binderName = type.getName().replace('$', '_') + BINDER_SUFFIX;
+        try {
+            return (ElementBinder<Object>) Class.forName(binderName, true, type.getClassLoader())
+                    .getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return hasLocatorFields(type) ? REFLECTIVE : NO_FIELDS;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Failed to load page object binder " + binderName, e);
+        }
+    }
+
+    private static boolean hasLocatorFields(Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(FindBy.class) || field.isAnnotationPresent(FindBys.class)
+                    || field.isAnnotationPresent(FindAll.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,214 @@
+package com.amex.ui.framework.pageobjects;
+
+import org.openqa.selenium.support.CacheLookup;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.How;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates a &lt;PageClass&gt;_Elements binder for every class
+ * with @FindBy fields, assigning each field a {@link LazyElement} or {@link LazyElementList}
+ * built from a constant By. Fields must not be private; classes that cannot be generated
+ * are reported as a note and keep using PageFactory at runtime.
+ */
+@SupportedAnnotationTypes("org.openqa.selenium.support.FindBy")
+public class PageObjectProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> fieldsByPage = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(FindBy.class)) {
+            if (element.getKind() == ElementKind.FIELD) {
+                fieldsByPage.computeIfAbsent((TypeElement) element.getEnclosingElement(), k -> new ArrayList<>())
+                        .add((VariableElement) element);
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : fieldsByPage.entrySet()) {
+            String reason = getUnsupportedReason(entry.getKey());
+            if (reason != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Using PageFactory for " + entry.getKey() + ": " + reason, entry.getKey());
+                continue;
+            }
+            try {
+                generateBinder(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to generate binder: " + e.getMessage(), entry.getKey());
+            }
+        }
+        // Other processors may still want @FindBy
+        return false;
+    }
+
+    private String getUnsupportedReason(TypeElement page) {
+        for (Element member : page.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            if (member.getAnnotation(FindBys.class) != null || member.getAnnotation(FindAll.class) != null) {
+                return "@FindBys/@FindAll on " + member.getSimpleName();
+            }
+            if (member.getAnnotation(FindBy.class) == null) {
+                continue;
+            }
+            if (member.getModifiers().contains(Modifier.PRIVATE) || member.getModifiers().contains(Modifier.FINAL)) {
+                return "field " + member.getSimpleName() + " is private or final";
+            }
+            String type = member.asType().toString();
+            if (!type.equals("org.openqa.selenium.WebElement")
+                    && !type.equals("java.util.List<org.openqa.selenium.WebElement>")) {
+                return "field " + member.getSimpleName() + " is not a WebElement or List<WebElement>";
+            }
+        }
+        return null;
+    }
+
+    private void generateBinder(TypeElement page, List<VariableElement> fields) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(page).getQualifiedName().toString();
+        String pageName = page.getQualifiedName().toString();
+        String binderName = binarySimpleName(page).replace('$', '_') + "_Elements";
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("import com.amex.ui.framework.pageobjects.ElementBinder;\n");
+        sb.append("import com.amex.ui.framework.pageobjects.LazyElement;\n");
+        sb.append("import com.amex.ui.framework.pageobjects.LazyElementList;\n");
+        sb.append("import org.openqa.selenium.By;\n");
+        sb.append("import org.openqa.selenium.SearchContext;\n\n");
+        sb.append("/**\n * Generated by PageObjectProcessor from the @FindBy fields of ").append(pageName).append("\n */\n");
+        sb.append("public final class ").append(binderName).append(" implements ElementBinder<").append(pageName).append("> {\n");
+
+        for (VariableElement field : fields) {
+            sb.append("    static final By ").append(constantName(field)).append(" = ")
+                    .append(byExpression(field.getAnnotation(FindBy.class))).append(";\n");
+        }
+
+        sb.append("\n    @Override\n");
+        sb.append("    public void bind(").append(pageName).append(" page, SearchContext context, int timeoutSeconds) {\n");
+        for (VariableElement field : fields) {
+            boolean list = field.asType().toString().startsWith("java.util.List");
+            boolean cache = field.getAnnotation(CacheLookup.class) != null;
+            sb.append("        page.").append(field.getSimpleName()).append(" = new ")
+                    .append(list ? "LazyElementList" : "LazyElement").append("(context, ")
+                    .append(constantName(field)).append(", ").append(cache).append(", timeoutSeconds);\n");
+        }
+        sb.append("    }\n}\n");
+
+        String qualifiedBinder = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedBinder, page).openWriter()) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private static String binarySimpleName(TypeElement type) {
+        Element enclosing = type.getEnclosingElement();
+        if (enclosing instanceof TypeElement) {
+            return binarySimpleName((TypeElement) enclosing) + "$" + type.getSimpleName();
+        }
+        return type.getSimpleName().toString();
+    }
+
+    private static String constantName(VariableElement field) {
+        return field.getSimpleName().toString().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    private static String byExpression(FindBy findBy) {
+        if (!findBy.id().isEmpty()) {
+            return "By.id(" + literal(findBy.id()) + ")";
+        }
+        if (!findBy.name().isEmpty()) {
+            return "By.name(" + literal(findBy.name()) + ")";
+        }
+        if (!findBy.className().isEmpty()) {
+            return "By.className(" + literal(findBy.className()) + ")";
+        }
+        if (!findBy.css().isEmpty()) {
+            return "By.cssSelector(" + literal(findBy.css()) + ")";
+        }
+        if (!findBy.tagName().isEmpty()) {
+            return "By.tagName(" + literal(findBy.tagName()) + ")";
+        }
+        if (!findBy.linkText().isEmpty()) {
+            return "By.linkText(" + literal(findBy.linkText()) + ")";
+        }
+        if (!findBy.partialLinkText().isEmpty()) {
+            return "By.partialLinkText(" + literal(findBy.partialLinkText()) + ")";
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return "By.xpath(" + literal(findBy.xpath()) + ")";
+        }
+        return howExpression(findBy.how(), findBy.using());
+    }
+
+    private static String howExpression(How how, String using) {
+        switch (how) {
+            case ID:
+                return "By.id(" + literal(using) + ")";
+            case NAME:
+                return "By.name(" + literal(using) + ")";
+            case CLASS_NAME:
+                return "By.className(" + literal(using) + ")";
+            case CSS:
+                return "By.cssSelector(" + literal(using) + ")";
+            case TAG_NAME:
+                return "By.tagName(" + literal(using) + ")";
+            case LINK_TEXT:
+                return "By.linkText(" + literal(using) + ")";
+            case PARTIAL_LINK_TEXT:
+                return "By.partialLinkText(" + literal(using) + ")";
+            case XPATH:
+                return "By.xpath(" + literal(using) + ")";
+            default:
+                // ID_OR_NAME and UNSET, as PageFactory defaults to id-or-name
+                return "new org.openqa.selenium.support.pagefactory.ByIdOrName(" + literal(using) + ")";
+        }
+    }
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
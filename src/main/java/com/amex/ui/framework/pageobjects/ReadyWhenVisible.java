@@ -0,0 +1,15 @@
+package com.amex.ui.framework.pageobjects;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the element fields that make a page usable once visible. With an eager or none
+ * page-load strategy, BasePage waits only for these instead of the full page load.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ReadyWhenVisible {
+}
@@ -0,0 +1,371 @@
+package com.amex.ui.framework.selection;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal class file reader for dependency analysis: for every method it collects the
+ * classes it references, the methods it invokes and the annotations it carries.
+ * Only what test selection needs is decoded; everything else is skipped.
+ */
+final class ClassFileScanner {
+
+    static final class ClassInfo {
+        String name;
+        String superName;
+        final List<String> interfaces = new ArrayList<>();
+        final Map<String, MethodInfo> methods = new LinkedHashMap<>();
+    }
+
+    static final class MethodInfo {
+        final String name;
+        final String descriptor;
+        final Set<String> annotations = new HashSet<>();
+        final Set<String> classes = new HashSet<>();
+        // Invoked methods as "owner.name(descriptor)"
+        final Set<String> calls = new HashSet<>();
+        byte[] code;
+
+        MethodInfo(String name, String descriptor) {
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+    }
+
+    private static final int UTF8 = 1, CLASS = 7, FIELDREF = 9, METHODREF = 10, INTERFACE_METHODREF = 11,
+            NAME_AND_TYPE = 12, METHOD_HANDLE = 15, INVOKE_DYNAMIC = 18;
+
+    private final DataInputStream in;
+    private int[] tags;
+    private Object[] pool;
+    private int[][] refs;
+    private final List<int[]> bootstrapArguments = new ArrayList<>();
+
+    private ClassFileScanner(byte[] bytes) {
+        this.in = new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    static ClassInfo scan(byte[] bytes) throws IOException {
+        return new ClassFileScanner(bytes).read();
+    }
+
+    private ClassInfo read() throws IOException {
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        readConstantPool();
+
+        ClassInfo info = new ClassInfo();
+        in.readUnsignedShort();
+        info.name = className(in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        info.superName = superIndex == 0 ? null : className(superIndex);
+        int interfaceCount = in.readUnsignedShort();
+        for (int i = 0; i < interfaceCount; i++) {
+            info.interfaces.add(className(in.readUnsignedShort()));
+        }
+
+        // Field types are loaded with the class, so they count for its constructors
+        Set<String> fieldTypes = new HashSet<>();
+        int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            addDescriptorTypes(utf8(in.readUnsignedShort()), fieldTypes);
+            skipAttributes();
+        }
+
+        int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            in.readUnsignedShort();
+            MethodInfo method = new MethodInfo(utf8(in.readUnsignedShort()), utf8(in.readUnsignedShort()));
+            addDescriptorTypes(method.descriptor, method.classes);
+            readMethodAttributes(method);
+            if ("<init>".equals(method.name) || "<clinit>".equals(method.name)) {
+                method.classes.addAll(fieldTypes);
+            }
+            info.methods.put(method.name + method.descriptor, method);
+        }
+
+        readClassAttributes();
+        for (MethodInfo method : info.methods.values()) {
+            if (method.code != null) {
+                decode(method);
+                method.code = null;
+            }
+        }
+        return info;
+    }
+
+    private void readConstantPool() throws IOException {
+        int count = in.readUnsignedShort();
+        tags = new int[count];
+        pool = new Object[count];
+        refs = new int[count][];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = tag;
+            switch (tag) {
+                case UTF8:
+                    pool[i] = in.readUTF();
+                    break;
+                case 3: case 4:
+                    in.readInt();
+                    break;
+                case 5: case 6:
+                    in.readLong();
+                    i++;
+                    break;
+                case CLASS: case 8: case 16: case 19: case 20:
+                    refs[i] = new int[]{in.readUnsignedShort()};
+                    break;
+                case METHOD_HANDLE:
+                    refs[i] = new int[]{in.readUnsignedByte(), in.readUnsignedShort()};
+                    break;
+                case FIELDREF: case METHODREF: case INTERFACE_METHODREF: case NAME_AND_TYPE: case 17: case INVOKE_DYNAMIC:
+                    refs[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+    }
+
+    private void readMethodAttributes(MethodInfo method) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            String name = utf8(in.readUnsignedShort());
+            int length = in.readInt();
+            if ("Code".equals(name)) {
+                in.readUnsignedShort();
+                in.readUnsignedShort();
+                method.code = new byte[in.readInt()];
+                in.readFully(method.code);
+                in.skipBytes(in.readUnsignedShort() * 8);
+                skipAttributes();
+            } else if ("RuntimeVisibleAnnotations".equals(name)) {
+                int annotations = in.readUnsignedShort();
+                for (int a = 0; a < annotations; a++) {
+                    method.annotations.add(readAnnotation());
+                }
+            } else {
+                in.skipBytes(length);
+            }
+        }
+    }
+
+    private void readClassAttributes() throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            String name = utf8(in.readUnsignedShort());
+            int length = in.readInt();
+            if (!"BootstrapMethods".equals(name)) {
+                in.skipBytes(length);
+                continue;
+            }
+            int methods = in.readUnsignedShort();
+            for (int m = 0; m < methods; m++) {
+                in.readUnsignedShort();
+                int[] arguments = new int[in.readUnsignedShort()];
+                for (int a = 0; a < arguments.length; a++) {
+                    arguments[a] = in.readUnsignedShort();
+                }
+                bootstrapArguments.add(arguments);
+            }
+        }
+    }
+
+    private void skipAttributes() throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.readUnsignedShort();
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    /**
+     * Reads an annotation and returns its type; element values are skipped
+     */
+    private String readAnnotation() throws IOException {
+        String type = descriptorClass(utf8(in.readUnsignedShort()));
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            in.readUnsignedShort();
+            skipElementValue();
+        }
+        return type;
+    }
+
+    private void skipElementValue() throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                in.skipBytes(4);
+                break;
+            case '@':
+                readAnnotation();
+                break;
+            case '[':
+                int values = in.readUnsignedShort();
+                for (int i = 0; i < values; i++) {
+                    skipElementValue();
+                }
+                break;
+            default:
+                in.skipBytes(2);
+        }
+    }
+
+    /**
+     * Walks the bytecode and records every constant pool reference to a class, field or method
+     */
+    private void decode(MethodInfo method) {
+        byte[] code = method.code;
+        int pc = 0;
+        while (pc < code.length) {
+            int opcode = code[pc] & 0xFF;
+            switch (opcode) {
+                case 0x12: // ldc
+                    addConstant(code[pc + 1] & 0xFF, method);
+                    pc += 2;
+                    break;
+                case 0x13: case 0x14: // ldc_w, ldc2_w
+                case 0xB2: case 0xB3: case 0xB4: case 0xB5: // field access
+                case 0xB6: case 0xB7: case 0xB8: // invokevirtual, invokespecial, invokestatic
+                case 0xBB: case 0xBD: case 0xC0: case 0xC1: // new, anewarray, checkcast, instanceof
+                    addConstant(u2(code, pc + 1), method);
+                    pc += 3;
+                    break;
+                case 0xB9: case 0xBA: // invokeinterface, invokedynamic
+                    addConstant(u2(code, pc + 1), method);
+                    pc += 5;
+                    break;
+                case 0xC5: // multianewarray
+                    addConstant(u2(code, pc + 1), method);
+                    pc += 4;
+                    break;
+                case 0xAA: { // tableswitch
+                    int base = (pc + 4) & ~3;
+                    int low = s4(code, base + 4);
+                    int high = s4(code, base + 8);
+                    pc = base + 12 + (high - low + 1) * 4;
+                    break;
+                }
+                case 0xAB: { // lookupswitch
+                    int base = (pc + 4) & ~3;
+                    pc = base + 8 + s4(code, base + 4) * 8;
+                    break;
+                }
+                case 0xC4: // wide
+                    pc += (code[pc + 1] & 0xFF) == 0x84 ? 6 : 4;
+                    break;
+                default:
+                    pc += length(opcode);
+            }
+        }
+    }
+
+    private static int length(int opcode) {
+        if (opcode == 0x10 || (opcode >= 0x15 && opcode <= 0x19) || (opcode >= 0x36 && opcode <= 0x3A)
+                || opcode == 0xA9 || opcode == 0xBC) {
+            return 2;
+        }
+        if (opcode == 0x11 || opcode == 0x84 || (opcode >= 0x99 && opcode <= 0xA8) || opcode == 0xC6 || opcode == 0xC7) {
+            return 3;
+        }
+        if (opcode == 0xC8 || opcode == 0xC9) {
+            return 5;
+        }
+        return 1;
+    }
+
+    private void addConstant(int index, MethodInfo method) {
+        switch (tags[index]) {
+            case CLASS:
+                addClass(className(index), method.classes);
+                break;
+            case FIELDREF: {
+                addClass(className(refs[index][0]), method.classes);
+                addDescriptorTypes(utf8(refs[refs[index][1]][1]), method.classes);
+                break;
+            }
+            case METHODREF: case INTERFACE_METHODREF:
+                addMethodRef(index, method);
+                break;
+            case METHOD_HANDLE:
+                addConstant(refs[index][1], method);
+                break;
+            case INVOKE_DYNAMIC:
+                // Lambda and method reference bodies are passed to the bootstrap method as handles
+                for (int argument : bootstrapArguments.get(refs[index][0])) {
+                    if (tags[argument] == METHOD_HANDLE) {
+                        addConstant(argument, method);
+                    }
+                }
+                addDescriptorTypes(utf8(refs[refs[index][1]][1]), method.classes);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addMethodRef(int index, MethodInfo method) {
+        String owner = className(refs[index][0]);
+        int[] nameAndType = refs[refs[index][1]];
+        String descriptor = utf8(nameAndType[1]);
+        addClass(owner, method.classes);
+        addDescriptorTypes(descriptor, method.classes);
+        if (!owner.startsWith("[")) {
+            method.calls.add(owner + "." + utf8(nameAndType[0]) + descriptor);
+        }
+    }
+
+    private static void addClass(String name, Set<String> classes) {
+        if (name.startsWith("[")) {
+            addDescriptorTypes(name, classes);
+        } else {
+            classes.add(name);
+        }
+    }
+
+    /**
+     * Adds every object type named in a field or method descriptor
+     */
+    static void addDescriptorTypes(String descriptor, Set<String> classes) {
+        int start = descriptor.indexOf('L');
+        while (start >= 0) {
+            int end = descriptor.indexOf(';', start);
+            classes.add(descriptor.substring(start + 1, end).replace('/', '.'));
+            start = descriptor.indexOf('L', end);
+        }
+    }
+
+    private static String descriptorClass(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private String className(int index) {
+        return utf8(refs[index][0]).replace('/', '.');
+    }
+
+    private String utf8(int index) {
+        return (String) pool[index];
+    }
+
+    private static int u2(byte[] code, int offset) {
+        return ((code[offset] & 0xFF) << 8) | (code[offset + 1] & 0xFF);
+    }
+
+    private static int s4(byte[] code, int offset) {
+        return (u2(code, offset) << 16) | u2(code, offset + 2);
+    }
+}
@@ -0,0 +1,237 @@
+package com.amex.ui.framework.selection;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Maps each test method ("class#method") to the project classes it can reach: a static
+ * call graph walk from the test and its class's setup, teardown and data provider methods,
+ * plus the page objects recorded at runtime. Class names are top-level names, matching
+ * source files one to one.
+ */
+class DependencyMap {
+    private static final String TEST_ANNOTATION = "org.testng.annotations.Test";
+
+    private final Map<String, ClassFileScanner.ClassInfo> classes = new HashMap<>();
+    private final Map<String, List<String>> subclasses = new HashMap<>();
+    private final Map<String, Set<String>> staticDependencies = new TreeMap<>();
+
+    /**
+     * Analyses every class file under the given build output directories
+     */
+    static DependencyMap analyse(List<Path> classDirs) throws IOException {
+        DependencyMap map = new DependencyMap();
+        for (Path dir : classDirs) {
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".class"))::iterator) {
+                    ClassFileScanner.ClassInfo info = ClassFileScanner.scan(Files.readAllBytes(file));
+                    map.classes.put(info.name, info);
+                }
+            }
+        }
+        for (ClassFileScanner.ClassInfo info : map.classes.values()) {
+            if (info.superName != null) {
+                map.subclasses.computeIfAbsent(info.superName, k -> new ArrayList<>()).add(info.name);
+            }
+            for (String type : info.interfaces) {
+                map.subclasses.computeIfAbsent(type, k -> new ArrayList<>()).add(info.name);
+            }
+        }
+        map.buildTestDependencies();
+        return map;
+    }
+
+    /**
+     * Top-level names of all analysed project classes
+     */
+    Set<String> getProjectClasses() {
+        Set<String> names = new TreeSet<>();
+        for (String name : classes.keySet()) {
+            names.add(topLevel(name));
+        }
+        return names;
+    }
+
+    Set<String> getTests() {
+        return staticDependencies.keySet();
+    }
+
+    Set<String> getStaticDependencies(String testId) {
+        return staticDependencies.getOrDefault(testId, Collections.emptySet());
+    }
+
+    /**
+     * Everything reachable from any method of a class, used for pages seen only at runtime
+     */
+    Set<String> getClassDependencies(String className) {
+        ClassFileScanner.ClassInfo info = classes.get(className);
+        if (info == null) {
+            return Collections.singleton(topLevel(className));
+        }
+        List<String> roots = new ArrayList<>();
+        for (String signature : info.methods.keySet()) {
+            roots.add(className + "." + signature);
+        }
+        return reach(roots);
+    }
+
+    private void buildTestDependencies() {
+        for (ClassFileScanner.ClassInfo info : classes.values()) {
+            List<String> lifecycle = new ArrayList<>();
+            List<ClassFileScanner.MethodInfo> tests = new ArrayList<>();
+            for (ClassFileScanner.ClassInfo c = info; c != null; c = classes.get(c.superName)) {
+                for (ClassFileScanner.MethodInfo method : c.methods.values()) {
+                    if (method.annotations.contains(TEST_ANNOTATION)) {
+                        if (c == info) {
+                            tests.add(method);
+                        }
+                    } else if (isLifecycle(method)) {
+                        lifecycle.add(c.name + "." + method.name + method.descriptor);
+                    }
+                }
+            }
+            for (ClassFileScanner.MethodInfo test : tests) {
+                List<String> roots = new ArrayList<>(lifecycle);
+                roots.add(info.name + "." + test.name + test.descriptor);
+                staticDependencies.computeIfAbsent(info.name + "#" + test.name, k -> new TreeSet<>()).addAll(reach(roots));
+            }
+        }
+    }
+
+    private static boolean isLifecycle(ClassFileScanner.MethodInfo method) {
+        for (String annotation : method.annotations) {
+            if (annotation.startsWith("org.testng.annotations.Before") || annotation.startsWith("org.testng.annotations.After")
+                    || annotation.equals("org.testng.annotations.DataProvider")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the call graph from the given methods and returns the project classes touched.
+     * Virtual calls also reach every project override, so the result errs on the side of more tests.
+     */
+    private Set<String> reach(List<String> roots) {
+        Set<String> reached = new TreeSet<>();
+        Set<String> loadedClasses = new HashSet<>();
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(roots);
+
+        while (!pending.isEmpty()) {
+            String call = pending.pop();
+            if (!visited.add(call)) {
+                continue;
+            }
+            int dot = call.lastIndexOf('.', call.indexOf('('));
+            String owner = call.substring(0, dot);
+            String signature = call.substring(dot + 1);
+
+            for (String target : resolve(owner, signature)) {
+                ClassFileScanner.MethodInfo method = classes.get(target).methods.get(signature);
+                for (String type : method.classes) {
+                    if (classes.containsKey(type) && loadedClasses.add(type)) {
+                        reached.add(topLevel(type));
+                        addClassInitialisation(type, pending);
+                    }
+                }
+                pending.addAll(method.calls);
+            }
+            if (classes.containsKey(owner) && loadedClasses.add(owner)) {
+                reached.add(topLevel(owner));
+                addClassInitialisation(owner, pending);
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Static initialisers of a class and its superclasses run when it is first used
+     */
+    private void addClassInitialisation(String className, Deque<String> pending) {
+        for (ClassFileScanner.ClassInfo c = classes.get(className); c != null; c = classes.get(c.superName)) {
+            pending.add(c.name + ".<clinit>()V");
+        }
+    }
+
+    /**
+     * Classes whose implementation of the method can run for a call on the given owner
+     */
+    private List<String> resolve(String owner, String signature) {
+        List<String> targets = new ArrayList<>();
+        for (ClassFileScanner.ClassInfo c = classes.get(owner); c != null; c = classes.get(c.superName)) {
+            if (c.methods.containsKey(signature)) {
+                targets.add(c.name);
+                break;
+            }
+        }
+        if (signature.startsWith("<")) {
+            return targets;
+        }
+        Deque<String> overrides = new ArrayDeque<>(subclasses.getOrDefault(owner, Collections.emptyList()));
+        while (!overrides.isEmpty()) {
+            String subclass = overrides.pop();
+            if (classes.get(subclass).methods.containsKey(signature)) {
+                targets.add(subclass);
+            }
+            overrides.addAll(subclasses.getOrDefault(subclass, Collections.emptyList()));
+        }
+        return targets;
+    }
+
+    static String topLevel(String className) {
+        int nested = className.indexOf('$');
+        return nested < 0 ? className : className.substring(0, nested);
+    }
+
+    /**
+     * Reads a map saved by {@link #save}, or null if none has been built yet
+     */
+    static Map<String, Set<String>> load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, Set<String>> dependencies = new TreeMap<>();
+        for (String testId : properties.stringPropertyNames()) {
+            String value = properties.getProperty(testId).trim();
+            dependencies.put(testId, value.isEmpty() ? new TreeSet<>() : new TreeSet<>(Arrays.asList(value.split(","))));
+        }
+        return dependencies;
+    }
+
+    static void save(Path file, Map<String, Set<String>> dependencies, String comment) throws IOException {
+        Files.createDirectories(file.getParent());
+        Properties properties = new Properties();
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            properties.setProperty(entry.getKey(), String.join(",", entry.getValue()));
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, comment);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.amex.ui.framework.selection;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Change-based test selection. With selection.mode=changed only the tests whose dependency
+ * set contains a class changed since selection.base (git ref, default HEAD, so uncommitted
+ * work counts) are run. Every run refreshes the dependency map in .test-selection/ from a
+ * static analysis of the compiled classes plus the page objects each test created.
+ *
+ * The full suite runs instead whenever the answer could be wrong: no map yet, a test the
+ * map has never seen, a change outside Java sources (config, pom, resources), a class the
+ * analysis does not know, or git failing.
+ *
+ * Registered for every TestNG run through META-INF/services/org.testng.ITestNGListener.
+ */
+public class TestSelector implements IMethodInterceptor, ITestListener, ISuiteListener {
+    private static final Path MAP_FILE = Paths.get(".test-selection", "dependencies.properties");
+    private static final List<Path> CLASS_DIRS = Arrays.asList(Paths.get("target/classes"), Paths.get("target/test-classes"));
+    private static final List<String> SOURCE_ROOTS = Arrays.asList("src/main/java/", "src/test/java/");
+
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+    // Every test started in this run, whether or not it created a page itself
+    private static final Set<String> ranTests = ConcurrentHashMap.newKeySet();
+    // Page classes created by each test during this run
+    private static final Map<String, Set<String>> runtimePages = new ConcurrentHashMap<>();
+
+    private DependencyMap staticMap;
+
+    /**
+     * Records a page object created by the running test, called from the BasePage constructor
+     */
+    public static void recordPage(Class<?> pageClass) {
+        String testId = currentTest.get();
+        if (testId != null) {
+            runtimePages.computeIfAbsent(testId, k -> ConcurrentHashMap.newKeySet()).add(pageClass.getName());
+        }
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!"changed".equalsIgnoreCase(getMode())) {
+            return methods;
+        }
+
+        Set<String> impacted = findImpactedTests(methods);
+        if (impacted == null) {
+            return methods;
+        }
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            if (impacted.contains(testId(method.getMethod().getRealClass(), method.getMethod().getMethodName()))) {
+                selected.add(method);
+            }
+        }
+        System.out.println("Test selection: running " + selected.size() + " of " + methods.size() + " tests");
+        return selected;
+    }
+
+    /**
+     * Test ids affected by the current diff, or null when the full suite has to run
+     */
+    private Set<String> findImpactedTests(List<IMethodInstance> methods) {
+        try {
+            Map<String, Set<String>> stored = DependencyMap.load(MAP_FILE);
+            if (stored == null) {
+                return fullSuite("no dependency map yet in " + MAP_FILE);
+            }
+            DependencyMap current = getStaticMap();
+            for (IMethodInstance method : methods) {
+                String testId = testId(method.getMethod().getRealClass(), method.getMethod().getMethodName());
+                if (!stored.containsKey(testId)) {
+                    return fullSuite("dependency map is stale, " + testId + " has never been recorded");
+                }
+            }
+
+            String base = System.getProperty("selection.base", ConfigReader.getProperty("selection.base", "HEAD"));
+            List<String> changedFiles = git("diff", "--name-only", base);
+            changedFiles.addAll(git("ls-files", "--others", "--exclude-standard"));
+
+            Set<String> projectClasses = current.getProjectClasses();
+            Set<String> changedClasses = new HashSet<>();
+            for (String file : changedFiles) {
+                if (isIgnored(file)) {
+                    continue;
+                }
+                String className = toClassName(file);
+                if (className == null) {
+                    return fullSuite("non-Java change " + file);
+                }
+                if (!projectClasses.contains(className)) {
+                    return fullSuite("no dependency data for " + className);
+                }
+                changedClasses.add(className);
+            }
+
+            Set<String> impacted = new TreeSet<>();
+            for (IMethodInstance method : methods) {
+                String testId = testId(method.getMethod().getRealClass(), method.getMethod().getMethodName());
+                // Union of the old and new dependencies, so moving a call in either direction is caught
+                Set<String> dependencies = new HashSet<>(stored.get(testId));
+                dependencies.addAll(current.getStaticDependencies(testId));
+                for (String changed : changedClasses) {
+                    if (dependencies.contains(changed)) {
+                        impacted.add(testId);
+                        break;
+                    }
+                }
+            }
+            System.out.println("Test selection: changed since " + base + ": " + changedClasses);
+            return impacted;
+        } catch (IOException | RuntimeException e) {
+            return fullSuite("selection failed: " + e.getMessage());
+        }
+    }
+
+    private static Set<String> fullSuite(String reason) {
+        System.out.println("Test selection: running full suite, " + reason);
+        return null;
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        String testId = testId(result.getTestClass().getRealClass(), result.getMethod().getMethodName());
+        currentTest.set(testId);
+        ranTests.add(testId);
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        currentTest.remove();
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        currentTest.remove();
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        currentTest.remove();
+    }
+
+    /**
+     * Refreshes the stored map: every test that ran gets its current static dependencies
+     * plus everything reachable from the pages it created; other entries are kept. Pages built
+     * in setup methods, before any test is current, are covered by the static walk from them.
+     */
+    @Override
+    public void onFinish(ISuite suite) {
+        if (ranTests.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Set<String>> stored = DependencyMap.load(MAP_FILE);
+            Map<String, Set<String>> updated = stored != null ? stored : new TreeMap<>();
+            DependencyMap current = getStaticMap();
+            for (String testId : ranTests) {
+                Set<String> dependencies = new TreeSet<>(current.getStaticDependencies(testId));
+                for (String page : runtimePages.getOrDefault(testId, Collections.emptySet())) {
+                    dependencies.addAll(current.getClassDependencies(page));
+                }
+                updated.put(testId, dependencies);
+            }
+            DependencyMap.save(MAP_FILE, updated, "Test dependencies, refreshed by TestSelector after each run");
+            ranTests.clear();
+            runtimePages.clear();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to update test dependency map: " + e.getMessage());
+        }
+    }
+
+    private DependencyMap getStaticMap() throws IOException {
+        if (staticMap == null) {
+            staticMap = DependencyMap.analyse(CLASS_DIRS);
+        }
+        return staticMap;
+    }
+
+    private static String getMode() {
+        return System.getProperty("selection.mode", ConfigReader.getProperty("selection.mode", "all"));
+    }
+
+    private static String testId(Class<?> testClass, String methodName) {
+        return testClass.getName() + "#" + methodName;
+    }
+
+    private static boolean isIgnored(String file) {
+        return file.endsWith(".md") || file.equals(".gitignore") || file.startsWith(".idea/")
+                || file.startsWith(".test-selection/");
+    }
+
+    private static String toClassName(String file) {
+        for (String root : SOURCE_ROOTS) {
+            if (file.startsWith(root) && file.endsWith(".java")) {
+                return file.substring(root.length(), file.length() - ".java".length()).replace('/', '.');
+            }
+        }
+        return null;
+    }
+
+    private static List<String> git(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        }
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException("git " + String.join(" ", args) + " failed: " + String.join(" ", lines));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for git", e);
+        }
+        return lines;
+    }
+}
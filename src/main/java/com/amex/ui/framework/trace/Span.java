@@ -0,0 +1,70 @@
+package com.amex.ui.framework.trace;
+
+import com.amex.ui.framework.pageobjects.LazyElement;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timed, named section of a test, closed with try-with-resources. Spans opened while
+ * another is open on the same thread nest inside it in the trace viewer.
+ */
+public final class Span implements AutoCloseable {
+    // Returned whenever tracing is off, so instrumented code allocates nothing
+    static final Span NOOP = new Span(null, null);
+
+    private final Tracer.Trace trace;
+    final String name;
+    final long startNanos;
+    long endNanos;
+    // Values are turned into strings when added: the trace is written after the session is gone
+    final Map<String, String> attributes;
+
+    Span(Tracer.Trace trace, String name) {
+        this.trace = trace;
+        this.name = name;
+        this.startNanos = trace != null ? System.nanoTime() : 0;
+        this.attributes = trace != null ? new LinkedHashMap<>() : null;
+    }
+
+    /**
+     * Adds an attribute shown with the span, e.g. page class, locator or wait condition
+     */
+    public Span attr(String key, Object value) {
+        if (trace != null) {
+            attributes.put(key, describe(value));
+        }
+        return this;
+    }
+
+    /**
+     * Text of an attribute value. Lazy and remote elements describe themselves without a browser
+     * call, while a PageFactory proxy would look its element up again, so it is not asked.
+     */
+    private static String describe(Object value) {
+        if (value instanceof Class) {
+            return ((Class<?>) value).getSimpleName();
+        }
+        if (value instanceof WebElement && !(value instanceof LazyElement || value instanceof RemoteWebElement)) {
+            return "PageFactory element";
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Marks the span as failed with the given error
+     */
+    public Span error(Throwable error) {
+        return attr("error", error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+
+    @Override
+    public void close() {
+        if (trace != null && endNanos == 0) {
+            endNanos = System.nanoTime();
+            trace.add(this);
+        }
+    }
+}
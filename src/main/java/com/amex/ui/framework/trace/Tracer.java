@@ -0,0 +1,130 @@
+package com.amex.ui.framework.trace;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records nested spans of page object actions, waits and session handling per test and
+ * writes them as Chrome trace-event JSON to target/traces/&lt;test&gt;.json, which opens in
+ * chrome://tracing or ui.perfetto.dev.
+ *
+ * trace.enabled is read once; when it is off every {@link #start} returns a shared no-op
+ * span, so instrumentation costs one static check per call.
+ */
+public class Tracer {
+    private static final String TRACE_DIR = "target/traces/";
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigReader.getProperty("trace.enabled", "false"));
+
+    private static final ThreadLocal<Trace> current = new ThreadLocal<>();
+
+    private Tracer() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Spans recorded for one test on one thread
+     */
+    static class Trace {
+        final String testName;
+        final long originNanos = System.nanoTime();
+        final List<Span> spans = new ArrayList<>();
+
+        Trace(String testName) {
+            this.testName = testName;
+        }
+
+        void add(Span span) {
+            spans.add(span);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Opens a span on the current thread; close it with try-with-resources
+     * @param name Span name, e.g. "click" or "waitForPageLoad"
+     */
+    public static Span start(String name) {
+        if (!ENABLED) {
+            return Span.NOOP;
+        }
+        Trace trace = current.get();
+        return trace != null ? new Span(trace, name) : Span.NOOP;
+    }
+
+    /**
+     * Starts collecting spans for a test on the current thread
+     */
+    public static void beginTest(String testName) {
+        if (ENABLED) {
+            current.set(new Trace(testName));
+        }
+    }
+
+    /**
+     * Writes the spans of the current thread's test
+     * @return Path of the trace file, or null if tracing is off or writing failed
+     */
+    public static String endTest() {
+        Trace trace = current.get();
+        if (trace == null) {
+            return null;
+        }
+        current.remove();
+
+        Thread thread = Thread.currentThread();
+        List<Map<String, Object>> events = new ArrayList<>();
+        Map<String, Object> threadName = new LinkedHashMap<>();
+        threadName.put("name", "thread_name");
+        threadName.put("ph", "M");
+        threadName.put("pid", 1);
+        threadName.put("tid", thread.getId());
+        threadName.put("args", singleton("name", thread.getName() + " - " + trace.testName));
+        events.add(threadName);
+
+        for (Span span : trace.spans) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("name", span.name);
+            event.put("cat", "test");
+            event.put("ph", "X");
+            event.put("ts", (span.startNanos - trace.originNanos) / 1000.0);
+            event.put("dur", (span.endNanos - span.startNanos) / 1000.0);
+            event.put("pid", 1);
+            event.put("tid", thread.getId());
+            event.put("args", span.attributes);
+            events.add(event);
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceEvents", events);
+        json.put("displayTimeUnit", "ms");
+        try {
+            Path dir = Paths.get(TRACE_DIR);
+            Files.createDirectories(dir);
+            Path file = dir.resolve(trace.testName.replaceAll("[^A-Za-z0-9_.-]", "_") + ".json");
+            Files.write(file, new Json().toJson(json).getBytes(StandardCharsets.UTF_8));
+            return file.toString();
+        } catch (IOException e) {
+            System.err.println("Failed to write trace for " + trace.testName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, Object> singleton(String key, Object value) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(key, value);
+        return map;
+    }
+}
@@ -1,10 +1,12 @@
 package pages;
+import com.amex.ui.framework.pageobjects.ReadyWhenVisible;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
 public class AllCardsPage extends BasePage{
+    @ReadyWhenVisible
     @FindBy(xpath = "//a[@href='carte-de-paiement/carte-platinum-americanexpress/?linknav=fr-amex-cardshop-allcards-learn-CartePlatinumAmericanExpress-fc']")
-    private WebElement enSavoirPlusGoldCard;
+    WebElement enSavoirPlusGoldCard;
 
     public AllCardsPage() {
         super();
@@ -12,14 +14,11 @@ public class AllCardsPage extends BasePage{
     }
 
     public GoldCardPage clickOnEnSavoirPlusGoldCard() {
-        waitUtils.waitForElementToBeClickable(enSavoirPlusGoldCard);
-        scrollToElement(enSavoirPlusGoldCard);
         click(enSavoirPlusGoldCard);
         return new GoldCardPage();
     }
 
     public boolean isPageLoaded() {
-        return driver.getCurrentUrl().contains("En savoir plus") &&
-                isElementDisplayed(enSavoirPlusGoldCard);
+        return isUrlContainingAndDisplayed("En savoir plus", enSavoirPlusGoldCard);
     }
 }
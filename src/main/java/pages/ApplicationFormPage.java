@@ -1,33 +1,85 @@
 package pages;
+import com.amex.ui.framework.load.ScenarioRecorder;
+import com.amex.ui.framework.pageobjects.ReadyWhenVisible;
+import utils.ExecutionStats;
 import utils.TestData;
+import utils.ValidationMatrix;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
 import java.util.List;
+import java.util.Map;
 
 public class ApplicationFormPage extends BasePage{
     // Form fields - These XPaths need to be updated based on actual form structure
+    @ReadyWhenVisible
     @FindBy(xpath = "//input[@id='fieldControl-input-firstName']")
-    private WebElement firstNameField;
+    WebElement firstNameField;
 
     @FindBy(xpath = "//input[@id='fieldControl-input-lastName']")
-    private WebElement lastNameField;
+    WebElement lastNameField;
 
     @FindBy(xpath = "//input[@id='fieldControl-input-email']")
-    private WebElement emailField;
+    WebElement emailField;
 
     @FindBy(xpath = "//input[@id='fieldControl-input-mobilePhoneNumber']")
-    private WebElement phoneField;
+    WebElement phoneField;
 
     @FindBy(xpath = "//input[@id='fieldControl-input-dateOfBirth']")
-    private WebElement date;
+    WebElement date;
 
+    @ReadyWhenVisible
     @FindBy(xpath = "//button[@type='submit']")
-    private WebElement submitButton;
+    WebElement submitButton;
+
+    // Sets values through the native setter and fires input/change/blur, so framework-controlled inputs see the change
+    private static final String SET_VALUES_SCRIPT =
+            "var setter = Object.getOwnPropertyDescriptor(HTMLInputElement.prototype, 'value').set;" +
+                    "for (var i = 0; i < arguments.length; i += 2) {" +
+                    " var field = arguments[i];" +
+                    " setter.call(field, arguments[i + 1]);" +
+                    " ['input', 'change', 'blur'].forEach(function(type) { field.dispatchEvent(new Event(type, {bubbles: true})); });" +
+                    "}";
+
+    private static final String VALIDATION_ERRORS_XPATH = "//div[contains(@class, 'error') or contains(@class, 'validation')]";
+
+    // Empties the fields with input events only, so nothing is validated, then resets the form:
+    // form libraries handle the reset event by clearing values, touched and error state
+    private static final String RESET_SCRIPT =
+            "var setter = Object.getOwnPropertyDescriptor(HTMLInputElement.prototype, 'value').set;" +
+                    "for (var i = 0; i < arguments.length; i++) {" +
+                    " setter.call(arguments[i], '');" +
+                    " arguments[i].dispatchEvent(new Event('input', {bubbles: true})); }" +
+                    "var form = arguments[0].form || arguments[0].closest('form');" +
+                    "if (form) form.reset();";
+
+    // Counts the rendered validation errors in one call; error nodes may stay in the DOM hidden
+    private static final String VISIBLE_ERRORS_SCRIPT =
+            "var nodes = document.evaluate(arguments[0], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+                    "var visible = 0;" +
+                    "for (var i = 0; i < nodes.snapshotLength; i++) {" +
+                    " var node = nodes.snapshotItem(i);" +
+                    " if (node.getClientRects().length && getComputedStyle(node).visibility !== 'hidden') visible++; }" +
+                    "return visible;";
+
+    // Names of the fields flagged invalid: aria-invalid on the input, or a visible error inside the
+    // field's own wrapper, the outermost ancestor that holds no other input
+    private static final String INVALID_FIELDS_SCRIPT =
+            "var invalid = [];" +
+                    "for (var i = 0; i < arguments.length; i += 2) {" +
+                    " var input = arguments[i + 1], wrapper = input;" +
+                    " while (wrapper.parentElement && wrapper.parentElement.querySelectorAll('input, select, textarea').length <= 1) wrapper = wrapper.parentElement;" +
+                    " var shown = Array.prototype.some.call(wrapper.querySelectorAll(\"div[class*='error'], div[class*='validation']\"), function(node) {" +
+                    "  return node.getClientRects().length && getComputedStyle(node).visibility !== 'hidden'; });" +
+                    " if (shown || input.getAttribute('aria-invalid') === 'true') invalid.push(arguments[i]); }" +
+                    "return invalid;";
+
+    private static final long RESET_TIMEOUT_MS = 2000;
 
     // Validation error elements
-    @FindBy(xpath = "//div[contains(@class, 'error') or contains(@class, 'validation')]")
-    private List<WebElement> validationErrors;
+    @FindBy(xpath = VALIDATION_ERRORS_XPATH)
+    List<WebElement> validationErrors;
 
     public ApplicationFormPage() {
         super();
@@ -36,29 +88,86 @@ public class ApplicationFormPage extends BasePage{
 
 
     public ApplicationFormPage fillForm() {
+        TestData testData = new TestData();
+        return fillForm(testData.getRandomFirstName(), testData.getRandomLastName(),
+                testData.getRandomDateOfBirth(), testData.getRandomEmail(), testData.getRandomPhone());
+    }
+
+    public ApplicationFormPage fillForm(String firstName, String lastName, String dateOfBirth, String email, String phone) {
         // Simply use sendKeys directly for each field
-        firstNameField.sendKeys("Jean");
-        lastNameField.sendKeys("Dupont");
-        date.sendKeys("29/02/1996");
-        emailField.sendKeys("jean.dupont@example.com");
-        phoneField.sendKeys("0612345678");
+        firstNameField.sendKeys(firstName);
+        lastNameField.sendKeys(lastName);
+        date.sendKeys(dateOfBirth);
+        emailField.sendKeys(email);
+        phoneField.sendKeys(phone);
+        return this;
+    }
 
 
+    /**
+     * Resets the form in place, values and validation state, ready for the next validation case.
+     * Reloads the page if errors of the previous case are still shown after the reset.
+     */
+    public ApplicationFormPage resetForm() {
+        ((JavascriptExecutor) driver).executeScript(RESET_SCRIPT,
+                firstNameField, lastNameField, date, emailField, phoneField);
+        long deadline = System.currentTimeMillis() + RESET_TIMEOUT_MS;
+        while (getVisibleValidationErrorCount() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                System.out.println("Form reset left validation errors shown, reloading " + driver.getCurrentUrl());
+                driver.navigate().refresh();
+                waitForPageLoad();
+                break;
+            }
+            waitUtils.sleep(100);
+        }
+        return this;
+    }
 
+    /**
+     * Validation errors currently rendered, counted without waiting for any to appear
+     */
+    public int getVisibleValidationErrorCount() {
+        return ((Number) ((JavascriptExecutor) driver).executeScript(VISIBLE_ERRORS_SCRIPT, VALIDATION_ERRORS_XPATH)).intValue();
+    }
 
+    /**
+     * Applies a validation matrix case to the form in a single script call
+     * @param values Field values keyed by the ValidationMatrix field names
+     */
+    public ApplicationFormPage applyInputs(Map<String, String> values) {
+        ((JavascriptExecutor) driver).executeScript(SET_VALUES_SCRIPT,
+                firstNameField, values.getOrDefault(ValidationMatrix.FIRST_NAME, ""),
+                lastNameField, values.getOrDefault(ValidationMatrix.LAST_NAME, ""),
+                date, values.getOrDefault(ValidationMatrix.DATE_OF_BIRTH, ""),
+                emailField, values.getOrDefault(ValidationMatrix.EMAIL, ""),
+                phoneField, values.getOrDefault(ValidationMatrix.PHONE, ""));
         return this;
     }
 
+    /**
+     * ValidationMatrix names of the fields currently flagged invalid, read in one script call
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getFieldsWithValidationErrors() {
+        return (List<String>) ((JavascriptExecutor) driver).executeScript(INVALID_FIELDS_SCRIPT,
+                ValidationMatrix.FIRST_NAME, firstNameField,
+                ValidationMatrix.LAST_NAME, lastNameField,
+                ValidationMatrix.DATE_OF_BIRTH, date,
+                ValidationMatrix.EMAIL, emailField,
+                ValidationMatrix.PHONE, phoneField);
+    }
 
     public ApplicationFormPage clickSubmitButton() {
-        scrollToElement(submitButton);
+        if (ScenarioRecorder.isEnabled()) {
+            ScenarioRecorder.recordFormSubmit(driver, submitButton, "ApplicationFormSubmit");
+        }
         click(submitButton);
         return this;
     }
 
     public boolean isPageLoaded() {
-        return driver.getCurrentUrl().contains("apply") &&
-                isElementDisplayed(firstNameField);
+        return isUrlContainingAndDisplayed("apply", firstNameField);
     }
 
     public boolean hasValidationErrors() {
@@ -75,8 +184,9 @@ public class ApplicationFormPage extends BasePage{
     }
 
     public List<String> getValidationErrorMessages() {
-        return validationErrors.stream()
-                .map(WebElement::getText)
-                .collect(java.util.stream.Collectors.toList());
+        List<String> messages = readPage(validationErrors).getTexts();
+        // Replaces one getText per error
+        ExecutionStats.recordCommandsReplaced(messages.size());
+        return messages;
     }
 }
@@ -1,25 +1,43 @@
 package pages;
+import com.amex.ui.framework.concurrency.ConcurrencyController;
 import com.amex.ui.framework.config.ConfigReader;
 import com.amex.ui.framework.config.DriverManager;
 import com.amex.ui.framework.*;
+import com.amex.ui.framework.load.ScenarioRecorder;
+import com.amex.ui.framework.pageobjects.PageElements;
+import com.amex.ui.framework.pageobjects.ReadyWhenVisible;
+import com.amex.ui.framework.selection.TestSelector;
+import com.amex.ui.framework.trace.Span;
+import com.amex.ui.framework.trace.Tracer;
 import org.openqa.selenium.By;
+import org.openqa.selenium.ElementClickInterceptedException;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.interactions.Actions;
-import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
-import org.openqa.selenium.support.pagefactory.AjaxElementLocatorFactory;
 import org.testng.Assert;
+import utils.CommandStats;
+import utils.ExecutionStats;
+import utils.PagePerformance;
+import utils.PageReadiness;
 import utils.ScreenshotUtils;
+import utils.StreamingReportWriter;
+import utils.VisualCheck;
 import utils.WaitUtils;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -50,38 +68,65 @@ public abstract class BasePage {
             "//div[contains(@class, 'cookie')]//button[contains(@class, 'accept')]"
     };
 
+    // Reads URL, title and the state of every element in one script execution
+    private static final String BULK_READ_SCRIPT =
+            "var els = arguments[0], attrs = arguments[1];" +
+                    "function visible(e) {" +
+                    " if (!e.isConnected) return false;" +
+                    " var s = getComputedStyle(e);" +
+                    " if (s.display === 'none' || s.visibility === 'hidden' || parseFloat(s.opacity) === 0) return false;" +
+                    " var r = e.getBoundingClientRect(); return r.width > 0 && r.height > 0; }" +
+                    "return {url: location.href, title: document.title, elements: els.map(function(e) {" +
+                    " var r = e.getBoundingClientRect(), v = visible(e), a = {};" +
+                    " attrs.forEach(function(n) { a[n] = e.getAttribute(n); });" +
+                    " return {text: v ? (e.innerText || '').trim() : '', visible: v," +
+                    " x: r.x, y: r.y, width: r.width, height: r.height, attributes: a}; })};";
+
     /**
      * Constructor initializes driver, waits and page factory
      */
     public BasePage() {
-        this.driver = DriverManager.getDriver();
-        int timeout = Integer.parseInt(ConfigReader.getProperty("explicitWait", "30"));
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(timeout));
-        this.waitUtils = new WaitUtils(driver);
-        this.actions = new Actions(driver);
-
-        // Use AjaxElementLocatorFactory for better handling of dynamic elements
-        PageFactory.initElements(new AjaxElementLocatorFactory(driver, timeout), this);
-
-        // Log page initialization
-
+        try (Span span = Tracer.start("page init")) {
+            span.attr("page", getClass());
+            CommandStats.enterPage(getClass().getSimpleName());
+            this.driver = DriverManager.getDriver();
+            DriverManager.setCurrentPage(getClass().getSimpleName());
+            int timeout = Integer.parseInt(ConfigReader.getProperty("explicitWait", "30"));
+            this.wait = new WebDriverWait(driver, Duration.ofSeconds(timeout));
+            this.waitUtils = new WaitUtils(driver);
+            this.actions = new Actions(driver);
+
+            // Bind @FindBy fields with the compile-time generated binder, or PageFactory if there is none
+            PageElements.initElements(this, driver, timeout);
+
+            // Runtime page dependency for change-based test selection
+            TestSelector.recordPage(getClass());
+        }
     }
 
     /**
-     * Clicks on an element with retry logic
+     * Clicks on an element as soon as it is actionable. There is no JavaScript fallback, so an
+     * element covered by an overlay such as a cookie banner fails with the covering element named.
      * @param element WebElement to click
      * @param elementName Name for logging
      */
     protected void click(WebElement element, String elementName) {
-        waitUtils.waitForElementToBeClickable(element);
-        try {
-
-            element.click();
-        } catch (Exception e) {
-            // Retry with JS click if standard click fails
-
-            clickWithJS(element, elementName);
+        long start = System.currentTimeMillis();
+        try (Span span = Tracer.start("click").attr("page", getClass()).attr("element", elementName).attr("locator", element)) {
+            PageReadiness.resolvePending(driver);
+            waitUtils.waitForActionable(element);
+            try {
+                element.click();
+            } catch (ElementClickInterceptedException e) {
+                // Covered between the check and the click, e.g. by a banner sliding in: wait for it to go once
+                span.error(e);
+                waitUtils.waitForActionable(element);
+                element.click();
+            }
         }
+        long elapsed = System.currentTimeMillis() - start;
+        StreamingReportWriter.recordStep(getClass().getSimpleName() + " click " + elementName, elapsed);
+        ConcurrencyController.recordLatency(getClass().getSimpleName() + " click " + elementName, elapsed);
     }
 
     /**
@@ -97,10 +142,13 @@ public abstract class BasePage {
      * @param elementName Name for logging
      */
     protected void clickWithJS(WebElement element, String elementName) {
-        waitUtils.waitForElementVisibility(element);
+        try (Span span = Tracer.start("clickWithJS")) {
+            span.attr("element", elementName).attr("locator", element);
+            waitUtils.waitForElementVisibility(element);
 
-        JavascriptExecutor executor = (JavascriptExecutor) driver;
-        executor.executeScript("arguments[0].click();", element);
+            JavascriptExecutor executor = (JavascriptExecutor) driver;
+            executor.executeScript("arguments[0].click();", element);
+        }
     }
 
 
@@ -121,11 +169,75 @@ public abstract class BasePage {
     }
 
     /**
-     * Waits for page to load completely
+     * Waits for page to load completely, then captures its performance metrics. With an eager or
+     * none page-load strategy, a page that declares ready elements only waits for those.
      */
     protected void waitForPageLoad() {
+        long start = System.currentTimeMillis();
+
+        try (Span span = Tracer.start("page load")) {
+            span.attr("page", getClass());
+            List<WebElement> readyElements = PageReadiness.isEagerLoading() ? getReadyElements() : Collections.emptyList();
+            if (readyElements.isEmpty()) {
+                waitUtils.waitForPageLoad(getQuietWindowMs(), getIgnoredRequests());
+            } else {
+                span.attr("readyElements", readyElements.size());
+                PageReadiness.recordUsable(getClass().getSimpleName(), waitUtils.waitForReadyElements(readyElements));
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            StreamingReportWriter.recordStep(getClass().getSimpleName() + " load", elapsed);
+            ConcurrencyController.recordLatency(getClass().getSimpleName() + " load", elapsed);
+            if (PagePerformance.isEnabled()) {
+                try (Span capture = Tracer.start("performance capture")) {
+                    capture.attr("page", getClass());
+                    PagePerformance.capture(driver, this.getClass().getSimpleName());
+                }
+            }
+            if (ScenarioRecorder.isEnabled()) {
+                ScenarioRecorder.recordPage(driver, this.getClass().getSimpleName());
+            }
+            if (VisualCheck.isEnabled()) {
+                try (Span visual = Tracer.start("visual check")) {
+                    visual.attr("checkpoint", "loaded");
+                    VisualCheck.check(driver, this.getClass().getSimpleName(), "loaded", Collections.emptyList());
+                }
+            }
+        }
+    }
 
-        waitUtils.waitForPageLoad();
+    /**
+     * Compares the viewport with the visual baseline of this page and checkpoint
+     * @param checkpoint Checkpoint name, unique within the page object
+     * @param masks Elements with dynamic content left out of the comparison
+     */
+    protected void verifyVisual(String checkpoint, WebElement... masks) {
+        if (VisualCheck.isEnabled()) {
+            VisualCheck.check(driver, this.getClass().getSimpleName(), checkpoint, Arrays.asList(masks));
+        }
+    }
+
+    /**
+     * Elements that make the page usable once visible, by default its {@link ReadyWhenVisible} fields.
+     * Override to compute them, e.g. for content that depends on the test data.
+     */
+    protected List<WebElement> getReadyElements() {
+        return PageReadiness.getReadyElements(this);
+    }
+
+    /**
+     * How long the network must stay quiet before the page counts as loaded.
+     * Override for pages that need a longer or shorter settle time.
+     */
+    protected long getQuietWindowMs() {
+        return WaitUtils.getConfiguredQuietWindowMs();
+    }
+
+    /**
+     * URL regexes of requests ignored by the readiness check, by default readiness.ignoredRequests.
+     * Override to add long-polling or streaming endpoints of a page.
+     */
+    protected List<String> getIgnoredRequests() {
+        return WaitUtils.getConfiguredIgnoredRequests();
     }
 
     /**
@@ -134,13 +246,15 @@ public abstract class BasePage {
      * @param elementName Name for logging
      */
     protected void scrollToElement(WebElement element, String elementName) {
-
-        JavascriptExecutor executor = (JavascriptExecutor) driver;
-        executor.executeScript("arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", element);
-        try {
-            Thread.sleep(500); // Small wait after scroll
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        try (Span span = Tracer.start("scroll")) {
+            span.attr("element", elementName).attr("locator", element);
+            JavascriptExecutor executor = (JavascriptExecutor) driver;
+            executor.executeScript("arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", element);
+            try {
+                Thread.sleep(500); // Small wait after scroll
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
@@ -188,9 +302,12 @@ public abstract class BasePage {
      * @param elementName Name for logging
      */
     protected void hoverOverElement(WebElement element, String elementName) {
-        waitUtils.waitForElementVisibility(element);
+        try (Span span = Tracer.start("hover")) {
+            span.attr("element", elementName).attr("locator", element);
+            waitUtils.waitForElementVisibility(element);
 
-        actions.moveToElement(element).perform();
+            actions.moveToElement(element).perform();
+        }
     }
 
     /**
@@ -243,6 +360,70 @@ public abstract class BasePage {
         }
     }
 
+    /**
+     * Reads URL, title and text, visibility, bounding box and attributes of the given
+     * elements in a single WebDriver command
+     * @param elements Elements to read
+     * @param attributes Attribute names to read from each element
+     * @return Snapshot of the page and elements, in the order given
+     */
+    @SuppressWarnings("unchecked")
+    protected PageSnapshot readPage(List<WebElement> elements, String... attributes) {
+        Map<String, Object> raw;
+        try (Span span = Tracer.start("readPage").attr("page", getClass())) {
+            raw = (Map<String, Object>) ((JavascriptExecutor) driver)
+                    .executeScript(BULK_READ_SCRIPT, elements, Arrays.asList(attributes));
+            // Counted from the result: sizing a lazy element list first would be a findElements of its own
+            span.attr("elements", ((List<?>) raw.get("elements")).size());
+        }
+
+        List<ElementSnapshot> snapshots = new ArrayList<>();
+        for (Map<String, Object> element : (List<Map<String, Object>>) raw.get("elements")) {
+            Rectangle rect = new Rectangle(toInt(element.get("x")), toInt(element.get("y")),
+                    toInt(element.get("height")), toInt(element.get("width")));
+            Map<String, String> attributeValues = new LinkedHashMap<>((Map<String, String>) element.get("attributes"));
+            snapshots.add(new ElementSnapshot((String) element.get("text"),
+                    Boolean.TRUE.equals(element.get("visible")), rect, attributeValues));
+        }
+
+        ExecutionStats.recordBulkRead();
+        return new PageSnapshot((String) raw.get("url"), (String) raw.get("title"), snapshots);
+    }
+
+    /**
+     * Overloaded readPage method for individual elements
+     */
+    protected PageSnapshot readPage(WebElement... elements) {
+        return readPage(Arrays.asList(elements));
+    }
+
+    /**
+     * Finds all elements matching a locator and reads them with {@link #readPage(List, String...)}
+     */
+    protected PageSnapshot readPage(By locator, String... attributes) {
+        return readPage(driver.findElements(locator), attributes);
+    }
+
+    /**
+     * Checks in one round-trip that the URL contains a fragment and the element is displayed
+     * @param urlPart Expected part of the current URL
+     * @param element Element that must be visible
+     */
+    protected boolean isUrlContainingAndDisplayed(String urlPart, WebElement element) {
+        try {
+            PageSnapshot snapshot = readPage(element);
+            // Replaces getCurrentUrl and isDisplayed
+            ExecutionStats.recordCommandsReplaced(2);
+            return snapshot.getUrl().contains(urlPart) && snapshot.getElement(0).isVisible();
+        } catch (NoSuchElementException | StaleElementReferenceException e) {
+            return false;
+        }
+    }
+
+    private static int toInt(Object number) {
+        return number instanceof Number ? (int) Math.round(((Number) number).doubleValue()) : 0;
+    }
+
     /**
      * Gets page title
      * @return Page title
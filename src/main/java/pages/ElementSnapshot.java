@@ -0,0 +1,46 @@
+package pages;
+
+import org.openqa.selenium.Rectangle;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * State of one element as read by {@link BasePage#readPage}: text, visibility,
+ * bounding box and the requested attributes, all captured in the same script call.
+ */
+public class ElementSnapshot {
+    private final String text;
+    private final boolean visible;
+    private final Rectangle rect;
+    private final Map<String, String> attributes;
+
+    ElementSnapshot(String text, boolean visible, Rectangle rect, Map<String, String> attributes) {
+        this.text = text;
+        this.visible = visible;
+        this.rect = rect;
+        this.attributes = Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * Visible text, trimmed; empty for hidden elements, like WebElement.getText
+     */
+    public String getText() {
+        return text;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public Rectangle getRect() {
+        return rect;
+    }
+
+    /**
+     * Value of a requested attribute, or null if the element does not have it
+     */
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+}
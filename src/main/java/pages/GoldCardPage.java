@@ -1,10 +1,12 @@
 package pages;
+import com.amex.ui.framework.pageobjects.ReadyWhenVisible;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
 public class GoldCardPage extends BasePage{
+    @ReadyWhenVisible
     @FindBy(xpath = "//div[@class='sc_paddingTop_20 sc_paddingBottom_20']//a[@class='sc_at_button_btn sc_at_button_isMinMax sc_textBody_3 sc_horizontallyFluid'][normalize-space()='Demandez votre Carte']")
-    private WebElement demandezVotreCarteButton;
+    WebElement demandezVotreCarteButton;
 
     public GoldCardPage() {
         super();
@@ -12,14 +14,11 @@ public class GoldCardPage extends BasePage{
     }
 
     public ApplicationFormPage clickOnDemandezVotreCarte() {
-        waitUtils.waitForElementToBeClickable(demandezVotreCarteButton);
-        scrollToElement(demandezVotreCarteButton);
         click(demandezVotreCarteButton);
         return new ApplicationFormPage();
     }
 
     public boolean isPageLoaded() {
-        return driver.getCurrentUrl().contains("Demandez votre Carte") &&
-                isElementDisplayed(demandezVotreCarteButton);
+        return isUrlContainingAndDisplayed("Demandez votre Carte", demandezVotreCarteButton);
     }
 }
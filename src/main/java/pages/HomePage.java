@@ -1,5 +1,6 @@
 package pages;
 
+import com.amex.ui.framework.pageobjects.ReadyWhenVisible;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
@@ -7,8 +8,9 @@ import org.openqa.selenium.support.FindBy;
 public class HomePage extends BasePage{
     private static final String PAGE_URL = "https://www.americanexpress.com/fr-fr/?inav=NavLogo";
 
+    @ReadyWhenVisible
     @FindBy(xpath = "//a[contains(text(), 'Cartes Particuliers') or contains(@aria-label, 'Cartes Particuliers')]")
-    private WebElement cartesAmexLink;
+    WebElement cartesAmexLink;
 
     public HomePage() {
         super();
@@ -22,13 +24,11 @@ public class HomePage extends BasePage{
     }
 
     public AllCardsPage clickOnCartesAmexLink() {
-        waitUtils.waitForElementVisibility(cartesAmexLink);
         click(cartesAmexLink);
         return new AllCardsPage();
     }
 
     public boolean isPageLoaded() {
-        return driver.getCurrentUrl().contains("Cartes Particuliers") &&
-                isElementDisplayed(cartesAmexLink);
+        return isUrlContainingAndDisplayed("Cartes Particuliers", cartesAmexLink);
     }
 }
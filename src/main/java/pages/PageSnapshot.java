@@ -0,0 +1,47 @@
+package pages;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Current URL, title and element states read from the page in a single round-trip
+ */
+public class PageSnapshot {
+    private final String url;
+    private final String title;
+    private final List<ElementSnapshot> elements;
+
+    PageSnapshot(String url, String title, List<ElementSnapshot> elements) {
+        this.url = url;
+        this.title = title;
+        this.elements = Collections.unmodifiableList(elements);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public List<ElementSnapshot> getElements() {
+        return elements;
+    }
+
+    public ElementSnapshot getElement(int index) {
+        return elements.get(index);
+    }
+
+    /**
+     * Visible texts of all elements, in order
+     */
+    public List<String> getTexts() {
+        return elements.stream().map(ElementSnapshot::getText).collect(Collectors.toList());
+    }
+
+    public boolean allVisible() {
+        return !elements.isEmpty() && elements.stream().allMatch(ElementSnapshot::isVisible);
+    }
+}
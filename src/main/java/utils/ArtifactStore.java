@@ -0,0 +1,243 @@
+package utils;
+
+import com.amex.ui.framework.config.ConfigReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed store for failure artifacts (DOM snapshots, stack traces, screenshots).
+ * Each distinct content is stored once under blobs/&lt;aa&gt;/&lt;sha256&gt;, gzip compressed unless
+ * it is already compressed (PNG, AVI), so retries and parallel failures on the same page cost
+ * no extra disk. index.tsv maps every test and step to the blob it produced:
+ *
+ *   time, test, step, kind, sha256, size, storedSize, path, page
+ *
+ * where page is the page object a DOM snapshot was taken on, empty for other kinds.
+ *
+ * When the blobs exceed artifacts.maxMB, the least recently stored ones are evicted;
+ * index lines of evicted blobs are kept and simply point at a missing file.
+ */
+public class ArtifactStore {
+    private static final Path ROOT = Paths.get("target", "artifacts");
+    private static final Path BLOBS = ROOT.resolve("blobs");
+    private static final Path INDEX = ROOT.resolve("index.tsv");
+
+    private static final AtomicLong storedBytes = new AtomicLong(-1);
+    private static final AtomicLong artifacts = new AtomicLong();
+    private static final AtomicLong duplicates = new AtomicLong();
+    private static final AtomicLong rawBytes = new AtomicLong();
+    private static final AtomicLong writtenBytes = new AtomicLong();
+
+    private ArtifactStore() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Stores a text artifact as UTF-8
+     * @return Path of the stored blob, or null if it could not be stored
+     */
+    public static String store(String test, String step, String kind, String content) {
+        return store(test, step, kind, content.getBytes(StandardCharsets.UTF_8), null, null);
+    }
+
+    /**
+     * Stores a DOM snapshot with the page object it was taken on, which the locator linter checks it against
+     * @param page Simple name of the page object class, or null if no page object was created
+     * @return Path of the stored blob, or null if it could not be stored
+     */
+    public static String storeDom(String test, String step, String page, String html) {
+        return store(test, step, "dom", html.getBytes(StandardCharsets.UTF_8), null, page);
+    }
+
+    /**
+     * Stores a PNG screenshot as is, as it is already compressed
+     * @return Path of the stored blob, or null if it could not be stored
+     */
+    public static String storeScreenshot(String test, String step, byte[] png) {
+        return store(test, step, "screenshot", png, ".png", null);
+    }
+
+    /**
+     * Stores an AVI screencast as is, as its frames are already compressed
+     * @return Path of the stored blob, or null if it could not be stored
+     */
+    public static String storeVideo(String test, String step, byte[] avi) {
+        return store(test, step, "screencast", avi, ".avi", null);
+    }
+
+    /**
+     * @param extension Extension of content stored as is, or null to gzip it
+     */
+    private static String store(String test, String step, String kind, byte[] content, String extension, String page) {
+        boolean compressed = extension != null;
+        try {
+            String hash = sha256(content);
+            Path blob = BLOBS.resolve(hash.substring(0, 2)).resolve(hash + (compressed ? extension : ".gz"));
+            artifacts.incrementAndGet();
+            rawBytes.addAndGet(content.length);
+
+            long storedSize;
+            if (Files.exists(blob)) {
+                duplicates.incrementAndGet();
+                // Refresh the eviction order of content that keeps coming back
+                Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+                storedSize = Files.size(blob);
+            } else {
+                byte[] data = compressed ? content : gzip(content);
+                Files.createDirectories(blob.getParent());
+                Path temp = Files.createTempFile(blob.getParent(), hash, ".tmp");
+                Files.write(temp, data);
+                try {
+                    Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+                    addStoredBytes(data.length);
+                    writtenBytes.addAndGet(data.length);
+                } catch (FileAlreadyExistsException e) {
+                    // Another thread stored the same content first
+                    Files.deleteIfExists(temp);
+                }
+                storedSize = data.length;
+            }
+
+            appendIndex(test, step, kind, hash, content.length, storedSize, blob, page);
+            return blob.toString();
+        } catch (IOException e) {
+            System.err.println("Failed to store " + kind + " artifact for " + test + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        // Fastest level: DOM and stack traces still shrink several times, at a fraction of the CPU
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    private static synchronized void appendIndex(String test, String step, String kind, String hash,
+                                                 long size, long storedSize, Path blob, String page) throws IOException {
+        String line = String.join("\t", Instant.now().toString(), clean(test), clean(step), kind, hash,
+                String.valueOf(size), String.valueOf(storedSize), blob.toString(), clean(page)) + "\n";
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(INDEX, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND), StandardCharsets.UTF_8)) {
+            writer.write(line);
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+
+    /**
+     * Adds newly stored bytes and evicts the oldest blobs once the cap is exceeded
+     */
+    private static void addStoredBytes(long bytes) throws IOException {
+        if (storedBytes.get() < 0) {
+            synchronized (ArtifactStore.class) {
+                if (storedBytes.get() < 0) {
+                    // First write of this JVM: count what earlier runs left behind
+                    storedBytes.set(listBlobs().stream().mapToLong(ArtifactStore::sizeOf).sum() - bytes);
+                }
+            }
+        }
+        long maxBytes = Long.parseLong(ConfigReader.getProperty("artifacts.maxMB", "500")) * 1024 * 1024;
+        if (storedBytes.addAndGet(bytes) > maxBytes) {
+            evict(maxBytes);
+        }
+    }
+
+    private static synchronized void evict(long maxBytes) throws IOException {
+        if (storedBytes.get() <= maxBytes) {
+            return;
+        }
+        List<Path> blobs = listBlobs();
+        blobs.sort(Comparator.comparingLong(ArtifactStore::lastModified));
+        // Evict down to 90% of the cap, so the next few failures don't trigger another scan
+        long target = maxBytes / 10 * 9;
+        int evicted = 0;
+        for (Path blob : blobs) {
+            if (storedBytes.get() <= target) {
+                break;
+            }
+            long size = sizeOf(blob);
+            if (Files.deleteIfExists(blob)) {
+                storedBytes.addAndGet(-size);
+                evicted++;
+            }
+        }
+        System.out.println("Artifact store over " + maxBytes / (1024 * 1024) + " MB, evicted " + evicted + " blobs");
+    }
+
+    private static List<Path> listBlobs() throws IOException {
+        List<Path> blobs = new ArrayList<>();
+        if (Files.isDirectory(BLOBS)) {
+            try (Stream<Path> files = Files.walk(BLOBS)) {
+                files.filter(p -> !p.toString().endsWith(".tmp") && Files.isRegularFile(p)).forEach(blobs::add);
+            }
+        }
+        return blobs;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Artifact counts and bytes saved by deduplication and compression, for the suite summary report
+     */
+    public static String getReportSection() {
+        return String.format("Artifacts: %d stored, %d duplicates, %.1f KB raw, %.1f KB written, index %s%n",
+                artifacts.get(), duplicates.get(), rawBytes.get() / 1024.0, writtenBytes.get() / 1024.0, INDEX);
+    }
+}
@@ -0,0 +1,107 @@
+package utils;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebDriver command counts per test, per page object and per command, fed by the command
+ * interceptor DriverManager wraps around each session. A read repeated with the same
+ * arguments and no mutating command in between (e.g. getCurrentUrl twice in isPageLoaded)
+ * is counted as a repeated read, so redundant round-trips stand out in the summary.
+ */
+public class CommandStats {
+    private static final ThreadLocal<String> currentPage = ThreadLocal.withInitial(() -> "(no page)");
+    private static final ThreadLocal<int[]> currentTest = ThreadLocal.withInitial(() -> new int[3]);
+
+    private static final Map<String, LongAdder> commandsByPage = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> commandsByName = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> repeatedReads = new ConcurrentHashMap<>();
+    private static final LongAdder total = new LongAdder();
+    private static final LongAdder totalRepeated = new LongAdder();
+    private static final LongAdder cacheHits = new LongAdder();
+    private static final AtomicInteger tests = new AtomicInteger();
+
+    private CommandStats() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Attributes the following commands of this thread to a page object, called from its constructor
+     */
+    public static void enterPage(String page) {
+        currentPage.set(page);
+    }
+
+    /**
+     * Called for every WebDriver command sent to the browser
+     * @param command Command method name, e.g. getCurrentUrl or click
+     * @param repeatedRead Whether it is an identical read of a value already read since the last mutating command
+     */
+    public static void recordCommand(String command, boolean repeatedRead) {
+        String page = currentPage.get();
+        int[] test = currentTest.get();
+        test[0]++;
+        total.increment();
+        commandsByPage.computeIfAbsent(page, k -> new LongAdder()).increment();
+        commandsByName.computeIfAbsent(command, k -> new LongAdder()).increment();
+        if (repeatedRead) {
+            test[1]++;
+            totalRepeated.increment();
+            repeatedReads.computeIfAbsent(page + "." + command, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Called for a read served from the session's cache instead of the browser
+     */
+    public static void recordCacheHit(String command) {
+        currentTest.get()[2]++;
+        cacheHits.increment();
+    }
+
+    public static void testStarted() {
+        currentPage.remove();
+        currentTest.remove();
+    }
+
+    /**
+     * Ends the current thread's test
+     * @return One line with the test's command counts, for the test log
+     */
+    public static String testFinished() {
+        int[] test = currentTest.get();
+        tests.incrementAndGet();
+        currentPage.remove();
+        currentTest.remove();
+        return "WebDriver commands: " + test[0] + " (repeated reads: " + test[1] + ", served from cache: " + test[2] + ")";
+    }
+
+    /**
+     * Command totals, per page and per command, and the worst repeated reads, for the suite summary report
+     */
+    public static String getReportSection() {
+        int testCount = Math.max(1, tests.get());
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("WebDriver Commands: %d total, %.1f per test, %d repeated reads, %d served from cache%n",
+                total.sum(), (double) total.sum() / testCount, totalRepeated.sum(), cacheHits.sum()));
+        sb.append("By page:\n");
+        appendSorted(sb, commandsByPage, Integer.MAX_VALUE);
+        sb.append("By command:\n");
+        appendSorted(sb, commandsByName, Integer.MAX_VALUE);
+        if (!repeatedReads.isEmpty()) {
+            sb.append("Most repeated reads:\n");
+            appendSorted(sb, repeatedReads, 10);
+        }
+        return sb.toString();
+    }
+
+    private static void appendSorted(StringBuilder sb, Map<String, LongAdder> counts, int limit) {
+        counts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(limit)
+                .forEach(e -> sb.append("- ").append(e.getKey()).append(": ").append(e.getValue().sum()).append('\n'));
+    }
+}
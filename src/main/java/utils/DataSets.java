@@ -0,0 +1,156 @@
+package utils;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams external data sets into TestNG data providers one row at a time, so large files
+ * are never loaded fully into memory. Each row is passed to the test as a single Map argument.
+ *
+ * <pre>
+ * &#64;DataProvider(name = "applicants")
+ * public Iterator&lt;Object[]&gt; applicants() {
+ *     return DataSets.csv("src/test/resources/applicants.csv");
+ * }
+ * </pre>
+ */
+public class DataSets {
+
+    private DataSets() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Rows of a CSV file with a header line, keyed by column name.
+     * Quoted fields may contain commas and doubled quotes, but not line breaks.
+     */
+    public static Iterator<Object[]> csv(String path) {
+        try {
+            BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                reader.close();
+                return new ArrayList<Object[]>().iterator();
+            }
+            List<String> header = parseCsvLine(headerLine);
+
+            return new Iterator<Object[]>() {
+                private String next = readNext();
+
+                private String readNext() {
+                    try {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (!line.trim().isEmpty()) {
+                                return line;
+                            }
+                        }
+                        reader.close();
+                        return null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read " + path, e);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Object[] next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    List<String> values = parseCsvLine(next);
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int i = 0; i < header.size(); i++) {
+                        row.put(header.get(i), i < values.size() ? values.get(i) : "");
+                    }
+                    next = readNext();
+                    return new Object[]{row};
+                }
+            };
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open data set " + path, e);
+        }
+    }
+
+    /**
+     * Objects of a JSON file containing a top-level array, read with a streaming parser
+     */
+    public static Iterator<Object[]> json(String path) {
+        try {
+            BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+            JsonInput input = new Json().newInput(reader);
+            input.beginArray();
+
+            return new Iterator<Object[]>() {
+                private boolean open = true;
+
+                @Override
+                public boolean hasNext() {
+                    if (open && !input.hasNext()) {
+                        input.endArray();
+                        input.close();
+                        open = false;
+                    }
+                    return open;
+                }
+
+                @Override
+                public Object[] next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Map<String, Object> row = input.read(Json.MAP_TYPE);
+                    return new Object[]{row};
+                }
+            };
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open data set " + path, e);
+        }
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,99 @@
+package utils;
+
+import com.amex.ui.framework.config.DriverManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Suite-wide counters used to compare execution modes (one browser process per test
+ * versus tabs in a shared browser): throughput and browser memory per concurrent test.
+ */
+public class ExecutionStats {
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger peakRunning = new AtomicInteger();
+    private static final AtomicInteger completed = new AtomicInteger();
+    private static final AtomicLong peakRssKb = new AtomicLong();
+    private static final AtomicLong firstStartMillis = new AtomicLong();
+    private static final AtomicLong lastEndMillis = new AtomicLong();
+    private static final AtomicLong bulkReads = new AtomicLong();
+    private static final AtomicLong bulkReadCommandsReplaced = new AtomicLong();
+    private static final AtomicInteger gridSessions = new AtomicInteger();
+    private static final AtomicLong gridWaitMillis = new AtomicLong();
+    private static final AtomicLong maxGridWaitMillis = new AtomicLong();
+
+    private ExecutionStats() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Called when a test method starts
+     */
+    public static void testStarted() {
+        firstStartMillis.compareAndSet(0, System.currentTimeMillis());
+        int now = running.incrementAndGet();
+        peakRunning.accumulateAndGet(now, Math::max);
+    }
+
+    /**
+     * Called when a test method ends, while its browser is still open
+     */
+    public static void testFinished() {
+        // Sample before the driver is quit so the peak reflects all concurrent tests
+        peakRssKb.accumulateAndGet(ProcessMemory.getDescendantsRssKb(), Math::max);
+        running.decrementAndGet();
+        completed.incrementAndGet();
+        lastEndMillis.set(System.currentTimeMillis());
+    }
+
+    /**
+     * Called for each bulk DOM read script execution
+     */
+    public static void recordBulkRead() {
+        bulkReads.incrementAndGet();
+    }
+
+    /**
+     * Called by the callers of a bulk DOM read, with the WebDriver commands the code it replaced actually issued
+     */
+    public static void recordCommandsReplaced(int commands) {
+        bulkReadCommandsReplaced.addAndGet(commands);
+    }
+
+    /**
+     * Called when a grid session is created, with the time spent waiting for a slot
+     */
+    public static void recordGridWait(long waitMillis) {
+        gridSessions.incrementAndGet();
+        gridWaitMillis.addAndGet(waitMillis);
+        maxGridWaitMillis.accumulateAndGet(waitMillis, Math::max);
+    }
+
+    /**
+     * Summary of throughput and memory for the current execution mode
+     */
+    public static String getSummary() {
+        long elapsedMillis = Math.max(1, lastEndMillis.get() - firstStartMillis.get());
+        double testsPerMinute = completed.get() * 60000.0 / elapsedMillis;
+        int concurrency = Math.max(1, peakRunning.get());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Execution mode: ").append(DriverManager.isTabMode() ? "tab (shared browser)" : "process per test");
+        sb.append(" | Tests: ").append(completed.get());
+        sb.append(" | Peak concurrency: ").append(concurrency);
+        sb.append(String.format(" | Throughput: %.2f tests/min", testsPerMinute));
+        if (peakRssKb.get() > 0) {
+            sb.append(" | Peak browser RSS: ").append(peakRssKb.get() / 1024).append(" MB");
+            sb.append(" | Per concurrent test: ").append(peakRssKb.get() / 1024 / concurrency).append(" MB");
+        }
+        if (bulkReads.get() > 0) {
+            sb.append(" | Bulk DOM reads: ").append(bulkReads.get()).append(" commands replacing ")
+                    .append(bulkReadCommandsReplaced.get()).append(" round-trips");
+        }
+        if (gridSessions.get() > 0) {
+            sb.append(" | Grid slot wait: ").append(gridWaitMillis.get() / gridSessions.get()).append(" ms avg, ")
+                    .append(maxGridWaitMillis.get()).append(" ms max");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Wraps JPEG frames in a Motion-JPEG AVI container without re-encoding them, so a
+ * screencast can be written with no decoding and played by common video players.
+ */
+final class MjpegAviWriter {
+
+    private MjpegAviWriter() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * @param frames JPEG frames at a constant rate
+     * @param fps Frames per second
+     */
+    static byte[] write(List<byte[]> frames, int fps) {
+        int[] size = jpegSize(frames.get(0));
+        int width = size[0];
+        int height = size[1];
+        int maxFrame = 0;
+        int moviSize = 4;
+        for (byte[] frame : frames) {
+            maxFrame = Math.max(maxFrame, frame.length);
+            moviSize += 8 + padded(frame.length);
+        }
+
+        int hdrlSize = 4 + (8 + 56) + (8 + 4 + (8 + 56) + (8 + 40));
+        int idx1Size = 16 * frames.size();
+        int riffSize = 4 + (8 + hdrlSize) + (8 + moviSize) + (8 + idx1Size);
+        ByteBuffer out = ByteBuffer.allocate(8 + riffSize).order(ByteOrder.LITTLE_ENDIAN);
+
+        fourcc(out, "RIFF").putInt(riffSize);
+        fourcc(out, "AVI ");
+        fourcc(out, "LIST").putInt(hdrlSize);
+        fourcc(out, "hdrl");
+
+        fourcc(out, "avih").putInt(56);
+        out.putInt(1_000_000 / fps);          // microseconds per frame
+        out.putInt(maxFrame * fps);           // max bytes per second
+        out.putInt(0);                        // padding granularity
+        out.putInt(0x10);                     // AVIF_HASINDEX
+        out.putInt(frames.size());
+        out.putInt(0);                        // initial frames
+        out.putInt(1);                        // streams
+        out.putInt(maxFrame);                 // suggested buffer size
+        out.putInt(width).putInt(height);
+        out.putInt(0).putInt(0).putInt(0).putInt(0);
+
+        fourcc(out, "LIST").putInt(4 + (8 + 56) + (8 + 40));
+        fourcc(out, "strl");
+        fourcc(out, "strh").putInt(56);
+        fourcc(out, "vids");
+        fourcc(out, "MJPG");
+        out.putInt(0);                        // flags
+        out.putShort((short) 0).putShort((short) 0);
+        out.putInt(0);                        // initial frames
+        out.putInt(1).putInt(fps);            // scale, rate
+        out.putInt(0).putInt(frames.size());  // start, length
+        out.putInt(maxFrame);
+        out.putInt(-1);                       // quality
+        out.putInt(0);                        // sample size
+        out.putShort((short) 0).putShort((short) 0).putShort((short) width).putShort((short) height);
+
+        fourcc(out, "strf").putInt(40);
+        out.putInt(40).putInt(width).putInt(height);
+        out.putShort((short) 1).putShort((short) 24);
+        fourcc(out, "MJPG");
+        out.putInt(width * height * 3);
+        out.putInt(0).putInt(0).putInt(0).putInt(0);
+
+        fourcc(out, "LIST").putInt(moviSize);
+        fourcc(out, "movi");
+        int[] offsets = new int[frames.size()];
+        int offset = 4;
+        for (int i = 0; i < frames.size(); i++) {
+            byte[] frame = frames.get(i);
+            offsets[i] = offset;
+            fourcc(out, "00dc").putInt(frame.length);
+            out.put(frame);
+            if (frame.length % 2 != 0) {
+                out.put((byte) 0);
+            }
+            offset += 8 + padded(frame.length);
+        }
+
+        fourcc(out, "idx1").putInt(idx1Size);
+        for (int i = 0; i < frames.size(); i++) {
+            fourcc(out, "00dc");
+            out.putInt(0x10);                 // AVIIF_KEYFRAME
+            out.putInt(offsets[i]);
+            out.putInt(frames.get(i).length);
+        }
+        return out.array();
+    }
+
+    /**
+     * Width and height from the JPEG start-of-frame marker
+     */
+    static int[] jpegSize(byte[] jpeg) {
+        int i = 2;
+        while (i + 9 < jpeg.length) {
+            if ((jpeg[i] & 0xFF) != 0xFF) {
+                i++;
+                continue;
+            }
+            int marker = jpeg[i + 1] & 0xFF;
+            int length = (jpeg[i + 2] & 0xFF) << 8 | (jpeg[i + 3] & 0xFF);
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                int height = (jpeg[i + 5] & 0xFF) << 8 | (jpeg[i + 6] & 0xFF);
+                int width = (jpeg[i + 7] & 0xFF) << 8 | (jpeg[i + 8] & 0xFF);
+                return new int[]{width, height};
+            }
+            i += 2 + length;
+        }
+        throw new IllegalArgumentException("No JPEG frame header found");
+    }
+
+    private static int padded(int length) {
+        return length + (length % 2);
+    }
+
+    private static ByteBuffer fourcc(ByteBuffer out, String code) {
+        return out.put(code.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,67 @@
+package utils;
+
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.Collections;
+
+/**
+ * In-page tracker of network activity used by {@link WaitUtils#waitForPageLoad}.
+ * It wraps fetch and XMLHttpRequest to count in-flight requests and watches resource
+ * timing entries, so idleness is seen from inside the page in a single async script.
+ * On Chromium it is injected before any page script runs; elsewhere it is installed on
+ * first use and only sees requests started after that point.
+ */
+public class NetworkIdle {
+
+    static final String TRACKER_SCRIPT =
+            "(function() {" +
+                    " if (window.__amexNet) return;" +
+                    " var t = window.__amexNet = {nextId: 0, pending: {}, events: []};" +
+                    " function start(url) { var id = ++t.nextId; t.pending[id] = String(url); t.events.push({url: String(url), time: Date.now()}); return id; }" +
+                    " function end(id) { t.events.push({url: t.pending[id], time: Date.now()}); delete t.pending[id];" +
+                    "  if (t.events.length > 500) t.events.splice(0, t.events.length - 500); }" +
+                    " var open = XMLHttpRequest.prototype.open, send = XMLHttpRequest.prototype.send;" +
+                    " XMLHttpRequest.prototype.open = function(m, url) { this.__amexUrl = url; return open.apply(this, arguments); };" +
+                    " XMLHttpRequest.prototype.send = function() { var id = start(this.__amexUrl);" +
+                    "  this.addEventListener('loadend', function() { end(id); }); return send.apply(this, arguments); };" +
+                    " if (window.fetch) { var f = window.fetch; window.fetch = function(input) {" +
+                    "  var id = start(input && input.url ? input.url : input);" +
+                    "  return f.apply(this, arguments).then(function(r) { end(id); return r; }, function(e) { end(id); throw e; }); }; }" +
+                    " if (window.PerformanceObserver) { try { new PerformanceObserver(function(list) { list.getEntries().forEach(function(e) {" +
+                    "  t.events.push({url: e.name, time: Date.now()}); }); }).observe({type: 'resource', buffered: true}); } catch (e) {} }" +
+                    "})();";
+
+    // arguments: quiet window ms, ignored URL regexes, timeout ms, async callback
+    static final String WAIT_FOR_IDLE_SCRIPT =
+            "var done = arguments[arguments.length - 1], quiet = arguments[0], timeout = arguments[2];" +
+                    "var ignore = arguments[1].map(function(p) { return new RegExp(p); });" +
+                    "function relevant(url) { return !ignore.some(function(r) { return r.test(url); }); }" +
+                    TRACKER_SCRIPT +
+                    "var t = window.__amexNet, begin = Date.now();" +
+                    "function pending() { return Object.keys(t.pending).map(function(id) { return t.pending[id]; }).filter(relevant); }" +
+                    "function lastActivity() { var last = 0; t.events.forEach(function(e) { if (relevant(e.url) && e.time > last) last = e.time; }); return last; }" +
+                    "(function poll() {" +
+                    " var now = Date.now(), inflight = pending();" +
+                    " if (document.readyState === 'complete' && inflight.length === 0 && now - lastActivity() >= quiet) {" +
+                    "  return done({idle: true, waitedMs: now - begin}); }" +
+                    " if (now - begin > timeout) {" +
+                    "  return done({idle: false, readyState: document.readyState, pending: inflight.slice(0, 10)}); }" +
+                    " setTimeout(poll, 50);" +
+                    "})();";
+
+    private NetworkIdle() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Registers the tracker to run before page scripts in every new document of a Chromium session
+     */
+    public static void installOnNewDocument(HasCdp driver) {
+        try {
+            driver.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Collections.singletonMap("source", TRACKER_SCRIPT));
+        } catch (Exception e) {
+            System.err.println("Failed to install network tracker: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package utils;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Captures web performance metrics for a page object once its page has loaded and checks
+ * them against per-page budgets from config, e.g. perf.budget.HomePage.lcp=4000.
+ * Times are in ms from navigation start, cls is unitless and transferBytes in bytes.
+ */
+public class PagePerformance {
+    public static final String[] METRICS = {"ttfb", "domContentLoaded", "load", "lcp", "cls", "tbt", "transferBytes"};
+
+    // LCP, CLS and long tasks are read through buffered observers, delivered asynchronously
+    private static final String CAPTURE_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+                    "var r = {ttfb: -1, domContentLoaded: -1, load: -1, lcp: -1, cls: 0, tbt: -1, transferBytes: 0};" +
+                    "var nav = performance.getEntriesByType('navigation')[0];" +
+                    "if (nav) { r.ttfb = nav.responseStart; r.domContentLoaded = nav.domContentLoadedEventEnd;" +
+                    " r.load = nav.loadEventEnd; r.transferBytes = nav.transferSize || 0; }" +
+                    "performance.getEntriesByType('resource').forEach(function(e) { r.transferBytes += e.transferSize || 0; });" +
+                    "var types = (window.PerformanceObserver && PerformanceObserver.supportedEntryTypes) || [];" +
+                    "function observe(type, cb) {" +
+                    " if (types.indexOf(type) < 0) return false;" +
+                    " try { new PerformanceObserver(function(l) { l.getEntries().forEach(cb); }).observe({type: type, buffered: true}); return true; }" +
+                    " catch (e) { return false; } }" +
+                    "observe('largest-contentful-paint', function(e) { r.lcp = Math.max(r.lcp, e.renderTime || e.loadTime || e.startTime); });" +
+                    "observe('layout-shift', function(e) { if (!e.hadRecentInput) r.cls += e.value; });" +
+                    "if (observe('longtask', function(e) { r.tbt += Math.max(0, e.duration - 50); })) r.tbt = 0;" +
+                    "setTimeout(function() { done(r); }, 100);";
+
+    private static final Queue<Record> records = new ConcurrentLinkedQueue<>();
+
+    private PagePerformance() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Metrics captured for one page object instance
+     */
+    public static class Record {
+        public final String page;
+        public final Map<String, Double> metrics;
+        public final String violations;
+
+        Record(String page, Map<String, Double> metrics, String violations) {
+            this.page = page;
+            this.metrics = metrics;
+            this.violations = violations;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("perf.enabled", "true"));
+    }
+
+    /**
+     * Captures metrics for the current document and enforces the budgets of the page class.
+     * In perf.budget.mode=fail an exceeded budget fails the test, otherwise it is only reported.
+     * @param driver Driver showing the page
+     * @param page Simple name of the page object class
+     * @return The captured record, or null if capture failed
+     */
+    @SuppressWarnings("unchecked")
+    public static Record capture(WebDriver driver, String page) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        try {
+            Map<String, Object> raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(CAPTURE_SCRIPT);
+            for (String metric : METRICS) {
+                Object value = raw.get(metric);
+                metrics.put(metric, value instanceof Number ? ((Number) value).doubleValue() : -1);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to capture performance metrics for " + page + ": " + e.getMessage());
+            return null;
+        }
+
+        String violations = checkBudgets(page, metrics);
+        Record record = new Record(page, metrics, violations);
+        records.add(record);
+
+        if (violations != null) {
+            String message = "Performance budget exceeded on " + page + ": " + violations;
+            if ("fail".equalsIgnoreCase(ConfigReader.getProperty("perf.budget.mode", "warn"))) {
+                Assert.fail(message);
+            }
+            System.out.println("WARNING: " + message);
+        }
+        return record;
+    }
+
+    /**
+     * All records captured so far in this JVM
+     */
+    public static Queue<Record> getRecords() {
+        return records;
+    }
+
+    /**
+     * Per page class averages and budget violations, for the suite summary report. Each metric is
+     * averaged over the loads that reported it (unavailable metrics are captured as -1), with the
+     * sample count shown when some loads did not report it.
+     */
+    public static String getReportSection() {
+        Map<String, double[]> sums = new TreeMap<>();
+        Map<String, int[]> samples = new TreeMap<>();
+        Map<String, Integer> counts = new TreeMap<>();
+        Map<String, Integer> violationCounts = new TreeMap<>();
+
+        for (Record record : records) {
+            double[] sum = sums.computeIfAbsent(record.page, k -> new double[METRICS.length]);
+            int[] sampled = samples.computeIfAbsent(record.page, k -> new int[METRICS.length]);
+            for (int i = 0; i < METRICS.length; i++) {
+                double value = record.metrics.get(METRICS[i]);
+                if (value >= 0) {
+                    sum[i] += value;
+                    sampled[i]++;
+                }
+            }
+            counts.merge(record.page, 1, Integer::sum);
+            if (record.violations != null) {
+                violationCounts.merge(record.page, 1, Integer::sum);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Page Performance (averages):\n");
+        for (Map.Entry<String, double[]> entry : sums.entrySet()) {
+            int count = counts.get(entry.getKey());
+            int[] sampled = samples.get(entry.getKey());
+            sb.append("- ").append(entry.getKey()).append(" (").append(count).append(" loads)");
+            for (int i = 0; i < METRICS.length; i++) {
+                if (sampled[i] == 0) {
+                    sb.append(' ').append(METRICS[i]).append("=n/a");
+                    continue;
+                }
+                sb.append(String.format(" %s=%.2f", METRICS[i], entry.getValue()[i] / sampled[i]));
+                if (sampled[i] < count) {
+                    sb.append(" (n=").append(sampled[i]).append(')');
+                }
+            }
+            sb.append(" budgetViolations=").append(violationCounts.getOrDefault(entry.getKey(), 0)).append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static String checkBudgets(String page, Map<String, Double> metrics) {
+        StringBuilder violations = new StringBuilder();
+        for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+            String budget = ConfigReader.getProperty("perf.budget." + page + "." + metric.getKey(), null);
+            if (budget != null && metric.getValue() > Double.parseDouble(budget)) {
+                if (violations.length() > 0) {
+                    violations.append(", ");
+                }
+                violations.append(metric.getKey()).append('=').append(metric.getValue())
+                        .append(" > ").append(budget);
+            }
+        }
+        return violations.length() > 0 ? violations.toString() : null;
+    }
+}
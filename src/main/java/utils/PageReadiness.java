@@ -0,0 +1,170 @@
+package utils;
+
+import com.amex.ui.framework.config.ConfigReader;
+import com.amex.ui.framework.pageobjects.ReadyWhenVisible;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-to-usable versus full load per page class, for the eager and none page-load strategies.
+ * A page is usable when its {@link ReadyWhenVisible} elements are visible; its full load time
+ * (loadEventEnd) is read without waiting for it, before the first interaction with the page, so
+ * an unfinished load is counted as still loading at that point.
+ */
+public class PageReadiness {
+    // Times in ms from navigation start, read in the same call that checks the elements
+    public static final String READY_SCRIPT =
+            "var els = arguments[0];" +
+                    "var visible = els.every(function(e) {" +
+                    " if (!e.isConnected) return false;" +
+                    " var s = getComputedStyle(e), r = e.getBoundingClientRect();" +
+                    " return s.display !== 'none' && s.visibility !== 'hidden' && parseFloat(s.opacity) !== 0" +
+                    " && r.width > 0 && r.height > 0; });" +
+                    "if (!visible) return null;" +
+                    "var nav = performance.getEntriesByType('navigation')[0];" +
+                    "return {usable: performance.now(), load: nav ? nav.loadEventEnd : 0};";
+
+    private static final String LOAD_SCRIPT =
+            "var nav = performance.getEntriesByType('navigation')[0];" +
+                    "return {now: performance.now(), load: nav ? nav.loadEventEnd : 0};";
+
+    private static final ClassValue<List<Field>> readyFields = new ClassValue<List<Field>>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(ReadyWhenVisible.class) && WebElement.class.isAssignableFrom(field.getType())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(fields);
+        }
+    };
+
+    // Page made usable on this thread whose full load time is not known yet
+    private static final ThreadLocal<String> pendingPage = new ThreadLocal<>();
+    private static final ThreadLocal<Double> pendingUsable = new ThreadLocal<>();
+
+    private static final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private PageReadiness() {
+        // Private constructor to prevent instantiation
+    }
+
+    private static class Stats {
+        final AtomicLong pages = new AtomicLong();
+        final AtomicLong usableMillis = new AtomicLong();
+        final AtomicLong loaded = new AtomicLong();
+        final AtomicLong loadMillis = new AtomicLong();
+        final AtomicLong stillLoading = new AtomicLong();
+    }
+
+    /**
+     * Whether drivers return before the full page load (pageLoadStrategy eager or none)
+     */
+    public static boolean isEagerLoading() {
+        return !"normal".equalsIgnoreCase(ConfigReader.getProperty("pageLoadStrategy", "normal"));
+    }
+
+    /**
+     * Values of the page's {@link ReadyWhenVisible} fields
+     */
+    public static List<WebElement> getReadyElements(Object page) {
+        List<Field> fields = readyFields.get(page.getClass());
+        List<WebElement> elements = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            try {
+                elements.add((WebElement) field.get(page));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Cannot read ready element " + field.getName(), e);
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Records a page as usable, from the result of {@link #READY_SCRIPT}
+     */
+    public static void recordUsable(String page, Map<String, Object> result) {
+        double usable = ((Number) result.get("usable")).doubleValue();
+        double load = ((Number) result.get("load")).doubleValue();
+        Stats pageStats = stats.computeIfAbsent(page, k -> new Stats());
+        pageStats.pages.incrementAndGet();
+        pageStats.usableMillis.addAndGet((long) usable);
+        if (load > 0) {
+            record(pageStats, load);
+            pendingPage.remove();
+        } else {
+            pendingPage.set(page);
+            pendingUsable.set(usable);
+        }
+    }
+
+    /**
+     * Reads the full load time of the current thread's last usable page, if still unknown.
+     * Called before interacting with the page, while it is still the current document.
+     */
+    @SuppressWarnings("unchecked")
+    public static void resolvePending(WebDriver driver) {
+        String page = pendingPage.get();
+        if (page == null) {
+            return;
+        }
+        pendingPage.remove();
+        try {
+            Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(LOAD_SCRIPT);
+            double load = ((Number) result.get("load")).doubleValue();
+            Stats pageStats = stats.get(page);
+            if (load > 0) {
+                record(pageStats, load);
+            } else {
+                pageStats.stillLoading.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            // Only reporting is affected
+        }
+    }
+
+    private static void record(Stats pageStats, double load) {
+        pageStats.loaded.incrementAndGet();
+        pageStats.loadMillis.addAndGet((long) load);
+    }
+
+    /**
+     * Average time-to-usable and full load per page class, for the suite summary report
+     */
+    public static String getReportSection() {
+        if (stats.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("Page Readiness (ms from navigation start, pageLoadStrategy=")
+                .append(ConfigReader.getProperty("pageLoadStrategy", "normal")).append("):\n");
+        for (Map.Entry<String, Stats> entry : new TreeMap<>(stats).entrySet()) {
+            Stats s = entry.getValue();
+            long usable = s.usableMillis.get() / Math.max(1, s.pages.get());
+            sb.append("- ").append(entry.getKey()).append(": usable ").append(usable);
+            if (s.loaded.get() > 0) {
+                long load = s.loadMillis.get() / s.loaded.get();
+                sb.append(", full load ").append(load).append(" (").append(load - usable).append(" saved)");
+            }
+            if (s.stillLoading.get() > 0) {
+                sb.append(", still loading at first interaction ").append(s.stillLoading.get()).append('x');
+            }
+            sb.append(", pages ").append(s.pages.get()).append('\n');
+        }
+        return sb.toString();
+    }
+}
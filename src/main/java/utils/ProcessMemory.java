@@ -0,0 +1,52 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Reads resident memory of the browser and driver processes started by this JVM.
+ * Browsers are launched as descendants of the JVM (through chromedriver, geckodriver, ...),
+ * so summing the RSS of all descendant processes gives the browser footprint.
+ */
+public class ProcessMemory {
+
+    private ProcessMemory() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Sum of the resident set size of all descendant processes, in KB
+     * @return RSS in KB, or -1 when /proc is not available (non-Linux hosts)
+     */
+    public static long getDescendantsRssKb() {
+        if (!Files.isDirectory(Paths.get("/proc"))) {
+            return -1;
+        }
+        return ProcessHandle.current().descendants()
+                .mapToLong(process -> getRssKb(process.pid()))
+                .filter(rss -> rss > 0)
+                .sum();
+    }
+
+    /**
+     * Resident set size of a single process, in KB
+     * @return RSS in KB, or -1 if it cannot be read
+     */
+    public static long getRssKb(long pid) {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        try {
+            List<String> lines = Files.readAllLines(status);
+            for (String line : lines) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Process exited between listing and reading
+        }
+        return -1;
+    }
+}
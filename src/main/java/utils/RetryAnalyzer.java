@@ -1,5 +1,6 @@
 package utils;
 
+import com.amex.ui.framework.health.CircuitBreaker;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 
@@ -12,6 +13,10 @@ import org.testng.ITestResult;
 
         @Override
         public boolean retry(ITestResult result) {
+            // Retrying against a target known to be down only repeats the timeout
+            if (CircuitBreaker.isOpen()) {
+                return false;
+            }
             if (retryCount < MAX_RETRY_COUNT) {
                 System.out.println("Retrying test: " + result.getName() + " - Retry #" + (retryCount + 1));
                 retryCount++;
@@ -0,0 +1,262 @@
+package utils;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the last screencast.seconds of a Chromium session as video, so a failure shows
+ * how the page got there. Compressed JPEG frames from CDP Page.startScreencast go into a
+ * bounded in-memory ring buffer per session; they are only decoded from base64 and written
+ * as an MJPEG AVI to the artifact store when a test fails, and dropped when it passes.
+ *
+ * The JVM-side cost on passing tests (frame handling plus control commands) is measured
+ * and reported in the suite summary. Sessions without DevTools (Firefox, Safari, tab mode)
+ * are not recorded.
+ */
+public class ScreencastRecorder {
+    private static final ThreadLocal<ScreencastRecorder> current = new ThreadLocal<>();
+
+    private static final AtomicLong passedTests = new AtomicLong();
+    private static final AtomicLong passedOverheadNanos = new AtomicLong();
+    private static final AtomicLong passedFrames = new AtomicLong();
+    private static final AtomicLong recordings = new AtomicLong();
+
+    private final WebDriver driver;
+    private final DevTools devTools;
+    // Acks are sent off the DevTools event thread, which must not block on a command reply
+    private final ExecutorService acks = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "screencast-ack");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final long windowMillis;
+    private final long maxBytes;
+    private long bufferedBytes;
+    private long frameCount;
+    private final AtomicLong overheadNanos = new AtomicLong();
+
+    private static class Frame {
+        final String data;
+        final long timestampMillis;
+
+        Frame(String data, long timestampMillis) {
+            this.data = data;
+            this.timestampMillis = timestampMillis;
+        }
+    }
+
+    private ScreencastRecorder(WebDriver driver) {
+        this.driver = driver;
+        this.devTools = ((HasDevTools) driver).getDevTools();
+        this.windowMillis = Long.parseLong(ConfigReader.getProperty("screencast.seconds", "10")) * 1000;
+        this.maxBytes = Long.parseLong(ConfigReader.getProperty("screencast.maxMB", "20")) * 1024 * 1024;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("screencast.enabled", "false"));
+    }
+
+    /**
+     * Starts recording the session for a new test, or clears the buffer of a reused session
+     */
+    public static void startTest(WebDriver driver) {
+        if (!isEnabled() || !(driver instanceof HasDevTools)) {
+            return;
+        }
+        ScreencastRecorder recorder = current.get();
+        if (recorder != null && recorder.driver != driver) {
+            stop();
+            recorder = null;
+        }
+        try {
+            if (recorder == null) {
+                recorder = new ScreencastRecorder(driver);
+                recorder.start();
+                current.set(recorder);
+            } else {
+                recorder.reset();
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to start screencast: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ends a test: a failed test gets its buffered frames written as video, a passed one only
+     * adds its recording overhead to the report
+     * @return Path of the stored video, or null if none was written
+     */
+    public static String finishTest(String testName, boolean failed) {
+        ScreencastRecorder recorder = current.get();
+        if (recorder == null) {
+            return null;
+        }
+        if (!failed) {
+            passedTests.incrementAndGet();
+            passedOverheadNanos.addAndGet(recorder.overheadNanos.get());
+            passedFrames.addAndGet(recorder.frameCount);
+            recorder.reset();
+            return null;
+        }
+        String path = recorder.save(testName);
+        recorder.reset();
+        return path;
+    }
+
+    /**
+     * Stops recording the current thread's session, before it is quit
+     */
+    public static void stop() {
+        ScreencastRecorder recorder = current.get();
+        if (recorder == null) {
+            return;
+        }
+        current.remove();
+        recorder.acks.shutdownNow();
+        try {
+            recorder.devTools.clearListeners();
+            recorder.devTools.send(new Command<Void>("Page.stopScreencast", new HashMap<>()));
+        } catch (Exception e) {
+            // The session may already be gone
+        }
+    }
+
+    private void start() {
+        long begin = System.nanoTime();
+        devTools.createSessionIfThereIsNotOne();
+        devTools.addListener(new Event<>("Page.screencastFrame", input -> input.read(Json.MAP_TYPE)), this::onFrame);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("format", "jpeg");
+        params.put("quality", Integer.parseInt(ConfigReader.getProperty("screencast.quality", "50")));
+        params.put("maxWidth", Integer.parseInt(ConfigReader.getProperty("screencast.maxWidth", "1280")));
+        params.put("maxHeight", Integer.parseInt(ConfigReader.getProperty("screencast.maxHeight", "800")));
+        params.put("everyNthFrame", 1);
+        devTools.send(new Command<Void>("Page.startScreencast", params));
+        overheadNanos.addAndGet(System.nanoTime() - begin);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onFrame(Map<String, Object> event) {
+        long begin = System.nanoTime();
+        Object sessionId = event.get("sessionId");
+        acks.execute(() -> {
+            try {
+                Map<String, Object> params = new HashMap<>();
+                params.put("sessionId", sessionId);
+                devTools.send(new Command<Void>("Page.screencastFrameAck", params));
+            } catch (Exception e) {
+                // Session closing
+            }
+        });
+
+        Map<String, Object> metadata = (Map<String, Object>) event.get("metadata");
+        Object timestamp = metadata != null ? metadata.get("timestamp") : null;
+        long millis = timestamp instanceof Number ? (long) (((Number) timestamp).doubleValue() * 1000) : System.currentTimeMillis();
+        String data = (String) event.get("data");
+
+        synchronized (frames) {
+            frames.addLast(new Frame(data, millis));
+            bufferedBytes += data.length();
+            frameCount++;
+            // Keep one frame older than the window, it is what the screen showed at its start
+            while (frames.size() > 2 && (bufferedBytes > maxBytes
+                    || millis - secondOldestMillis() > windowMillis)) {
+                bufferedBytes -= frames.removeFirst().data.length();
+            }
+        }
+        overheadNanos.addAndGet(System.nanoTime() - begin);
+    }
+
+    private long secondOldestMillis() {
+        Iterator<Frame> iterator = frames.iterator();
+        iterator.next();
+        return iterator.next().timestampMillis;
+    }
+
+    private void reset() {
+        synchronized (frames) {
+            // Keep the latest frame: until the page changes it is still what is on screen
+            while (frames.size() > 1) {
+                bufferedBytes -= frames.removeFirst().data.length();
+            }
+            frameCount = 0;
+        }
+        overheadNanos.set(0);
+    }
+
+    /**
+     * Resamples the buffered frames to a constant rate and stores them as an MJPEG AVI
+     */
+    private String save(String testName) {
+        List<Frame> snapshot;
+        synchronized (frames) {
+            snapshot = new ArrayList<>(frames);
+        }
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+
+        // Clamped to 1..1000: the resampling step below is 1000 / fps whole milliseconds and must not be 0
+        int fps = Math.min(1000, Math.max(1, Integer.parseInt(ConfigReader.getProperty("screencast.fps", "5"))));
+        long end = Math.max(snapshot.get(snapshot.size() - 1).timestampMillis, System.currentTimeMillis());
+        long begin = Math.max(snapshot.get(0).timestampMillis, end - windowMillis);
+        List<byte[]> video = new ArrayList<>();
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] decoded = null;
+        int shown = -1;
+        for (long t = begin; t <= end; t += 1000 / fps) {
+            int index = shown < 0 ? 0 : shown;
+            while (index + 1 < snapshot.size() && snapshot.get(index + 1).timestampMillis <= t) {
+                index++;
+            }
+            if (index != shown) {
+                decoded = decoder.decode(snapshot.get(index).data);
+                shown = index;
+            }
+            // Screencast frames only arrive when the page changes, so a frame is repeated until the next
+            video.add(decoded);
+        }
+
+        try {
+            String path = ArtifactStore.storeVideo(testName, StreamingReportWriter.getLastStep(),
+                    MjpegAviWriter.write(video, fps));
+            recordings.incrementAndGet();
+            return path;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to write screencast for " + testName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Recording cost on passing tests, for the suite summary report
+     */
+    public static String getReportSection() {
+        long tests = passedTests.get();
+        if (tests == 0 && recordings.get() == 0) {
+            return "";
+        }
+        return String.format("Screencast: %d passing tests, avg JVM overhead %.1f ms/test, avg %.1f frames/test, %d failure videos%n",
+                tests, tests == 0 ? 0 : passedOverheadNanos.get() / 1e6 / tests,
+                tests == 0 ? 0 : (double) passedFrames.get() / tests, recordings.get());
+    }
+}
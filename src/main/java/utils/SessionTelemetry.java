@@ -0,0 +1,173 @@
+package utils;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples browser resource metrics for a session after each test and decides whether
+ * the session has grown enough to be recycled. Samples are appended to one CSV file per
+ * session under target/telemetry/, giving a time series over the life of the session.
+ */
+public class SessionTelemetry {
+    private static final String TELEMETRY_DIR = "target/telemetry/";
+    private static final String CSV_HEADER = "timestamp,test,jsHeapUsedBytes,nodes,listeners,documents,browserRssKb\n";
+
+    // Fallback for browsers without DevTools: only heap (Chromium) and element count are visible to scripts
+    private static final String JS_METRICS_SCRIPT =
+            "return {jsHeapUsed: (window.performance && performance.memory) ? performance.memory.usedJSHeapSize : -1," +
+                    " nodes: document.getElementsByTagName('*').length," +
+                    " listeners: -1," +
+                    " documents: 1 + window.frames.length};";
+
+    private SessionTelemetry() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * One resource sample of a browser session
+     */
+    public static class Sample {
+        public final long timestamp = System.currentTimeMillis();
+        public long jsHeapUsedBytes = -1;
+        public long nodes = -1;
+        public long listeners = -1;
+        public long documents = -1;
+        public long browserRssKb = -1;
+
+        @Override
+        public String toString() {
+            return "heap=" + (jsHeapUsedBytes / (1024 * 1024)) + "MB, nodes=" + nodes
+                    + ", listeners=" + listeners + ", documents=" + documents;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("telemetry.enabled", "true"));
+    }
+
+    /**
+     * Samples the session and appends the result to its time series
+     * @param driver Session to sample
+     * @param sessionLabel Stable name of the session, used as file name
+     * @param testName Test that just ran in the session
+     * @return The sample, or null if the browser could not be queried
+     */
+    public static Sample sample(WebDriver driver, String sessionLabel, String testName) {
+        Sample sample;
+        try {
+            sample = driver instanceof HasCdp ? sampleWithCdp((HasCdp) driver) : sampleWithJs(driver);
+        } catch (Exception e) {
+            System.err.println("Failed to sample session " + sessionLabel + ": " + e.getMessage());
+            return null;
+        }
+        sample.browserRssKb = ProcessMemory.getDescendantsRssKb();
+        export(sessionLabel, testName, sample);
+        return sample;
+    }
+
+    /**
+     * Checks the sample against the recycle.* thresholds from config; 0 disables a threshold
+     * @return Reason for recycling, or null if the session can be kept
+     */
+    public static String getRecycleReason(Sample sample) {
+        if (sample == null) {
+            return null;
+        }
+        long maxHeapMb = Long.parseLong(ConfigReader.getProperty("recycle.maxJsHeapMb", "512"));
+        long maxNodes = Long.parseLong(ConfigReader.getProperty("recycle.maxNodes", "200000"));
+        long maxListeners = Long.parseLong(ConfigReader.getProperty("recycle.maxListeners", "50000"));
+        long maxDocuments = Long.parseLong(ConfigReader.getProperty("recycle.maxDocuments", "50"));
+
+        if (maxHeapMb > 0 && sample.jsHeapUsedBytes > maxHeapMb * 1024 * 1024) {
+            return "JS heap above " + maxHeapMb + "MB";
+        }
+        if (maxNodes > 0 && sample.nodes > maxNodes) {
+            return "DOM nodes above " + maxNodes;
+        }
+        if (maxListeners > 0 && sample.listeners > maxListeners) {
+            return "event listeners above " + maxListeners;
+        }
+        if (maxDocuments > 0 && sample.documents > maxDocuments) {
+            return "documents above " + maxDocuments;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Sample sampleWithCdp(HasCdp cdp) {
+        cdp.executeCdpCommand("Performance.enable", Collections.emptyMap());
+        Map<String, Object> response = cdp.executeCdpCommand("Performance.getMetrics", Collections.emptyMap());
+        List<Map<String, Object>> metrics = (List<Map<String, Object>>) response.get("metrics");
+
+        Sample sample = new Sample();
+        for (Map<String, Object> metric : metrics) {
+            long value = ((Number) metric.get("value")).longValue();
+            switch ((String) metric.get("name")) {
+                case "JSHeapUsedSize":
+                    sample.jsHeapUsedBytes = value;
+                    break;
+                case "Nodes":
+                    sample.nodes = value;
+                    break;
+                case "JSEventListeners":
+                    sample.listeners = value;
+                    break;
+                case "Documents":
+                    sample.documents = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return sample;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Sample sampleWithJs(WebDriver driver) {
+        Map<String, Object> metrics = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(JS_METRICS_SCRIPT);
+
+        Sample sample = new Sample();
+        sample.jsHeapUsedBytes = ((Number) metrics.get("jsHeapUsed")).longValue();
+        sample.nodes = ((Number) metrics.get("nodes")).longValue();
+        sample.listeners = ((Number) metrics.get("listeners")).longValue();
+        sample.documents = ((Number) metrics.get("documents")).longValue();
+        return sample;
+    }
+
+    private static void export(String sessionLabel, String testName, Sample sample) {
+        try {
+            Path dir = Paths.get(TELEMETRY_DIR);
+            Files.createDirectories(dir);
+            Path file = dir.resolve(sessionLabel + ".csv");
+
+            StringBuilder sb = new StringBuilder();
+            if (!Files.exists(file)) {
+                sb.append(CSV_HEADER);
+            }
+            sb.append(sample.timestamp).append(',')
+                    .append(testName).append(',')
+                    .append(sample.jsHeapUsedBytes).append(',')
+                    .append(sample.nodes).append(',')
+                    .append(sample.listeners).append(',')
+                    .append(sample.documents).append(',')
+                    .append(sample.browserRssKb).append('\n');
+
+            Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Failed to export telemetry for " + sessionLabel + ": " + e.getMessage());
+        }
+    }
+}
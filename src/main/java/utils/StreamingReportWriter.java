@@ -0,0 +1,221 @@
+package utils;
+
+import org.testng.ITestResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams test, step and retry records to disk as they happen, as JSON lines and as
+ * JUnit XML. Nothing is kept in memory beyond the steps of the tests currently running.
+ * Every record is flushed when written, and the XML file always ends with its closing
+ * tag (each new test case is written over it), so the report stays readable if the JVM dies.
+ */
+public class StreamingReportWriter {
+    private static final String REPORT_DIR = "target/test-reports/";
+    private static final String CLOSING_TAG = "</testsuite>\n";
+
+    private static volatile StreamingReportWriter instance;
+
+    private final BufferedWriter jsonLines;
+    private final FileChannel xml;
+    private final ThreadLocal<List<String>> currentSteps = ThreadLocal.withInitial(ArrayList::new);
+
+    private StreamingReportWriter(String suiteName) throws IOException {
+        Path dir = Paths.get(REPORT_DIR);
+        Files.createDirectories(dir);
+
+        this.jsonLines = Files.newBufferedWriter(dir.resolve("results.jsonl"), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.xml = FileChannel.open(dir.resolve("junit-results.xml"),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        xml.write(ByteBuffer.wrap(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\""
+                + escapeXml(suiteName) + "\">\n" + CLOSING_TAG).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Opens the report files for a suite; later calls are ignored while a report is open.
+     * The files are closed at JVM exit, since a suite may run several test contexts.
+     */
+    public static synchronized void open(String suiteName) {
+        if (instance != null) {
+            return;
+        }
+        try {
+            instance = new StreamingReportWriter(suiteName);
+            Runtime.getRuntime().addShutdownHook(new Thread(StreamingReportWriter::close));
+        } catch (IOException e) {
+            System.err.println("Failed to open streaming report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the report files
+     */
+    public static synchronized void close() {
+        if (instance != null) {
+            try {
+                instance.jsonLines.close();
+                instance.xml.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close streaming report: " + e.getMessage());
+            }
+            instance = null;
+        }
+    }
+
+    /**
+     * Records a step of the test running on the current thread, e.g. a page load or click
+     * @param name Step name
+     * @param durationMs Step duration in ms
+     */
+    public static void recordStep(String name, long durationMs) {
+        StreamingReportWriter writer = instance;
+        if (writer == null) {
+            return;
+        }
+        writer.currentSteps.get().add(name + " (" + durationMs + "ms)");
+        writer.writeJsonLine("{\"type\":\"step\",\"timestamp\":" + System.currentTimeMillis()
+                + ",\"thread\":\"" + escapeJson(Thread.currentThread().getName())
+                + "\",\"name\":\"" + escapeJson(name) + "\",\"durationMs\":" + durationMs + "}");
+    }
+
+    /**
+     * Last step recorded for the test running on the current thread, or null if there is none
+     */
+    public static String getLastStep() {
+        StreamingReportWriter writer = instance;
+        if (writer == null) {
+            return null;
+        }
+        List<String> steps = writer.currentSteps.get();
+        return steps.isEmpty() ? null : steps.get(steps.size() - 1);
+    }
+
+    /**
+     * Records the outcome of a test method attempt; attempts that TestNG retries are recorded as retries
+     */
+    public static void recordResult(ITestResult result, String status) {
+        StreamingReportWriter writer = instance;
+        if (writer == null) {
+            return;
+        }
+        List<String> steps = writer.currentSteps.get();
+        writer.currentSteps.remove();
+
+        String type = result.wasRetried() ? "retry" : "test";
+        long durationMs = result.getEndMillis() - result.getStartMillis();
+        Throwable throwable = result.getThrowable();
+        String message = throwable != null && throwable.getMessage() != null ? throwable.getMessage() : "";
+
+        writer.writeJsonLine("{\"type\":\"" + type + "\",\"timestamp\":" + result.getEndMillis()
+                + ",\"class\":\"" + escapeJson(result.getTestClass().getName())
+                + "\",\"name\":\"" + escapeJson(result.getName())
+                + "\",\"status\":\"" + status + "\",\"durationMs\":" + durationMs
+                + ",\"steps\":" + steps.size()
+                + ",\"message\":\"" + escapeJson(message) + "\"}");
+
+        StringBuilder testCase = new StringBuilder();
+        testCase.append("  <testcase classname=\"").append(escapeXml(result.getTestClass().getName()))
+                .append("\" name=\"").append(escapeXml(result.getName()))
+                .append("\" time=\"").append(durationMs / 1000.0).append("\">\n");
+        if (result.wasRetried()) {
+            testCase.append("    <skipped message=\"retried: ").append(escapeXml(message)).append("\"/>\n");
+        } else if ("FAILED".equals(status)) {
+            testCase.append("    <failure message=\"").append(escapeXml(message)).append("\" type=\"")
+                    .append(throwable != null ? throwable.getClass().getName() : "").append("\"/>\n");
+        } else if ("SKIPPED".equals(status)) {
+            testCase.append("    <skipped message=\"").append(escapeXml(message)).append("\"/>\n");
+        }
+        if (!steps.isEmpty()) {
+            testCase.append("    <system-out>").append(escapeXml(String.join("\n", steps))).append("</system-out>\n");
+        }
+        testCase.append("  </testcase>\n");
+        writer.writeTestCase(testCase.toString());
+    }
+
+    private synchronized void writeJsonLine(String line) {
+        try {
+            jsonLines.write(line);
+            jsonLines.newLine();
+            jsonLines.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to write report record: " + e.getMessage());
+        }
+    }
+
+    private synchronized void writeTestCase(String testCase) {
+        try {
+            // Overwrite the closing tag so the file stays well-formed after every record
+            byte[] bytes = (testCase + CLOSING_TAG).getBytes(StandardCharsets.UTF_8);
+            xml.write(ByteBuffer.wrap(bytes), xml.size() - CLOSING_TAG.length());
+        } catch (IOException e) {
+            System.err.println("Failed to write report record: " + e.getMessage());
+        }
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escapeXml(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                default:
+                    // Control characters other than whitespace are not allowed in XML 1.0
+                    if (c >= 0x20 || c == '\n' || c == '\r' || c == '\t') {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,22 +1,59 @@
 package utils;
-import java.util.Random;
-import java.util.UUID;
+import com.amex.ui.framework.config.ConfigReader;
 
+import java.util.SplittableRandom;
+
+/**
+ * Test data generator with reproducible randomness and values that stay unique across workers.
+ * Each test gets its own generator seeded from the run seed and the test name, so a failing
+ * test can be replayed with -Dtestdata.seed=&lt;seed&gt; (printed on failure) whatever thread runs it.
+ * Emails and phone numbers are unique by construction rather than drawn: the worker id, the
+ * test seed and a per-test sequence number, so forks use disjoint ranges and a replayed test
+ * gets the same values whatever else ran in the JVM. Surefire gives each fork its fork number as
+ * -Dtestdata.workerId; it is part of the printed seed, as the same seed on another worker
+ * produces other values.
+ */
 public class TestData {
-    private Random random = new Random();
+    private static final String[] FIRST_NAMES = {"Jean", "Marie", "Pierre", "Sophie", "Lucas", "Camille"};
+    private static final String[] LAST_NAMES = {"Dupont", "Martin", "Bernard", "Petit", "Durand", "Leroy"};
+    private static final String[] STREETS = {"Paris", "Lyon", "Marseille", "Bordeaux", "Lille", "Nantes"};
+    private static final String[] CITIES = {"Paris", "Lyon", "Marseille", "Bordeaux", "Lille", "Nantes"};
+
+    private static final long RUN_SEED = resolveRunSeed();
+    private static final int WORKER_ID = resolveWorkerId();
+    private static final ThreadLocal<Long> testSeed = ThreadLocal.withInitial(() -> mix(RUN_SEED, Thread.currentThread().getName().hashCode()));
+    private static final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(() -> new SplittableRandom(testSeed.get()));
+    // Emails and phones issued to the current test so far
+    private static final ThreadLocal<Integer> sequence = ThreadLocal.withInitial(() -> 0);
+
+    /**
+     * Reseeds the current thread's generator for a test, so its data depends only on the run seed and test name
+     * @param testName Fully qualified test name
+     */
+    public static void reseed(String testName) {
+        long seed = mix(RUN_SEED, testName.hashCode());
+        testSeed.set(seed);
+        random.set(new SplittableRandom(seed));
+        sequence.remove();
+    }
+
+    /**
+     * Seed information to print on failure; rerun with the given property to reproduce the data
+     */
+    public static String describeSeed() {
+        return "-Dtestdata.seed=" + RUN_SEED + " -Dtestdata.workerId=" + WORKER_ID + " (test seed " + testSeed.get() + ")";
+    }
 
     public String getRandomFirstName() {
-        String[] firstNames = {"Jean", "Marie", "Pierre", "Sophie", "Lucas", "Camille"};
-        return firstNames[random.nextInt(firstNames.length)];
+        return pick(FIRST_NAMES);
     }
 
     public String getRandomLastName() {
-        String[] lastNames = {"Dupont", "Martin", "Bernard", "Petit", "Durand", "Leroy"};
-        return lastNames[random.nextInt(lastNames.length)];
+        return pick(LAST_NAMES);
     }
 
     public String getRandomEmail() {
-        return "test" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+        return email(WORKER_ID, testSeed.get(), nextSequence());
     }
 
     public String getRandomInvalidEmail() {
@@ -24,7 +61,7 @@ public class TestData {
     }
 
     public String getRandomPhone() {
-        return "06" + String.format("%08d", random.nextInt(100000000));
+        return phone(WORKER_ID, testSeed.get(), nextSequence());
     }
 
     public String getRandomInvalidPhone() {
@@ -32,16 +69,11 @@ public class TestData {
     }
 
     public String getRandomAddress() {
-        return random.nextInt(100) + " Rue de " + getRandomStreetName();
-    }
-
-    private String getRandomStreetName() {
-        String[] streets = {"Paris", "Lyon", "Marseille", "Bordeaux", "Lille", "Nantes"};
-        return streets[random.nextInt(streets.length)];
+        return random.get().nextInt(100) + " Rue de " + pick(STREETS);
     }
 
     public String getRandomPostalCode() {
-        return String.format("%05d", random.nextInt(100000));
+        return String.format("%05d", random.get().nextInt(100000));
     }
 
     public String getRandomInvalidPostalCode() {
@@ -49,7 +81,60 @@ public class TestData {
     }
 
     public String getRandomCity() {
-        String[] cities = {"Paris", "Lyon", "Marseille", "Bordeaux", "Lille", "Nantes"};
-        return cities[random.nextInt(cities.length)];
+        return pick(CITIES);
+    }
+
+    /**
+     * Date of birth of an adult applicant, formatted dd/MM/yyyy
+     */
+    public String getRandomDateOfBirth() {
+        SplittableRandom r = random.get();
+        return String.format("%02d/%02d/%04d", 1 + r.nextInt(28), 1 + r.nextInt(12), 1950 + r.nextInt(50));
+    }
+
+    /**
+     * Email of the n-th value issued to a test: 40 bits of the test seed keep tests apart
+     */
+    static String email(int workerId, long testSeed, int n) {
+        return "test" + workerId + "x" + Long.toString(testSeed & 0xFFFFFFFFFFL, 36) + "n" + n + "@example.com";
+    }
+
+    /**
+     * Phone of the n-th value issued to a test: the worker id in the first two digits, so up to
+     * 100 workers never share a number, then consecutive numbers from an offset set by the test
+     * seed. Six digits cannot hold a test id, so two tests of one worker share a number only if
+     * their offsets fall within a few numbers of each other.
+     */
+    static String phone(int workerId, long testSeed, int n) {
+        return "06" + String.format("%02d%06d", workerId, (Math.floorMod(testSeed, 1000000) + n) % 1000000);
+    }
+
+    private static int nextSequence() {
+        int n = sequence.get();
+        sequence.set(n + 1);
+        return n;
+    }
+
+    private static String pick(String[] values) {
+        return values[random.get().nextInt(values.length)];
+    }
+
+    private static long resolveRunSeed() {
+        String seed = System.getProperty("testdata.seed", ConfigReader.getProperty("testdata.seed", ""));
+        return seed.isEmpty() ? System.nanoTime() : Long.parseLong(seed);
+    }
+
+    private static int resolveWorkerId() {
+        String workerId = System.getProperty("testdata.workerId", ConfigReader.getProperty("testdata.workerId", ""));
+        // Surefire sets it to the fork number (see pom.xml); a single JVM is worker 0
+        return workerId.isEmpty() ? 0 : Integer.parseInt(workerId) % 100;
+    }
+
+    // SplitMix64 finaliser, spreads nearby seeds (e.g. similar test names) over the whole range
+    private static long mix(long seed, long salt) {
+        long z = seed + salt * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 }
@@ -1,6 +1,8 @@
 package utils;
 
+import com.amex.ui.framework.concurrency.ConcurrencyController;
 import com.amex.ui.framework.config.DriverManager;
+import com.amex.ui.framework.health.CircuitBreaker;
 
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
@@ -39,6 +41,7 @@ public class TestListeners implements ITestListener, IAnnotationTransformer{
     public void onStart(ITestContext context) {
 
         createReportDirectory();
+        StreamingReportWriter.open(context.getSuite().getName());
     }
 
     /**
@@ -65,6 +68,7 @@ public class TestListeners implements ITestListener, IAnnotationTransformer{
     @Override
     public void onTestSuccess(ITestResult result) {
 
+        StreamingReportWriter.recordResult(result, "PASSED");
     }
 
     /**
@@ -75,6 +79,7 @@ public class TestListeners implements ITestListener, IAnnotationTransformer{
 
         // Capture detailed failure information
         captureFailureDetails(result);
+        StreamingReportWriter.recordResult(result, "FAILED");
     }
 
     /**
@@ -83,6 +88,8 @@ public class TestListeners implements ITestListener, IAnnotationTransformer{
     @Override
     public void onTestSkipped(ITestResult result) {
 
+        // Attempts retried by RetryAnalyzer arrive here and are recorded as retries
+        StreamingReportWriter.recordResult(result, "SKIPPED");
 
         // Check if it was skipped due to dependencies
         if (result.getThrowable() != null) {
@@ -112,6 +119,7 @@ public class TestListeners implements ITestListener, IAnnotationTransformer{
             if (throwable != null) {
 
                 throwable.printStackTrace();
+                System.err.println("Reproduce test data with " + TestData.describeSeed());
 
                 // Save stack trace to file
                 String stackTraceFilePath = saveStackTraceToFile(throwable, getTestMethodName(result));
@@ -144,41 +152,27 @@ public class TestListeners implements ITestListener, IAnnotationTransformer{
     private void captureDOMSnapshot(String testName) {
         try {
             WebDriver driver = DriverManager.getDriver();
-            String pageSource = driver.getPageSource();
-
-            // Save DOM to file
-            String timestamp = LocalDateTime.now().format(DATE_FORMATTER);
-            Path domFilePath = Paths.get(REPORT_DIR, testName + "_" + timestamp + "_dom.html");
-            Files.write(domFilePath, pageSource.getBytes());
-
-
+            ArtifactStore.storeDom(testName, StreamingReportWriter.getLastStep(), DriverManager.getCurrentPage(),
+                    driver.getPageSource());
         } catch (Exception e) {
 
         }
     }
 
     /**
-     * Save stack trace to file
+     * Save stack trace to the artifact store
      */
     private String saveStackTraceToFile(Throwable throwable, String testName) {
-        try {
-            String timestamp = LocalDateTime.now().format(DATE_FORMATTER);
-            Path stackTraceFilePath = Paths.get(REPORT_DIR, testName + "_" + timestamp + "_stacktrace.txt");
-
-            StringBuilder sb = new StringBuilder();
-            sb.append("Exception: ").append(throwable.getMessage()).append("\n\n");
-            sb.append("Stack Trace:\n");
-
-            for (StackTraceElement element : throwable.getStackTrace()) {
-                sb.append("\tat ").append(element.toString()).append("\n");
-            }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Exception: ").append(throwable.getMessage()).append("\n\n");
+        sb.append("Stack Trace:\n");
 
-            Files.write(stackTraceFilePath, sb.toString().getBytes());
-            return stackTraceFilePath.toString();
-        } catch (IOException e) {
-
-            return "Failed to save";
+        for (StackTraceElement element : throwable.getStackTrace()) {
+            sb.append("\tat ").append(element.toString()).append("\n");
         }
+
+        String path = ArtifactStore.store(testName, StreamingReportWriter.getLastStep(), "stacktrace", sb.toString());
+        return path != null ? path : "Failed to save";
     }
 
     /**
@@ -202,6 +196,15 @@ public class TestListeners implements ITestListener, IAnnotationTransformer{
             sb.append("- Failed: ").append(context.getFailedTests().size()).append("\n");
             sb.append("- Skipped: ").append(context.getSkippedTests().size()).append("\n\n");
 
+            sb.append(PagePerformance.getReportSection()).append("\n");
+            sb.append(PageReadiness.getReportSection());
+            sb.append(VisualCheck.getReportSection()).append("\n");
+            sb.append(ArtifactStore.getReportSection());
+            sb.append(ScreencastRecorder.getReportSection()).append("\n");
+            sb.append(CommandStats.getReportSection()).append("\n");
+            sb.append(ConcurrencyController.getReportSection());
+            sb.append(CircuitBreaker.getReportSection());
+
 
 
             Files.write(summaryFilePath, sb.toString().getBytes());
@@ -0,0 +1,107 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds input combinations for the application form validation matrix. Each field takes
+ * a valid or an invalid value from TestData; every combination with at least one invalid
+ * field is a case, so no case submits a fully valid application.
+ */
+public class ValidationMatrix {
+    public static final String FIRST_NAME = "firstName";
+    public static final String LAST_NAME = "lastName";
+    public static final String DATE_OF_BIRTH = "dateOfBirth";
+    public static final String EMAIL = "email";
+    public static final String PHONE = "phone";
+
+    private static final String[] FIELDS = {FIRST_NAME, LAST_NAME, DATE_OF_BIRTH, EMAIL, PHONE};
+
+    private ValidationMatrix() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * One combination of form inputs
+     */
+    public static class Case {
+        private final String name;
+        private final Map<String, String> values;
+        private final List<String> invalidFields;
+
+        Case(String name, Map<String, String> values, List<String> invalidFields) {
+            this.name = name;
+            this.values = values;
+            this.invalidFields = invalidFields;
+        }
+
+        public Map<String, String> getValues() {
+            return values;
+        }
+
+        public List<String> getInvalidFields() {
+            return invalidFields;
+        }
+
+        @Override
+        public String toString() {
+            // Used by TestNG as the parameter description of each case
+            return name;
+        }
+    }
+
+    /**
+     * All combinations with at least one invalid field
+     */
+    public static List<Case> cases() {
+        TestData testData = new TestData();
+        List<Case> cases = new ArrayList<>();
+
+        for (int mask = 1; mask < (1 << FIELDS.length); mask++) {
+            Map<String, String> values = new LinkedHashMap<>();
+            List<String> invalidFields = new ArrayList<>();
+            for (int i = 0; i < FIELDS.length; i++) {
+                boolean invalid = (mask & (1 << i)) != 0;
+                values.put(FIELDS[i], invalid ? invalidValue(FIELDS[i], testData) : validValue(FIELDS[i], testData));
+                if (invalid) {
+                    invalidFields.add(FIELDS[i]);
+                }
+            }
+            cases.add(new Case("invalid " + String.join("+", invalidFields), values,
+                    Collections.unmodifiableList(invalidFields)));
+        }
+        return cases;
+    }
+
+    private static String validValue(String field, TestData testData) {
+        switch (field) {
+            case FIRST_NAME:
+                return testData.getRandomFirstName();
+            case LAST_NAME:
+                return testData.getRandomLastName();
+            case DATE_OF_BIRTH:
+                return testData.getRandomDateOfBirth();
+            case EMAIL:
+                return testData.getRandomEmail();
+            default:
+                return testData.getRandomPhone();
+        }
+    }
+
+    private static String invalidValue(String field, TestData testData) {
+        switch (field) {
+            case FIRST_NAME:
+            case LAST_NAME:
+                return ""; // Required field left empty
+            case DATE_OF_BIRTH:
+                return "31/02/2099"; // Impossible date in the future
+            case EMAIL:
+                return testData.getRandomInvalidEmail();
+            default:
+                return testData.getRandomInvalidPhone();
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package utils;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Visual regression checks against baseline screenshots per page object and checkpoint,
+ * stored as visual.baselineDir/&lt;Page&gt;/&lt;checkpoint&gt;.png.
+ *
+ * A screenshot byte-identical to its baseline passes without decoding. Otherwise it is
+ * decoded into a reusable per-thread pixel buffer and split into square tiles; a tile whose
+ * hash matches the baseline's cached tile hash is skipped, and only the remaining tiles get
+ * a per-pixel perceptual (YIQ) comparison. Masked regions (elements passed by the page and
+ * CSS selectors from visual.mask.&lt;Page&gt;) are left out.
+ *
+ * visual.mode: off, warn, fail (a diff or a missing baseline fails the test) or update
+ * (rewrite baselines).
+ */
+public class VisualCheck {
+    private static final String DIFF_DIR = "target/visual/";
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    // Viewport width in CSS pixels and mask rectangles, in one script execution
+    private static final String MASK_SCRIPT =
+            "var els = arguments[0].slice();" +
+                    "arguments[1].forEach(function(s) { els.push.apply(els, document.querySelectorAll(s)); });" +
+                    "return {width: window.innerWidth, rects: els.map(function(e) {" +
+                    " var r = e.getBoundingClientRect(); return [r.left, r.top, r.width, r.height]; })};";
+
+    // Largest possible YIQ delta, as used by pixelmatch
+    private static final double MAX_DELTA = 35215;
+
+    private static final Map<Path, Baseline> baselines = new ConcurrentHashMap<>();
+    private static final ThreadLocal<int[]> pixelBuffer = new ThreadLocal<>();
+    private static final Queue<Result> results = new ConcurrentLinkedQueue<>();
+
+    static {
+        // Decode in memory rather than through temporary files
+        ImageIO.setUseCache(false);
+    }
+
+    private VisualCheck() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Outcome of one checkpoint comparison
+     */
+    public static class Result {
+        public final String page;
+        public final String checkpoint;
+        public final int tiles;
+        public final int tilesCompared;
+        public final int tilesChanged;
+        public final long diffPixels;
+        public final long millis;
+        public final String diffFile;
+
+        Result(String page, String checkpoint, int tiles, int tilesCompared, int tilesChanged, long diffPixels,
+               long millis, String diffFile) {
+            this.page = page;
+            this.checkpoint = checkpoint;
+            this.tiles = tiles;
+            this.tilesCompared = tilesCompared;
+            this.tilesChanged = tilesChanged;
+            this.diffPixels = diffPixels;
+            this.millis = millis;
+            this.diffFile = diffFile;
+        }
+
+        public boolean isMatch() {
+            return diffFile == null;
+        }
+    }
+
+    /**
+     * Decoded baseline with its per-tile hashes, kept for the whole run
+     */
+    private static class Baseline {
+        final byte[] png;
+        final int width;
+        final int height;
+        final int[] pixels;
+        final long[] tileHashes;
+
+        Baseline(byte[] png, int width, int height, int[] pixels, long[] tileHashes) {
+            this.png = png;
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+            this.tileHashes = tileHashes;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return !"off".equalsIgnoreCase(getMode());
+    }
+
+    private static String getMode() {
+        return ConfigReader.getProperty("visual.mode", "off");
+    }
+
+    /**
+     * Compares the current viewport with the baseline of a page checkpoint. A missing baseline
+     * is written in warn mode and fails the check in fail mode.
+     * @param driver Driver showing the page
+     * @param page Simple name of the page object class
+     * @param checkpoint Checkpoint name, unique per page object
+     * @param masks Elements with dynamic content to leave out of the comparison
+     * @return The comparison result, or null when a baseline was written or the check failed to run
+     */
+    public static Result check(WebDriver driver, String page, String checkpoint, List<WebElement> masks) {
+        long start = System.currentTimeMillis();
+        Path baselineFile = Paths.get(ConfigReader.getProperty("visual.baselineDir", "src/test/resources/visual-baselines"),
+                page, checkpoint.replaceAll("[^A-Za-z0-9_-]", "_") + ".png");
+        Result result = null;
+        String missingBaseline = null;
+        try {
+            byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+
+            boolean update = "update".equalsIgnoreCase(getMode());
+            boolean missing = !Files.exists(baselineFile);
+            if (missing && "fail".equalsIgnoreCase(getMode())) {
+                // A new or renamed checkpoint must not pass unseen; its screenshot is kept for review
+                missingBaseline = writeDiff(page, checkpoint, png, null);
+            } else if (update || missing) {
+                Files.createDirectories(baselineFile.getParent());
+                Files.write(baselineFile, png);
+                baselines.remove(baselineFile);
+                System.out.println("Wrote visual baseline " + baselineFile);
+                return null;
+            } else {
+                result = compareWithBaseline(driver, page, checkpoint, masks, png, baselineFile, start);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to run visual check " + page + "." + checkpoint + ": " + e.getMessage());
+            return null;
+        }
+        if (missingBaseline != null) {
+            Assert.fail("No visual baseline " + baselineFile + " for " + page + "." + checkpoint + ", screenshot saved to "
+                    + missingBaseline + "; run with visual.mode=update to accept it");
+        }
+
+        results.add(result);
+        StreamingReportWriter.recordStep("visual " + page + "." + checkpoint, result.millis);
+        if (!result.isMatch()) {
+            String message = "Visual difference on " + page + "." + checkpoint + ": " + result.diffPixels
+                    + " pixels in " + result.tilesChanged + " tiles, see " + result.diffFile;
+            if ("fail".equalsIgnoreCase(getMode())) {
+                Assert.fail(message);
+            }
+            System.out.println("WARNING: " + message);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Result compareWithBaseline(WebDriver driver, String page, String checkpoint, List<WebElement> masks,
+                                              byte[] png, Path baselineFile, long start) throws IOException {
+        Baseline baseline = getBaseline(baselineFile);
+        int tileSize = Integer.parseInt(ConfigReader.getProperty("visual.tileSize", "32"));
+        int tiles = tileCount(baseline.width, tileSize) * tileCount(baseline.height, tileSize);
+
+        // Chrome encodes identical frames to identical bytes
+        if (Arrays.equals(png, baseline.png)) {
+            return new Result(page, checkpoint, tiles, 0, 0, 0, System.currentTimeMillis() - start, null);
+        }
+        List<String> selectors = new ArrayList<>();
+        for (String selector : ConfigReader.getProperty("visual.mask." + page, "").split(",")) {
+            if (!selector.trim().isEmpty()) {
+                selectors.add(selector.trim());
+            }
+        }
+        Map<String, Object> layout = (Map<String, Object>) ((JavascriptExecutor) driver)
+                .executeScript(MASK_SCRIPT, masks, selectors);
+        return compare(page, checkpoint, png, baseline, tileSize, layout, start);
+    }
+
+    private static Result compare(String page, String checkpoint, byte[] png, Baseline baseline, int tileSize,
+                                  Map<String, Object> layout, long start) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int tilesX = tileCount(baseline.width, tileSize);
+        int tilesY = tileCount(baseline.height, tileSize);
+
+        if (width != baseline.width || height != baseline.height) {
+            String diffFile = writeDiff(page, checkpoint, png, null);
+            return new Result(page, checkpoint, tilesX * tilesY, 0, tilesX * tilesY, (long) width * height,
+                    System.currentTimeMillis() - start, diffFile);
+        }
+
+        int[] pixels = toPixels(image, pixelBuffer.get());
+        pixelBuffer.set(pixels);
+        boolean[] masked = maskPixels(layout, width, height);
+
+        double threshold = Double.parseDouble(ConfigReader.getProperty("visual.threshold", "0.1"));
+        double maxDelta = MAX_DELTA * threshold * threshold;
+        boolean[] changedTiles = new boolean[tilesX * tilesY];
+        int compared = 0;
+        int changed = 0;
+        long diffPixels = 0;
+
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                int tile = ty * tilesX + tx;
+                boolean hasMask = masked != null && intersectsMask(masked, width, height, tx, ty, tileSize);
+                if (!hasMask && tileHash(pixels, width, height, tx, ty, tileSize) == baseline.tileHashes[tile]) {
+                    continue;
+                }
+                compared++;
+                long tileDiff = diffTile(pixels, baseline.pixels, masked, width, height, tx, ty, tileSize, maxDelta);
+                if (tileDiff > 0) {
+                    changedTiles[tile] = true;
+                    changed++;
+                    diffPixels += tileDiff;
+                }
+            }
+        }
+
+        double maxDiffRatio = Double.parseDouble(ConfigReader.getProperty("visual.maxDiffRatio", "0.0005"));
+        String diffFile = null;
+        if (diffPixels > maxDiffRatio * width * height) {
+            diffFile = writeDiff(page, checkpoint, png, highlight(image, changedTiles, tilesX, tileSize));
+        }
+        return new Result(page, checkpoint, tilesX * tilesY, compared, changed, diffPixels,
+                System.currentTimeMillis() - start, diffFile);
+    }
+
+    private static Baseline getBaseline(Path file) {
+        return baselines.computeIfAbsent(file, path -> {
+            try {
+                byte[] png = Files.readAllBytes(path);
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+                int width = image.getWidth();
+                int height = image.getHeight();
+                int[] pixels = toPixels(image, null);
+                int tileSize = Integer.parseInt(ConfigReader.getProperty("visual.tileSize", "32"));
+                int tilesX = tileCount(width, tileSize);
+                int tilesY = tileCount(height, tileSize);
+                long[] hashes = new long[tilesX * tilesY];
+                for (int ty = 0; ty < tilesY; ty++) {
+                    for (int tx = 0; tx < tilesX; tx++) {
+                        hashes[ty * tilesX + tx] = tileHash(pixels, width, height, tx, ty, tileSize);
+                    }
+                }
+                return new Baseline(png, width, height, pixels, hashes);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read visual baseline " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Copies the image into a packed RGB buffer, reusing the given one when it is big enough
+     */
+    private static int[] toPixels(BufferedImage image, int[] buffer) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int count = width * height;
+        if (buffer == null || buffer.length < count) {
+            buffer = new int[count];
+        }
+
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_4BYTE_ABGR)
+                && image.getRaster().getDataBuffer() instanceof DataBufferByte) {
+            // Read the decoded bytes directly, much faster than getRGB's per-pixel colour model calls
+            byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            int stride = type == BufferedImage.TYPE_3BYTE_BGR ? 3 : 4;
+            for (int i = 0, p = stride - 3; i < count; i++, p += stride) {
+                buffer[i] = (data[p + 2] & 0xFF) << 16 | (data[p + 1] & 0xFF) << 8 | (data[p] & 0xFF);
+            }
+        } else {
+            image.getRGB(0, 0, width, height, buffer, 0, width);
+            for (int i = 0; i < count; i++) {
+                buffer[i] &= 0xFFFFFF;
+            }
+        }
+        return buffer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean[] maskPixels(Map<String, Object> layout, int width, int height) {
+        List<List<Number>> rects = (List<List<Number>>) layout.get("rects");
+        if (rects == null || rects.isEmpty()) {
+            return null;
+        }
+        // Screenshots are in device pixels, element rectangles in CSS pixels
+        double scale = width / ((Number) layout.get("width")).doubleValue();
+        boolean[] masked = new boolean[width * height];
+        for (List<Number> rect : rects) {
+            int x0 = Math.min(width, Math.max(0, (int) Math.floor(rect.get(0).doubleValue() * scale)));
+            int y0 = Math.max(0, (int) Math.floor(rect.get(1).doubleValue() * scale));
+            int x1 = Math.min(width, (int) Math.ceil((rect.get(0).doubleValue() + rect.get(2).doubleValue()) * scale));
+            int y1 = Math.min(height, (int) Math.ceil((rect.get(1).doubleValue() + rect.get(3).doubleValue()) * scale));
+            for (int y = y0; y < y1; y++) {
+                Arrays.fill(masked, y * width + x0, Math.max(y * width + x0, y * width + x1), true);
+            }
+        }
+        return masked;
+    }
+
+    private static boolean intersectsMask(boolean[] masked, int width, int height, int tx, int ty, int tileSize) {
+        int x1 = Math.min(width, (tx + 1) * tileSize);
+        int y1 = Math.min(height, (ty + 1) * tileSize);
+        for (int y = ty * tileSize; y < y1; y++) {
+            for (int i = y * width + tx * tileSize, end = y * width + x1; i < end; i++) {
+                if (masked[i]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long tileHash(int[] pixels, int width, int height, int tx, int ty, int tileSize) {
+        long hash = 0xcbf29ce484222325L;
+        int x1 = Math.min(width, (tx + 1) * tileSize);
+        int y1 = Math.min(height, (ty + 1) * tileSize);
+        for (int y = ty * tileSize; y < y1; y++) {
+            for (int i = y * width + tx * tileSize, end = y * width + x1; i < end; i++) {
+                hash = (hash ^ pixels[i]) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Number of unmasked pixels in a tile whose YIQ colour distance exceeds the threshold
+     */
+    private static long diffTile(int[] actual, int[] expected, boolean[] masked, int width, int height,
+                                 int tx, int ty, int tileSize, double maxDelta) {
+        long diff = 0;
+        int x1 = Math.min(width, (tx + 1) * tileSize);
+        int y1 = Math.min(height, (ty + 1) * tileSize);
+        for (int y = ty * tileSize; y < y1; y++) {
+            for (int i = y * width + tx * tileSize, end = y * width + x1; i < end; i++) {
+                if (actual[i] == expected[i] || (masked != null && masked[i])) {
+                    continue;
+                }
+                if (colorDelta(actual[i], expected[i]) > maxDelta) {
+                    diff++;
+                }
+            }
+        }
+        return diff;
+    }
+
+    private static double colorDelta(int a, int b) {
+        int r1 = a >> 16 & 0xFF, g1 = a >> 8 & 0xFF, b1 = a & 0xFF;
+        int r2 = b >> 16 & 0xFF, g2 = b >> 8 & 0xFF, b2 = b & 0xFF;
+        double y = (r1 - r2) * 0.29889531 + (g1 - g2) * 0.58662247 + (b1 - b2) * 0.11448223;
+        double i = (r1 - r2) * 0.59597799 - (g1 - g2) * 0.27417610 - (b1 - b2) * 0.32180189;
+        double q = (r1 - r2) * 0.21147017 - (g1 - g2) * 0.52261711 + (b1 - b2) * 0.31114694;
+        return 0.5053 * y * y + 0.299 * i * i + 0.1957 * q * q;
+    }
+
+    /**
+     * Outlines the changed tiles in red on a copy of the screenshot
+     */
+    private static BufferedImage highlight(BufferedImage image, boolean[] changedTiles, int tilesX, int tileSize) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = copy.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.setColor(Color.RED);
+        for (int tile = 0; tile < changedTiles.length; tile++) {
+            if (changedTiles[tile]) {
+                graphics.drawRect((tile % tilesX) * tileSize, (tile / tilesX) * tileSize, tileSize - 1, tileSize - 1);
+            }
+        }
+        graphics.dispose();
+        return copy;
+    }
+
+    private static String writeDiff(String page, String checkpoint, byte[] actual, BufferedImage diff) throws IOException {
+        Path dir = Paths.get(DIFF_DIR);
+        Files.createDirectories(dir);
+        String name = page + "_" + checkpoint + "_" + LocalDateTime.now().format(DATE_FORMATTER);
+        Files.write(dir.resolve(name + "_actual.png"), actual);
+        if (diff == null) {
+            return dir.resolve(name + "_actual.png").toString();
+        }
+        Path diffFile = dir.resolve(name + "_diff.png");
+        ImageIO.write(diff, "png", diffFile.toFile());
+        return diffFile.toString();
+    }
+
+    private static int tileCount(int pixels, int tileSize) {
+        return (pixels + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Per checkpoint comparison counts and timings, for the suite summary report
+     */
+    public static String getReportSection() {
+        Map<String, long[]> totals = new TreeMap<>();
+        for (Result result : results) {
+            long[] total = totals.computeIfAbsent(result.page + "." + result.checkpoint, k -> new long[4]);
+            total[0]++;
+            total[1] += result.millis;
+            total[2] += result.tilesCompared;
+            total[3] += result.isMatch() ? 0 : 1;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Visual Checks:\n");
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            long[] total = entry.getValue();
+            sb.append(String.format("- %s (%d checks) avgMs=%.1f avgTilesCompared=%.1f differences=%d%n",
+                    entry.getKey(), total[0], (double) total[1] / total[0], (double) total[2] / total[0], total[3]));
+        }
+        return sb.toString();
+    }
+}
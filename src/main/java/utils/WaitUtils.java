@@ -1,19 +1,33 @@
 package utils;
 import com.amex.ui.framework.config.ConfigReader;
+import com.amex.ui.framework.pageobjects.LazyElement;
 import org.openqa.selenium.By;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.JavascriptException;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.internal.LocatingElementHandler;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
+import com.amex.ui.framework.trace.Span;
+import com.amex.ui.framework.trace.Tracer;
+
+import java.lang.reflect.Proxy;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public class WaitUtils {
     private final WebDriver driver;
@@ -23,6 +37,19 @@ public class WaitUtils {
 
     private static final int DEFAULT_TIMEOUT = 30;
     private static final int DEFAULT_POLLING_INTERVAL = 500; // ms
+    private static final int NAVIGATION_RETRY_INTERVAL = 100; // ms
+
+    // Script errors raised because the document went away mid-call, as Chrome, Firefox and Safari word them
+    private static final Pattern NAVIGATION_ERROR = Pattern.compile(
+            "(?i)unloaded|navigated|execution context was destroyed|cannot find context|frame.*detached");
+
+    private static final String ALL_VISIBLE_SCRIPT =
+            "var els = arguments[0];" +
+                    "return els.length > 0 && els.every(function(e) {" +
+                    " if (!e.isConnected) return false;" +
+                    " var s = getComputedStyle(e), r = e.getBoundingClientRect();" +
+                    " return s.display !== 'none' && s.visibility !== 'hidden' && parseFloat(s.opacity) !== 0" +
+                    " && r.width > 0 && r.height > 0; });";
 
     /**
      * Constructor with configurable timeout
@@ -47,8 +74,10 @@ public class WaitUtils {
      * Wait for element to be visible
      */
     public void waitForElementVisibility(WebElement element) {
-
-        wait.until(ExpectedConditions.visibilityOf(element));
+        try (Span span = Tracer.start("wait")) {
+            span.attr("condition", "visibilityOf").attr("locator", element);
+            wait.until(ExpectedConditions.visibilityOf(element));
+        }
     }
 
     /**
@@ -56,8 +85,11 @@ public class WaitUtils {
      */
     public void waitForElementVisibility(WebElement element, int timeoutInSeconds) {
 
-        new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds))
-                .until(ExpectedConditions.visibilityOf(element));
+        try (Span span = Tracer.start("wait")) {
+            span.attr("condition", "visibilityOf").attr("locator", element).attr("timeoutSeconds", timeoutInSeconds);
+            new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds))
+                    .until(ExpectedConditions.visibilityOf(element));
+        }
     }
 
     /**
@@ -65,15 +97,104 @@ public class WaitUtils {
      */
     public void waitForElementsVisibility(List<WebElement> elements) {
 
-        wait.until(ExpectedConditions.visibilityOfAllElements(elements));
+        // One script per poll for the whole list instead of one isDisplayed command per element
+        try (Span span = Tracer.start("wait")) {
+            span.attr("condition", "allVisible").attr("elements", elements.size());
+            fluentWait.until(driver -> (Boolean) ((JavascriptExecutor) driver).executeScript(ALL_VISIBLE_SCRIPT, elements));
+        }
+    }
+
+    // Polls once per animation frame inside the page until the element can receive a click at its centre
+    private static final String ACTIONABLE_SCRIPT =
+            "var el = arguments[0], deadline = Date.now() + arguments[1], done = arguments[arguments.length - 1];" +
+                    "var lastRect = null;" +
+                    "function describe(e) {" +
+                    " if (!e || !e.tagName) return 'nothing';" +
+                    " var d = e.tagName.toLowerCase();" +
+                    " if (e.id) d += '#' + e.id;" +
+                    " if (typeof e.className === 'string' && e.className.trim()) d += '.' + e.className.trim().split(/\\s+/).join('.');" +
+                    " var t = (e.textContent || '').trim().replace(/\\s+/g, ' ');" +
+                    " return t ? d + ' \"' + t.substring(0, 40) + '\"' : d; }" +
+                    "function owns(hit) {" +
+                    " for (var n = hit; n; n = n.parentNode || n.host) { if (n === el) return true; }" +
+                    " return false; }" +
+                    "function check() {" +
+                    " if (!el.isConnected) return {reason: 'detached from the document'};" +
+                    " var s = getComputedStyle(el), r = el.getBoundingClientRect();" +
+                    " if (s.display === 'none' || s.visibility === 'hidden' || parseFloat(s.opacity) === 0 || r.width === 0 || r.height === 0)" +
+                    "  return {reason: 'not visible'};" +
+                    " if (el.disabled || el.getAttribute('aria-disabled') === 'true' || el.closest('fieldset[disabled]'))" +
+                    "  return {reason: 'disabled'};" +
+                    " var x = r.left + r.width / 2, y = r.top + r.height / 2;" +
+                    " if (x < 0 || y < 0 || x >= innerWidth || y >= innerHeight) {" +
+                    "  el.scrollIntoView({block: 'center', inline: 'center'}); lastRect = null;" +
+                    "  return {reason: 'outside the viewport'}; }" +
+                    " var moved = !lastRect || lastRect.x !== r.x || lastRect.y !== r.y" +
+                    "  || lastRect.width !== r.width || lastRect.height !== r.height;" +
+                    " lastRect = r;" +
+                    " if (moved) return {reason: 'not stable (moving or resizing)'};" +
+                    " var hit = document.elementFromPoint(x, y);" +
+                    " while (hit && hit.shadowRoot) { var inner = hit.shadowRoot.elementFromPoint(x, y); if (!inner || inner === hit) break; hit = inner; }" +
+                    " if (!owns(hit)) return {reason: 'covered', blocker: describe(hit)};" +
+                    " return {ok: true}; }" +
+                    "function poll() {" +
+                    " var result = check();" +
+                    " if (result.ok || Date.now() >= deadline) { result.element = describe(el); done(result); return; }" +
+                    // Hidden tabs (tab mode) get no animation frames
+                    " if (document.hidden) setTimeout(poll, 50); else requestAnimationFrame(poll); }" +
+                    "poll();";
+
+    /**
+     * Wait for element to be actionable: attached, visible, stable, enabled and the element hit
+     * at its centre, checked inside the page in a single call, scrolling it into view if needed
+     * @throws ElementClickInterceptedException If another element still covers it at the timeout, naming that element
+     * @throws ElementNotInteractableException If it is still detached, hidden, moving or disabled at the timeout
+     */
+    @SuppressWarnings("unchecked")
+    public void waitForActionable(WebElement element) {
+        try (Span span = Tracer.start("wait").attr("condition", "actionable").attr("locator", element)) {
+            int timeout = Integer.parseInt(ConfigReader.getProperty("explicitWait", String.valueOf(DEFAULT_TIMEOUT)));
+            long deadline = System.currentTimeMillis() + timeout * 1000L;
+
+            Map<String, Object> result;
+            while (true) {
+                try {
+                    result = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(
+                            ACTIONABLE_SCRIPT, element, Math.max(0, deadline - System.currentTimeMillis()));
+                    break;
+                } catch (StaleElementReferenceException e) {
+                    // The document was replaced while waiting: only a lazy element is found again in the new one
+                    if (!isRelocatable(element) || System.currentTimeMillis() >= deadline) {
+                        throw e;
+                    }
+                    sleep(NAVIGATION_RETRY_INTERVAL);
+                } catch (JavascriptException e) {
+                    if (!isNavigationError(e) || System.currentTimeMillis() >= deadline) {
+                        throw e;
+                    }
+                    sleep(NAVIGATION_RETRY_INTERVAL);
+                }
+            }
+
+            if (!Boolean.TRUE.equals(result.get("ok"))) {
+                String message = result.get("element") + " not actionable after " + timeout + "s: " + result.get("reason");
+                if (result.get("blocker") != null) {
+                    span.attr("blocker", result.get("blocker"));
+                    throw new ElementClickInterceptedException(message + " by " + result.get("blocker"));
+                }
+                throw new ElementNotInteractableException(message);
+            }
+        }
     }
 
     /**
      * Wait for element to be clickable
      */
     public void waitForElementToBeClickable(WebElement element) {
-
-        wait.until(ExpectedConditions.elementToBeClickable(element));
+        try (Span span = Tracer.start("wait")) {
+            span.attr("condition", "elementToBeClickable").attr("locator", element);
+            wait.until(ExpectedConditions.elementToBeClickable(element));
+        }
     }
 
     /**
@@ -81,62 +202,148 @@ public class WaitUtils {
      */
     public void waitForElementToBeClickable(WebElement element, int timeoutInSeconds) {
 
-        new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds))
-                .until(ExpectedConditions.elementToBeClickable(element));
+        try (Span span = Tracer.start("wait")) {
+            span.attr("condition", "elementToBeClickable").attr("locator", element).attr("timeoutSeconds", timeoutInSeconds);
+            new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds))
+                    .until(ExpectedConditions.elementToBeClickable(element));
+        }
     }
 
     /**
-     * Wait for page to be fully loaded
+     * Wait for page to be fully loaded and its network to go quiet, with the configured defaults
      */
     public void waitForPageLoad() {
+        waitForPageLoad(getConfiguredQuietWindowMs(), getConfiguredIgnoredRequests());
+    }
 
+    /**
+     * Wait for document.readyState to be complete, no relevant fetch/XHR in flight and no
+     * network activity for the quiet window, checked inside the page in a single call
+     * @param quietWindowMs How long the network must stay quiet
+     * @param ignoredRequests URL regexes of requests that never settle (long-polling, beacons)
+     */
+    public void waitForPageLoad(long quietWindowMs, List<String> ignoredRequests) {
+        validateIgnoredRequests(ignoredRequests);
+        try (Span span = Tracer.start("wait").attr("condition", "networkIdle").attr("quietWindowMs", quietWindowMs)) {
+            awaitPageLoad(quietWindowMs, ignoredRequests, span);
+        }
+    }
 
-        // First wait for document.readyState to be complete
-        wait.until(driver -> ((JavascriptExecutor) driver)
-                .executeScript("return document.readyState").equals("complete"));
+    @SuppressWarnings("unchecked")
+    private void awaitPageLoad(long quietWindowMs, List<String> ignoredRequests, Span span) {
+        int timeout = Integer.parseInt(ConfigReader.getProperty("explicitWait", String.valueOf(DEFAULT_TIMEOUT)));
+        long deadline = System.currentTimeMillis() + timeout * 1000L;
 
-        // Then wait for jQuery to be inactive if present
-        try {
-            wait.until(driver -> {
-                JavascriptExecutor js = (JavascriptExecutor) driver;
-                return (Boolean) js.executeScript(
-                        "return (typeof jQuery === 'undefined' || jQuery.active === 0)");
-            });
-        } catch (Exception e) {
-            // jQuery might not be present on the page, which is fine
+        Map<String, Object> result;
+        while (true) {
+            try {
+                result = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(
+                        NetworkIdle.WAIT_FOR_IDLE_SCRIPT, quietWindowMs, ignoredRequests,
+                        Math.max(0, deadline - System.currentTimeMillis()));
+                break;
+            } catch (JavascriptException e) {
+                // The document was replaced while waiting (navigation still in progress): check the new one
+                // once it has had a moment to load. Any other script error will not go away on a retry.
+                if (!isNavigationError(e)) {
+                    throw e;
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new TimeoutException("Page did not finish loading within " + timeout + "s", e);
+                }
+                sleep(NAVIGATION_RETRY_INTERVAL);
+            }
+        }
 
+        if (!Boolean.TRUE.equals(result.get("idle"))) {
+            if (!"complete".equals(result.get("readyState"))) {
+                throw new TimeoutException("Page did not finish loading within " + timeout + "s");
+            }
+            // Loaded but still busy, e.g. an unlisted long-polling request: report it and carry on
+            span.attr("pending", result.get("pending"));
+            System.out.println("WARNING: Network not idle after " + timeout + "s, pending requests: " + result.get("pending"));
         }
+    }
 
-        // Finally wait for any AJAX calls to complete
-        try {
-            wait.until(driver -> {
-                JavascriptExecutor js = (JavascriptExecutor) driver;
-                return (Boolean) js.executeScript(
-                        "return (window.XMLHttpRequest.DONE === 4 || " +
-                                "Array.prototype.slice.call(window.performance.getEntriesByType('resource')" +
-                                ".filter(n => n.initiatorType === 'xmlhttprequest'))" +
-                                ".every(({duration}) => duration > 0))");
-            });
-        } catch (Exception e) {
-            // This advanced check might fail in some browsers
+    /**
+     * Lazy page elements without @CacheLookup locate themselves again on every call
+     */
+    private static boolean isRelocatable(WebElement element) {
+        if (element instanceof LazyElement) {
+            return ((LazyElement) element).isRelocatable();
+        }
+        return Proxy.isProxyClass(element.getClass()) && Proxy.getInvocationHandler(element) instanceof LocatingElementHandler;
+    }
+
+    private static boolean isNavigationError(JavascriptException e) {
+        return e.getRawMessage() != null && NAVIGATION_ERROR.matcher(e.getRawMessage()).find();
+    }
+
+    /**
+     * Fails on an ignored request pattern that does not compile, rather than on every script call using it
+     */
+    private static void validateIgnoredRequests(List<String> ignoredRequests) {
+        for (String pattern : ignoredRequests) {
+            try {
+                Pattern.compile(pattern);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid readiness.ignoredRequests pattern '" + pattern
+                        + "': " + e.getDescription(), e);
+            }
+        }
+    }
+
+    /**
+     * Wait for a page's ready elements to be visible, checked in a single script call per poll
+     * @return Time-to-usable and full load time so far, as returned by {@link PageReadiness#READY_SCRIPT}
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> waitForReadyElements(List<WebElement> elements) {
+        try (Span span = Tracer.start("wait")) {
+            span.attr("condition", "readyElements").attr("elements", elements.size());
+            return fluentWait.until(driver -> (Map<String, Object>) ((JavascriptExecutor) driver)
+                    .executeScript(PageReadiness.READY_SCRIPT, elements));
+        }
+    }
+
+    /**
+     * Default quiet window from readiness.quietWindowMs
+     */
+    public static long getConfiguredQuietWindowMs() {
+        return Long.parseLong(ConfigReader.getProperty("readiness.quietWindowMs", "500"));
+    }
 
+    /**
+     * Default ignored request regexes from the comma-separated readiness.ignoredRequests
+     */
+    public static List<String> getConfiguredIgnoredRequests() {
+        String patterns = ConfigReader.getProperty("readiness.ignoredRequests", "");
+        List<String> ignored = new ArrayList<>();
+        for (String pattern : patterns.split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                ignored.add(pattern.trim());
+            }
         }
+        return ignored;
     }
 
     /**
      * Wait for URL to contain specific text
      */
     public void waitForUrlContains(String urlPart) {
-
-        wait.until(ExpectedConditions.urlContains(urlPart));
+        try (Span span = Tracer.start("wait")) {
+            span.attr("condition", "urlContains").attr("url", urlPart);
+            wait.until(ExpectedConditions.urlContains(urlPart));
+        }
     }
 
     /**
      * Wait for URL to match a pattern
      */
     public void waitForUrlMatches(String regex) {
-
-        wait.until(ExpectedConditions.urlMatches(regex));
+        try (Span span = Tracer.start("wait")) {
+            span.attr("condition", "urlMatches").attr("url", regex);
+            wait.until(ExpectedConditions.urlMatches(regex));
+        }
     }
 
     /**
@@ -0,0 +1,174 @@
+package com.amex.ui.framework.broker;
+
+import com.amex.ui.framework.config.ConfigReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Leases sessions from a BrowserBroker running in this JVM. Its pool is filled in grid mode from
+ * a stub W3C endpoint, so the lease, attach and return path runs end to end without a browser.
+ */
+public class BrowserBrokerTest {
+    private HttpServer server;
+    private ConfigReader.Overrides config;
+    private final Set<String> liveSessions = ConcurrentHashMap.newKeySet();
+    private final Set<String> killedSessions = ConcurrentHashMap.newKeySet();
+    private final List<String> quitSessions = new CopyOnWriteArrayList<>();
+    private final Map<String, String> urls = new ConcurrentHashMap<>();
+
+    @BeforeClass
+    public void startBroker() throws IOException, InterruptedException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/session", this::handle);
+        server.start();
+
+        int brokerPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            brokerPort = socket.getLocalPort();
+        }
+        config = ConfigReader.overrides()
+                .set("grid.enabled", "true")
+                .set("grid.url", "http://127.0.0.1:" + server.getAddress().getPort())
+                .set("broker.port", String.valueOf(brokerPort))
+                .set("broker.poolSize", "2")
+                .set("broker.warmSessions", "1")
+                .set("broker.leaseTimeoutSeconds", "10");
+
+        Thread broker = new Thread(() -> {
+            try {
+                BrowserBroker.main(new String[0]);
+            } catch (IOException e) {
+                System.err.println("Browser broker stopped: " + e.getMessage());
+            }
+        }, "browser-broker");
+        broker.setDaemon(true);
+        broker.start();
+        waitFor(() -> liveSessions.size() == 1, "warm session");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        if (config != null) {
+            config.close();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test(description = "A leased session is driven over the W3C protocol and discarded on return, as it has no CDP reset")
+    public void testLeaseAttachAndReturn() throws InterruptedException {
+        WebDriver driver = BrokerClient.lease();
+        String sessionId = ((RemoteWebDriver) driver).getSessionId().toString();
+        Assert.assertTrue(liveSessions.contains(sessionId), "Lease is not one of the pooled sessions");
+        Assert.assertTrue(BrokerClient.isLeased(driver));
+
+        driver.get("https://example.test/apply");
+        Assert.assertEquals(driver.getCurrentUrl(), "https://example.test/apply");
+        Assert.assertEquals(driver.getTitle(), "Stub " + sessionId);
+
+        BrokerClient.giveBack(driver, false);
+        Assert.assertFalse(BrokerClient.isLeased(driver));
+        // Without CDP the cookies and storage of other origins cannot be cleared, so the session is replaced
+        waitFor(() -> quitSessions.contains(sessionId) && liveSessions.size() == 1, "replacement session");
+
+        WebDriver next = BrokerClient.lease();
+        String nextId = ((RemoteWebDriver) next).getSessionId().toString();
+        Assert.assertNotEquals(nextId, sessionId, "A session that could not be reset was leased again");
+        Assert.assertEquals(next.getCurrentUrl(), "about:blank");
+        BrokerClient.giveBack(next, true);
+        waitFor(() -> quitSessions.contains(nextId), "broken session quit");
+    }
+
+    @Test(description = "Commands on a session the driver no longer knows fail with the W3C error")
+    public void testDriverErrorsAreDecoded() throws InterruptedException {
+        WebDriver driver = BrokerClient.lease();
+        String sessionId = ((RemoteWebDriver) driver).getSessionId().toString();
+        killedSessions.add(sessionId);
+        try {
+            Assert.assertThrows(NoSuchSessionException.class, driver::getTitle);
+        } finally {
+            BrokerClient.giveBack(driver, true);
+        }
+        waitFor(() -> quitSessions.contains(sessionId), "broken session quit");
+    }
+
+    /**
+     * Minimal W3C endpoint: new session, quit, navigation and title; other commands succeed with null
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        exchange.getRequestBody().readAllBytes();
+
+        if (path.length == 2 && "POST".equals(method)) {
+            String id = UUID.randomUUID().toString();
+            liveSessions.add(id);
+            urls.put(id, "about:blank");
+            respond(exchange, 200, "{\"value\":{\"sessionId\":\"" + id
+                    + "\",\"capabilities\":{\"browserName\":\"chrome\",\"browserVersion\":\"119.0\"}}}");
+            return;
+        }
+        String id = path[2];
+        String command = path.length > 3 ? String.join("/", List.of(path).subList(3, path.length)) : "";
+        if (command.isEmpty() && "DELETE".equals(method) && liveSessions.remove(id)) {
+            quitSessions.add(id);
+            respond(exchange, 200, "{\"value\":null}");
+            return;
+        }
+        if (!liveSessions.contains(id) || killedSessions.contains(id)) {
+            respond(exchange, 404, "{\"value\":{\"error\":\"invalid session id\",\"message\":\"no such session\",\"stacktrace\":\"\"}}");
+            return;
+        }
+        if ("url".equals(command) && "POST".equals(method)) {
+            // The stub only knows the one URL the test navigates to
+            urls.put(id, "https://example.test/apply");
+            respond(exchange, 200, "{\"value\":null}");
+        } else if ("url".equals(command)) {
+            respond(exchange, 200, "{\"value\":\"" + urls.get(id) + "\"}");
+        } else if ("title".equals(command)) {
+            respond(exchange, 200, "{\"value\":\"Stub " + id + "\"}");
+        } else {
+            respond(exchange, 200, "{\"value\":null}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.amex.ui.framework.config;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that scoped overrides put back the configuration they found, including keys that
+ * config.properties does not define.
+ */
+public class ConfigReaderTest {
+
+    @Test(description = "Closing restores overridden values and removes keys that were not set")
+    public void testOverridesRestore() {
+        String browser = ConfigReader.getProperty("browser");
+        try (ConfigReader.Overrides outer = ConfigReader.overrides()) {
+            outer.set("browser", "firefox");
+            try (ConfigReader.Overrides inner = ConfigReader.overrides()) {
+                inner.set("browser", "edge")
+                        .set("test.unsetKey", "first")
+                        .set("test.unsetKey", "second");
+                Assert.assertEquals(ConfigReader.getProperty("browser"), "edge");
+                Assert.assertEquals(ConfigReader.getProperty("test.unsetKey"), "second");
+            }
+            Assert.assertEquals(ConfigReader.getProperty("browser"), "firefox");
+            Assert.assertNull(ConfigReader.getProperty("test.unsetKey", null));
+        }
+        Assert.assertEquals(ConfigReader.getProperty("browser"), browser);
+    }
+}
@@ -0,0 +1,89 @@
+package com.amex.ui.framework.lint;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * Parses small page sources and checks the resulting tree with XPath, as the linter queries it.
+ * Lives in the lint package as the parser is package-private.
+ */
+public class HtmlParserTest {
+
+    @Test(description = "Elements without end tags are closed where a browser would close them")
+    public void testImpliedEndTags() throws XPathExpressionException {
+        Document list = HtmlParser.parse("<ul><li>One<li>Two<ul><li>Nested</ul><li>Three</ul>");
+        Assert.assertEquals(count(list, "/html/ul/li"), 3);
+        Assert.assertEquals(count(list, "//li[2]/ul/li"), 1);
+
+        Document definitions = HtmlParser.parse("<dl><dt>Term<dd>First<dd>Second<dt>Other</dl>");
+        Assert.assertEquals(count(definitions, "/html/dl/*"), 4);
+
+        Document table = HtmlParser.parse("<table><tr><td>1<td>2<tr><th>3<td>4</table>");
+        Assert.assertEquals(count(table, "/html/table/tr"), 2, "A new row closes the open cell and row");
+        Assert.assertEquals(count(table, "/html/table/tr/*"), 4);
+
+        Document paragraphs = HtmlParser.parse("<p>Intro<div>Block</div><p>One<p>Two");
+        Assert.assertEquals(count(paragraphs, "/html/p"), 3);
+        Assert.assertEquals(count(paragraphs, "/html/div"), 1, "A block start closes the paragraph");
+
+        Document select = HtmlParser.parse("<select><option>A<option selected>B</select>");
+        Assert.assertEquals(count(select, "/html/select/option"), 2);
+        Assert.assertEquals(count(select, "//option[@selected]"), 1);
+    }
+
+    @Test(description = "Void and self-closing elements take no children, stray end tags are ignored")
+    public void testVoidElements() throws XPathExpressionException {
+        Document document = HtmlParser.parse("<form><input name=a><br><img src=x.png/><label>L</label></span></form>");
+        Assert.assertEquals(count(document, "/html/form/*"), 4);
+        Assert.assertEquals(count(document, "//input/*"), 0);
+        Assert.assertEquals(count(document, "//label[.='L']"), 1);
+    }
+
+    @Test(description = "Script and style content is not parsed as markup, other raw text is kept as text")
+    public void testRawText() throws XPathExpressionException {
+        Document document = HtmlParser.parse("<script>if (a < b) document.write('<div id=\"fake\">');</script>"
+                + "<style>p > a { color: red }</style>"
+                + "<textarea><b>typed</b> &amp; more</textarea><title>A &lt; B</title><div id=real></div>");
+        Assert.assertEquals(count(document, "//div"), 1);
+        Assert.assertEquals(count(document, "//script/text()"), 0, "Script text is never matched");
+        Assert.assertEquals(count(document, "//textarea/*"), 0);
+        Assert.assertEquals(string(document, "//textarea"), "<b>typed</b> & more");
+        Assert.assertEquals(string(document, "//title"), "A < B");
+    }
+
+    @Test(description = "Attributes are lower-cased, unquoted values read, and invalid XML names dropped")
+    public void testAttributes() throws XPathExpressionException {
+        Document document = HtmlParser.parse("<HTML LANG=fr><BUTTON Type=submit data-x='a \"b\"' @click=\"go()\" disabled>Go</BUTTON>");
+        Assert.assertEquals(string(document, "/html/@lang"), "fr", "A real html tag gives its attributes to the root");
+        Assert.assertEquals(count(document, "//button[@type='submit'][@disabled]"), 1);
+        Assert.assertEquals(string(document, "//button/@data-x"), "a \"b\"");
+        Assert.assertEquals(count(document, "//button/@*"), 3);
+    }
+
+    @Test(description = "Numeric and named references are decoded, unknown ones and bare ampersands kept")
+    public void testEntities() {
+        Assert.assertEquals(HtmlParser.decode("Caf&eacute; &amp; cr&egrave;me"), "Café & crème");
+        Assert.assertEquals(HtmlParser.decode("&#233;&#xE9;&#XE9;"), "ééé");
+        Assert.assertEquals(HtmlParser.decode("&lt;a&gt; &quot;q&quot; &apos;s&apos;&nbsp;"), "<a> \"q\" 's' ");
+        Assert.assertEquals(HtmlParser.decode("&amp;lt;"), "&lt;", "Decoded once, not recursively");
+        Assert.assertEquals(HtmlParser.decode("&bogus; &#xZZ; &#;"), "&bogus; &#xZZ; &#;");
+        Assert.assertEquals(HtmlParser.decode("A & B &eacute;"), "A & B é", "A bare ampersand stopped decoding");
+        Assert.assertEquals(HtmlParser.decode("Q&A: fish & chips &amp; more"), "Q&A: fish & chips & more");
+        Assert.assertEquals(HtmlParser.decode("Tom & Jerry"), "Tom & Jerry");
+        Assert.assertEquals(HtmlParser.decode("no references"), "no references");
+    }
+
+    private static int count(Document document, String xpath) throws XPathExpressionException {
+        return ((Number) XPathFactory.newInstance().newXPath().evaluate("count(" + xpath + ")", document,
+                XPathConstants.NUMBER)).intValue();
+    }
+
+    private static String string(Document document, String xpath) throws XPathExpressionException {
+        return XPathFactory.newInstance().newXPath().evaluate(xpath, document);
+    }
+}
@@ -0,0 +1,63 @@
+package com.amex.ui.framework.lint;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Lints the real page objects against a saved ApplicationFormPage snapshot with one field
+ * missing and the submit button duplicated, and reads the findings back from the report.
+ */
+public class LocatorLinterTest {
+    private static final String SNAPSHOT = "<!DOCTYPE html><html><body><form>"
+            + "<input id=fieldControl-input-firstName name=firstName>"
+            + "<input id=fieldControl-input-email type=email>"
+            + "<input id=fieldControl-input-mobilePhoneNumber type=tel>"
+            + "<input id=fieldControl-input-dateOfBirth>"
+            + "<div class='field error'>Enter your last name</div><div class=validation>Check the date</div>"
+            + "<button type=submit>Continue</button>"
+            + "</form><footer><button type=submit>Subscribe</button></footer></body></html>";
+
+    @Test(description = "A missing field is ZERO, a duplicated one MULTI, a list matching several is not")
+    public void testLintRun() throws IOException {
+        Path snapshot = Files.createTempDirectory("locator-lint").resolve("ApplicationFormPage_dom.html");
+        Files.write(snapshot, SNAPSHOT.getBytes(StandardCharsets.UTF_8));
+
+        int problems = new LocatorLinter().run(new String[]{snapshot.toString()});
+        List<String> report = Files.readAllLines(Paths.get("target", "locator-lint.txt"), StandardCharsets.UTF_8);
+
+        Assert.assertEquals(problems, 2, "Unexpected findings in " + report);
+        Assert.assertEquals(status(report, "firstNameField"), "OK");
+        Assert.assertEquals(status(report, "date"), "OK");
+        Assert.assertEquals(status(report, "lastNameField"), "ZERO");
+        Assert.assertEquals(status(report, "submitButton"), "MULTI");
+        Assert.assertEquals(status(report, "validationErrors"), "OK", "A list field may match several elements");
+        Assert.assertTrue(report.get(0).contains("1 snapshots, 2 problems"), report.get(0));
+    }
+
+    @Test(description = "A snapshot of another page neither fails nor verifies the form's locators")
+    public void testOtherPageSnapshot() throws IOException {
+        Path snapshot = Files.createTempDirectory("locator-lint").resolve("HomePage_dom.html");
+        Files.write(snapshot, "<html><body><p>Welcome</p></body></html>".getBytes(StandardCharsets.UTF_8));
+
+        new LocatorLinter().run(new String[]{snapshot.toString()});
+        List<String> report = Files.readAllLines(Paths.get("target", "locator-lint.txt"), StandardCharsets.UTF_8);
+        Assert.assertEquals(status(report, "lastNameField"), "UNVERIFIED");
+    }
+
+    /**
+     * Status column of the report line for an ApplicationFormPage field
+     */
+    private static String status(List<String> report, String field) {
+        String key = " ApplicationFormPage." + field + " ";
+        return report.stream().filter(line -> line.contains(key)).findFirst()
+                .map(line -> line.substring(0, line.indexOf(' ')))
+                .orElseThrow(() -> new AssertionError("No finding for " + field + " in " + report));
+    }
+}
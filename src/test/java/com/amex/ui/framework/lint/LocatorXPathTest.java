@@ -0,0 +1,141 @@
+package com.amex.ui.framework.lint;
+
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.How;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * Translates locators to XPath and counts their matches on a small parsed page, so each CSS
+ * feature is checked by what it selects rather than by the XPath text it produces.
+ */
+public class LocatorXPathTest {
+    private static final Document PAGE = HtmlParser.parse("<div id=main class='panel  wide'>"
+            + "<ul class=menu>"
+            + "<li class='item first'><a href='/a' lang=en-US data-role='nav primary'>Alpha</a></li>"
+            + "<li class=item><a href='/b.pdf' lang=en>Beta</a></li>"
+            + "<li class='item last'><a href='https://x/c' lang=fr>Gamma&nbsp;Link</a></li>"
+            + "</ul>"
+            + "<p class=note>Note</p><span>After</span><span>Later</span>"
+            + "</div><span>Outside</span>"
+            + "<input name=q title='it&#39;s &quot;quoted&quot;'>");
+
+    @SuppressWarnings("unused")
+    private static class Locators {
+        @FindBy(id = "main") Object byId;
+        @FindBy(name = "q") Object byName;
+        @FindBy(className = "item") Object byClassName;
+        @FindBy(tagName = "SPAN") Object byTagName;
+        @FindBy(linkText = "Gamma Link") Object byLinkText;
+        @FindBy(partialLinkText = "Bet") Object byPartialLinkText;
+        @FindBy(how = How.ID_OR_NAME, using = "q") Object byIdOrName;
+        @FindBy(css = "ul > li.last a") Object byCss;
+        @FindBy(xpath = "//p[@class='note']") Object byXpath;
+    }
+
+    @Test(description = "Each @FindBy strategy selects what Selenium would")
+    public void testStrategies() throws Exception {
+        Assert.assertEquals(countOf("byId"), 1);
+        Assert.assertEquals(countOf("byName"), 1);
+        Assert.assertEquals(countOf("byClassName"), 3);
+        Assert.assertEquals(countOf("byTagName"), 3);
+        Assert.assertEquals(countOf("byLinkText"), 1, "Link text is matched with &nbsp; read as a space");
+        Assert.assertEquals(countOf("byPartialLinkText"), 1);
+        Assert.assertEquals(countOf("byIdOrName"), 1);
+        Assert.assertEquals(countOf("byCss"), 1);
+        Assert.assertEquals(countOf("byXpath"), 1);
+
+        Assert.assertEquals(LocatorXPath.describe(findBy("byId")), "id=main");
+        Assert.assertEquals(LocatorXPath.describe(findBy("byIdOrName")), "id_or_name=q");
+        Assert.assertEquals(LocatorXPath.describe(findBy("byCss")), "css=ul > li.last a");
+    }
+
+    @Test(description = "Relative steps of a @FindBys chain only search below the previous match")
+    public void testRelative() throws Exception {
+        Node list = (Node) XPathFactory.newInstance().newXPath().evaluate("//ul", PAGE, XPathConstants.NODE);
+        String relative = LocatorXPath.of(findBy("byTagName"), true);
+        Assert.assertTrue(relative.startsWith(".//"), relative);
+        Assert.assertEquals(count(list, relative), 0);
+        Assert.assertEquals(count(list, LocatorXPath.of(findBy("byClassName"), true)), 3);
+    }
+
+    @Test(description = "Type, id and class selectors, with classes matched as whole tokens")
+    public void testSimpleSelectors() throws XPathExpressionException {
+        Assert.assertEquals(css("div#main.panel"), 1);
+        Assert.assertEquals(css(".wide"), 1);
+        Assert.assertEquals(css(".pan"), 0);
+        Assert.assertEquals(css("*"), css("html *") + 1, "* also matches the root element");
+        Assert.assertEquals(css("li:first-child"), 1);
+        Assert.assertEquals(css("li:last-child a"), 1);
+    }
+
+    @Test(description = "Descendant, child, adjacent and general sibling combinators")
+    public void testCombinators() throws XPathExpressionException {
+        Assert.assertEquals(css("div a"), 3);
+        Assert.assertEquals(css("div > a"), 0);
+        Assert.assertEquals(css("ul > li > a"), 3);
+        Assert.assertEquals(css("ul>li>a"), 3);
+        Assert.assertEquals(css("ul + p"), 1);
+        Assert.assertEquals(css("ul + span"), 0, "+ only takes the next sibling");
+        Assert.assertEquals(css("ul ~ span"), 2);
+        Assert.assertEquals(css("li.first + li a"), 1);
+        Assert.assertEquals(css("p.note, span"), 4);
+    }
+
+    @Test(description = "Attribute presence and the =, ~=, ^=, $=, *= and |= operators")
+    public void testAttributeOperators() throws XPathExpressionException {
+        Assert.assertEquals(css("[data-role]"), 1);
+        Assert.assertEquals(css("a[href='/a']"), 1);
+        Assert.assertEquals(css("a[href=\"/a\"]"), 1);
+        Assert.assertEquals(css("[data-role~=primary]"), 1);
+        Assert.assertEquals(css("[data-role~=prim]"), 0);
+        Assert.assertEquals(css("a[href^=https]"), 1);
+        Assert.assertEquals(css("a[href$='.pdf']"), 1);
+        Assert.assertEquals(css("a[href*=b]"), 1);
+        Assert.assertEquals(css("[lang|=en]"), 2);
+        Assert.assertEquals(css("a[href='/a'], a[lang=fr]"), 2, "Commas inside attribute values do not split the group");
+    }
+
+    @Test(description = "Selectors that cannot be evaluated offline are rejected")
+    public void testUnsupported() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> LocatorXPath.css("a:hover", "//"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> LocatorXPath.css("li:nth-child(2)", "//"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> LocatorXPath.css("a[href", "//"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> LocatorXPath.css("> a", "//"));
+    }
+
+    @Test(description = "String literals survive single quotes, double quotes and both at once")
+    public void testLiteral() throws XPathExpressionException {
+        Assert.assertEquals(LocatorXPath.literal("plain"), "'plain'");
+        Assert.assertEquals(LocatorXPath.literal("it's"), "\"it's\"");
+        Assert.assertEquals(LocatorXPath.literal("say \"hi\""), "'say \"hi\"'");
+
+        String mixed = "it's \"quoted\"";
+        Assert.assertTrue(LocatorXPath.literal(mixed).startsWith("concat("));
+        Assert.assertEquals(count(PAGE, "//input[@title=" + LocatorXPath.literal(mixed) + "]"), 1);
+        Assert.assertEquals(count(PAGE, "//a[.=" + LocatorXPath.literal("it's \"Alpha\"") + "]"), 0);
+    }
+
+    private static int css(String selector) throws XPathExpressionException {
+        return count(PAGE, LocatorXPath.css(selector, "//"));
+    }
+
+    private static int countOf(String field) throws Exception {
+        return count(PAGE, LocatorXPath.of(findBy(field), false));
+    }
+
+    private static FindBy findBy(String field) throws NoSuchFieldException {
+        return Locators.class.getDeclaredField(field).getAnnotation(FindBy.class);
+    }
+
+    private static int count(Node context, String xpath) throws XPathExpressionException {
+        return ((Number) XPathFactory.newInstance().newXPath().evaluate("count(" + xpath + ")", context,
+                XPathConstants.NUMBER)).intValue();
+    }
+}
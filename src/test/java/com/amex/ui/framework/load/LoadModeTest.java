@@ -0,0 +1,259 @@
+package com.amex.ui.framework.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Verifies the protocol-level load mode against a local stub of the application form,
+ * which issues a per-session token and rejects submissions that do not echo it back.
+ * Covers hand-written scenarios and scenarios produced by the ScenarioRecorder.
+ */
+public class LoadModeTest {
+    private HttpServer server;
+    private String baseUrl;
+    private final Map<String, String> tokensBySession = new ConcurrentHashMap<>();
+    private final Set<String> authSessions = ConcurrentHashMap.newKeySet();
+
+    @BeforeClass
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+
+        server.createContext("/apply", exchange -> {
+            String session = UUID.randomUUID().toString();
+            String token = UUID.randomUUID().toString();
+            tokensBySession.put(session, token);
+            exchange.getResponseHeaders().add("Set-Cookie", "SESSION=" + session + "; Path=/");
+            respond(exchange, 200, "<form method='post' action='/apply/submit'>"
+                    + "<input type='hidden' name='csrf' value='" + token + "'>"
+                    + "<input name='firstName'></form>");
+        });
+
+        // Same form with the token's value attribute before its name, as some templates render it
+        server.createContext("/apply/reordered", exchange -> {
+            String session = UUID.randomUUID().toString();
+            String token = UUID.randomUUID().toString();
+            tokensBySession.put(session, token);
+            exchange.getResponseHeaders().add("Set-Cookie", "SESSION=" + session + "; Path=/");
+            respond(exchange, 200, "<form method='post' action='/apply/submit'>"
+                    + "<input value=\"" + token + "\" type=\"hidden\" name=\"csrf\">"
+                    + "<input name='firstName'></form>");
+        });
+
+        // method=get form whose token has characters that must be URL-encoded in the query string
+        server.createContext("/quote", exchange -> {
+            String session = UUID.randomUUID().toString();
+            String token = UUID.randomUUID() + "+/=";
+            tokensBySession.put(session, token);
+            exchange.getResponseHeaders().add("Set-Cookie", "SESSION=" + session + "; Path=/");
+            respond(exchange, 200, "<form method='get' action='/quote/results'>"
+                    + "<input value='" + token + "' type='hidden' name='state'><select name='card'></select></form>");
+        });
+
+        server.createContext("/quote/results", exchange -> {
+            String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            String token = tokensBySession.get(cookie == null ? "" : cookie.replace("SESSION=", ""));
+            Map<String, String> query = new HashMap<>();
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            for (String pair : rawQuery == null ? new String[0] : rawQuery.split("&")) {
+                String[] nameValue = pair.split("=", 2);
+                query.put(nameValue[0], URLDecoder.decode(nameValue.length > 1 ? nameValue[1] : "", StandardCharsets.UTF_8));
+            }
+            boolean valid = "GET".equals(exchange.getRequestMethod()) && token != null
+                    && token.equals(query.get("state")) && "Gold & Platinum".equals(query.get("card"))
+                    && !query.containsKey("stale") && exchange.getRequestBody().readAllBytes().length == 0;
+            respond(exchange, valid ? 200 : 403, valid ? "ok" : "invalid query " + rawQuery);
+        });
+
+        server.createContext("/apply/submit", exchange -> {
+            String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String session = cookie == null ? "" : cookie.replace("SESSION=", "");
+            String token = tokensBySession.get(session);
+            boolean valid = token != null && body.contains("csrf=" + token);
+            respond(exchange, valid ? 200 : 403, valid ? "ok" : "invalid token");
+        });
+
+        // Login sets its session cookie on the redirect only, as most login and form posts do
+        server.createContext("/login", exchange -> {
+            String auth = UUID.randomUUID().toString();
+            authSessions.add(auth);
+            exchange.getResponseHeaders().add("Set-Cookie", "AUTH=" + auth + "; Path=/; HttpOnly");
+            exchange.getResponseHeaders().add("Set-Cookie", "ADMIN=1; Path=/admin");
+            exchange.getResponseHeaders().add("Set-Cookie", "TRACKER=1; Domain=tracker.example");
+            exchange.getResponseHeaders().add("Location", "/account");
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, 302, "");
+        });
+
+        server.createContext("/account", exchange -> {
+            String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            boolean valid = "GET".equals(exchange.getRequestMethod()) && cookie != null
+                    && authSessions.contains(cookie.replace("AUTH=", ""));
+            respond(exchange, valid ? 200 : 401, valid ? "<h1>Account</h1>" : "cookies " + cookie);
+        });
+
+        server.createContext("/logout", exchange -> {
+            exchange.getResponseHeaders().add("Set-Cookie", "AUTH=deleted; Path=/; Max-Age=0");
+            exchange.getResponseHeaders().add("Location", "/goodbye");
+            respond(exchange, 302, "");
+        });
+
+        server.createContext("/goodbye", exchange -> {
+            String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            respond(exchange, cookie == null ? 200 : 400, cookie == null ? "bye" : "cookies " + cookie);
+        });
+
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStubServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test(description = "Replay the application form scenario with correlated tokens against a stub server")
+    public void testScenarioReplayWithTokenCorrelation() throws InterruptedException {
+        List<LoadScenario.Step> steps = new ArrayList<>();
+        LoadScenario.Step formPage = new LoadScenario.Step("ApplicationFormPage", "GET", baseUrl + "/apply");
+        formPage.extract.put("csrf", "name=[\"']csrf[\"'][^>]*value=[\"']([^\"']*)");
+        steps.add(formPage);
+
+        LoadScenario.Step submit = new LoadScenario.Step("ApplicationFormSubmit", "POST", baseUrl + "/apply/submit");
+        submit.body = "firstName=Jean&csrf=${csrf}";
+        submit.contentType = "application/x-www-form-urlencoded";
+        steps.add(submit);
+
+        LoadRunner.Result result = new LoadRunner(new LoadScenario("stub", steps), 50, 20, Duration.ofSeconds(3)).run();
+        System.out.println(result);
+
+        Assert.assertTrue(result.getTotalRequests() > 100, "Too few requests were executed");
+        Assert.assertEquals(result.getTotalErrors(), 0, "Requests failed against the stub server");
+    }
+
+    @Test(description = "Record a flow with the scenario recorder and replay it against the stub server")
+    public void testRecordedScenarioReplay() throws InterruptedException {
+        RecordingDriver browser = new RecordingDriver();
+        WebDriver driver = browser.proxy();
+
+        browser.url = baseUrl + "/apply/reordered";
+        ScenarioRecorder.recordPage(driver, "ApplicationFormPage");
+        browser.form = form(baseUrl + "/apply/submit", "POST",
+                field("csrf", "recorded-token", true), field("firstName", "Jean", false));
+        ScenarioRecorder.recordFormSubmit(driver, null, "ApplicationFormSubmit");
+
+        browser.url = baseUrl + "/quote";
+        ScenarioRecorder.recordPage(driver, "QuotePage");
+        browser.form = form(baseUrl + "/quote/results?stale=1", "GET",
+                field("state", "recorded-state", true), field("card", "Gold & Platinum", false));
+        ScenarioRecorder.recordFormSubmit(driver, null, "QuoteSearch");
+
+        ScenarioRecorder.save("recordedScenarioReplay");
+        LoadScenario scenario = LoadScenario.load(Paths.get("target/load/recordedScenarioReplay.json"));
+
+        LoadScenario.Step search = scenario.getSteps().get(3);
+        Assert.assertEquals(search.method, "GET");
+        Assert.assertEquals(search.url, baseUrl + "/quote/results?state=${state}&card=Gold+%26+Platinum");
+        Assert.assertNull(search.body, "GET form fields must go in the query string");
+        Assert.assertTrue(scenario.getSteps().get(0).extract.containsKey("csrf"));
+
+        LoadRunner.Result result = new LoadRunner(scenario, 20, 10, Duration.ofSeconds(2)).run();
+        System.out.println(result);
+
+        Assert.assertTrue(result.getTotalRequests() > 20, "Too few requests were executed");
+        Assert.assertEquals(result.getTotalErrors(), 0, "Recorded scenario failed against the stub server");
+    }
+
+    @Test(description = "Cookies set on a redirect are kept, scoped by domain and path, and removed by Max-Age=0")
+    public void testRedirectCookies() throws InterruptedException {
+        List<LoadScenario.Step> steps = new ArrayList<>();
+        LoadScenario.Step login = new LoadScenario.Step("Login", "POST", baseUrl + "/login");
+        login.body = "user=jean";
+        login.contentType = "application/x-www-form-urlencoded";
+        login.extract.put("heading", "<h1>([^<]*)</h1>");
+        steps.add(login);
+        steps.add(new LoadScenario.Step("Account", "GET", baseUrl + "/account"));
+        steps.add(new LoadScenario.Step("Logout", "GET", baseUrl + "/logout"));
+
+        LoadRunner.Result result = new LoadRunner(new LoadScenario("redirects", steps), 20, 10, Duration.ofSeconds(2)).run();
+        System.out.println(result);
+
+        Assert.assertTrue(result.getSteps().get("Logout").getCount() > 20, "Too few iterations completed");
+        Assert.assertEquals(result.getTotalErrors(), 0, "Cookies were lost on a redirect or sent out of scope");
+    }
+
+    @SafeVarargs
+    private static Map<String, Object> form(String action, String method, Map<String, Object>... fields) {
+        Map<String, Object> form = new HashMap<>();
+        form.put("action", action);
+        form.put("method", method);
+        form.put("fields", Arrays.asList(fields));
+        return form;
+    }
+
+    private static Map<String, Object> field(String name, String value, boolean hidden) {
+        Map<String, Object> field = new HashMap<>();
+        field.put("name", name);
+        field.put("value", value);
+        field.put("hidden", hidden);
+        return field;
+    }
+
+    /**
+     * Driver standing in for the browser: reports the current URL, and answers the recorder's
+     * form script with the fields the browser would have read from the submitted form
+     */
+    private static class RecordingDriver {
+        String url;
+        Map<String, Object> form;
+
+        WebDriver proxy() {
+            return (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(),
+                    new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getCurrentUrl":
+                                return url;
+                            case "executeScript":
+                                return form;
+                            default:
+                                return null;
+                        }
+                    });
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
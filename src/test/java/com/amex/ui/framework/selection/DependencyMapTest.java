@@ -0,0 +1,168 @@
+package com.amex.ui.framework.selection;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Runs the class file scanner and dependency walk over a small fixture project compiled
+ * into a temporary directory, so the expected dependencies do not move with the real tree.
+ * Lives in the selection package as both classes are package-private.
+ */
+public class DependencyMapTest {
+    private static final Map<String, String> FIXTURES = new LinkedHashMap<>();
+
+    static {
+        FIXTURES.put("fixture/BasePage.java",
+                "package fixture; public class BasePage { protected void open() { Navigation.go(); } }");
+        FIXTURES.put("fixture/Navigation.java",
+                "package fixture; public class Navigation { static void go() { } }");
+        FIXTURES.put("fixture/LoginPage.java",
+                "package fixture; public class LoginPage extends BasePage {"
+                        + " public void login() { open(); new Row().fill(); }"
+                        + " class Row { void fill() { Fields.count(); } } }");
+        FIXTURES.put("fixture/Fields.java",
+                "package fixture; public class Fields { static int count() { return 0; } }");
+        FIXTURES.put("fixture/ReportPage.java",
+                "package fixture; public class ReportPage extends BasePage { public void read() { } }");
+        FIXTURES.put("fixture/Service.java",
+                "package fixture; public interface Service { void run(); }");
+        FIXTURES.put("fixture/AuditService.java",
+                "package fixture; public class AuditService implements Service { public void run() { Audit.LOG.size(); } }");
+        FIXTURES.put("fixture/Audit.java",
+                "package fixture; public class Audit {"
+                        + " static final java.util.List<String> LOG = new java.util.ArrayList<>();"
+                        + " static { Clock.now(); } }");
+        FIXTURES.put("fixture/Clock.java",
+                "package fixture; public class Clock { static long now() { return 0; } }");
+        FIXTURES.put("fixture/Unused.java",
+                "package fixture; public class Unused { }");
+        FIXTURES.put("fixture/SampleTest.java",
+                "package fixture; import org.testng.annotations.*; public class SampleTest {"
+                        + " private LoginPage page; private Service service;"
+                        + " @BeforeClass public void setUp() { page = new LoginPage(); service = new AuditService(); }"
+                        + " @Test public void testLogin() { page.login(); }"
+                        + " @Test public void testAudit() { Runnable audit = () -> service.run(); audit.run(); }"
+                        + " @Test public void testNothing() { }"
+                        + " public void helper() { } }");
+    }
+
+    private Path classDir;
+    private DependencyMap map;
+
+    @BeforeClass
+    public void compileFixtures() throws IOException {
+        Path root = Files.createTempDirectory("dependency-map");
+        Path sourceDir = root.resolve("src");
+        classDir = root.resolve("classes");
+        Files.createDirectories(classDir);
+
+        List<String> arguments = new ArrayList<>(List.of("-d", classDir.toString(),
+                "-classpath", System.getProperty("java.class.path"), "-proc:none"));
+        for (Map.Entry<String, String> fixture : FIXTURES.entrySet()) {
+            Path file = sourceDir.resolve(fixture.getKey());
+            Files.createDirectories(file.getParent());
+            Files.write(file, fixture.getValue().getBytes(StandardCharsets.UTF_8));
+            arguments.add(file.toString());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assert.assertNotNull(compiler, "Tests need a JDK to compile their fixtures");
+        Assert.assertEquals(compiler.run(null, null, null, arguments.toArray(new String[0])), 0, "Fixtures did not compile");
+
+        map = DependencyMap.analyse(Collections.singletonList(classDir));
+    }
+
+    @Test(description = "The scanner reads the class hierarchy and the annotations on each method")
+    public void testScannerReadsStructure() throws IOException {
+        ClassFileScanner.ClassInfo test = scan("fixture/SampleTest.class");
+        Assert.assertEquals(test.name, "fixture.SampleTest");
+        Assert.assertEquals(test.superName, "java.lang.Object");
+        Assert.assertTrue(test.methods.get("testLogin()V").annotations.contains("org.testng.annotations.Test"));
+        Assert.assertTrue(test.methods.get("setUp()V").annotations.contains("org.testng.annotations.BeforeClass"));
+        Assert.assertTrue(test.methods.get("helper()V").annotations.isEmpty());
+        Assert.assertTrue(test.methods.get("testLogin()V").calls.contains("fixture.LoginPage.login()V"));
+
+        ClassFileScanner.ClassInfo service = scan("fixture/AuditService.class");
+        Assert.assertEquals(service.interfaces, Collections.singletonList("fixture.Service"));
+        Assert.assertTrue(service.methods.get("run()V").classes.contains("fixture.Audit"), "Static field access not recorded");
+    }
+
+    @Test(description = "Only annotated methods of concrete test classes become tests")
+    public void testFindsTests() {
+        Assert.assertEquals(map.getTests(), new TreeSet<>(List.of(
+                "fixture.SampleTest#testAudit", "fixture.SampleTest#testLogin", "fixture.SampleTest#testNothing")));
+        Assert.assertTrue(map.getProjectClasses().contains("fixture.LoginPage"));
+        Assert.assertFalse(map.getProjectClasses().contains("fixture.LoginPage$Row"), "Nested classes map to their source file");
+    }
+
+    @Test(description = "A test reaches what its body calls, through inherited methods and nested classes")
+    public void testDirectCalls() {
+        Set<String> dependencies = map.getStaticDependencies("fixture.SampleTest#testLogin");
+        assertContains(dependencies, "fixture.SampleTest", "fixture.LoginPage", "fixture.BasePage", "fixture.Navigation", "fixture.Fields");
+        assertMissing(dependencies, "fixture.Audit", "fixture.Clock", "fixture.ReportPage", "fixture.Unused");
+    }
+
+    @Test(description = "Lambdas, interface calls and static initialisers are followed")
+    public void testIndirectCalls() {
+        Set<String> dependencies = map.getStaticDependencies("fixture.SampleTest#testAudit");
+        assertContains(dependencies, "fixture.Service", "fixture.AuditService", "fixture.Audit", "fixture.Clock");
+        assertMissing(dependencies, "fixture.Navigation", "fixture.Fields", "fixture.Unused");
+    }
+
+    @Test(description = "Pages built in setup methods count for every test of the class, even one that never uses them")
+    public void testSetupMethodsAreRoots() {
+        Set<String> dependencies = map.getStaticDependencies("fixture.SampleTest#testNothing");
+        assertContains(dependencies, "fixture.LoginPage", "fixture.BasePage", "fixture.AuditService");
+        assertMissing(dependencies, "fixture.Navigation", "fixture.Audit");
+        Assert.assertTrue(map.getStaticDependencies("fixture.SampleTest#unknown").isEmpty());
+    }
+
+    @Test(description = "A page seen only at runtime brings in everything its own methods reach")
+    public void testClassDependencies() {
+        assertContains(map.getClassDependencies("fixture.ReportPage"), "fixture.ReportPage", "fixture.BasePage");
+        Assert.assertEquals(map.getClassDependencies("fixture.Missing"), Collections.singleton("fixture.Missing"));
+    }
+
+    @Test(description = "The stored map round-trips, including tests without dependencies")
+    public void testSaveAndLoad() throws IOException {
+        Path file = classDir.resolveSibling("selection").resolve("dependencies.properties");
+        Assert.assertNull(DependencyMap.load(file));
+
+        Map<String, Set<String>> dependencies = new TreeMap<>();
+        dependencies.put("fixture.SampleTest#testLogin", new TreeSet<>(List.of("fixture.LoginPage", "fixture.BasePage")));
+        dependencies.put("fixture.SampleTest#testNothing", new TreeSet<>());
+        DependencyMap.save(file, dependencies, "test");
+        Assert.assertEquals(DependencyMap.load(file), dependencies);
+    }
+
+    private ClassFileScanner.ClassInfo scan(String classFile) throws IOException {
+        return ClassFileScanner.scan(Files.readAllBytes(classDir.resolve(classFile)));
+    }
+
+    private static void assertContains(Set<String> actual, String... expected) {
+        for (String name : expected) {
+            Assert.assertTrue(actual.contains(name), name + " missing from " + actual);
+        }
+    }
+
+    private static void assertMissing(Set<String> actual, String... unexpected) {
+        for (String name : unexpected) {
+            Assert.assertFalse(actual.contains(name), name + " should not be in " + actual);
+        }
+    }
+}
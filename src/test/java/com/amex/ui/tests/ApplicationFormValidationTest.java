@@ -0,0 +1,79 @@
+package com.amex.ui.tests;
+
+import com.amex.ui.framework.config.DriverManager;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import pages.ApplicationFormPage;
+import pages.HomePage;
+import utils.ValidationMatrix;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Runs the application form validation matrix on a single page load: the form is reached
+ * by the first case, then each case resets the form in place, checks no errors are left from
+ * the previous case, applies its inputs and submits.
+ * Every case is still reported as its own test result, with the usual per-test handling.
+ */
+public class ApplicationFormValidationTest extends BaseTest {
+    private ApplicationFormPage applicationFormPage;
+    // Session the form was opened in; a new one (e.g. after the hang watchdog) needs the form again
+    private WebDriver formSession;
+
+    @DataProvider(name = "validationCases")
+    public Iterator<Object[]> validationCases() {
+        return ValidationMatrix.cases().stream()
+                .map(validationCase -> new Object[]{validationCase})
+                .iterator();
+    }
+
+    @Test(dataProvider = "validationCases", description = "Verify validation errors for an invalid input combination")
+    public void testValidationCase(ValidationMatrix.Case validationCase) {
+        openApplicationForm();
+        applicationFormPage.resetForm();
+        Assert.assertEquals(applicationFormPage.getVisibleValidationErrorCount(), 0,
+                "Validation errors of the previous case are still shown before " + validationCase);
+
+        applicationFormPage.applyInputs(validationCase.getValues())
+                .clickSubmitButton();
+
+        Assert.assertTrue(applicationFormPage.hasValidationErrors(),
+                "No validation errors are displayed for " + validationCase);
+        List<String> messages = applicationFormPage.getValidationErrorMessages();
+        log(validationCase + " -> " + messages);
+
+        // Each invalid field, and only those, must show its own error
+        Assert.assertEquals(new TreeSet<>(applicationFormPage.getFieldsWithValidationErrors()),
+                new TreeSet<>(validationCase.getInvalidFields()), "Fields flagged invalid for " + validationCase);
+        Assert.assertTrue(messages.size() >= validationCase.getInvalidFields().size(),
+                "Fewer error messages than invalid fields for " + validationCase + ": " + messages);
+    }
+
+    @Override
+    protected boolean keepsSessionBetweenTests() {
+        return true;
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void closeBrowser() {
+        // Through the manager, so the thread binding, grid slot, broker lease and screencast are released too
+        DriverManager.quitDriver();
+    }
+
+    private void openApplicationForm() {
+        if (applicationFormPage != null && formSession == DriverManager.getDriver()) {
+            return;
+        }
+        applicationFormPage = new HomePage().open()
+                .clickOnCartesAmexLink()
+                .clickOnEnSavoirPlusGoldCard()
+                .clickOnDemandezVotreCarte();
+        Assert.assertTrue(applicationFormPage.isPageLoaded(), "Application Form page is not loaded correctly");
+        formSession = DriverManager.getDriver();
+    }
+}
@@ -1,11 +1,18 @@
 package com.amex.ui.tests;
 
+import com.amex.ui.framework.concurrency.ConcurrencyController;
 import com.amex.ui.framework.config.ConfigReader;
 import com.amex.ui.framework.config.DriverManager;
+import com.amex.ui.framework.config.HangWatchdog;
+import com.amex.ui.framework.health.CircuitBreaker;
+import com.amex.ui.framework.load.ScenarioRecorder;
+import com.amex.ui.framework.trace.Tracer;
 
 
+import org.openqa.selenium.WebDriverException;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
+import org.testng.SkipException;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
@@ -13,7 +20,11 @@ import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
+import utils.CommandStats;
+import utils.ExecutionStats;
+import utils.ScreencastRecorder;
 import utils.ScreenshotUtils;
+import utils.TestData;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -37,19 +48,40 @@ public class BaseTest {
         // Simple logging to file
         private static final String LOG_FILE = "target/test-execution.log";
         private static FileWriter logWriter;
+        // Tests skipped by the circuit breaker never started, so tearDown has nothing to finish
+        private static final ThreadLocal<Boolean> skippedByBreaker = ThreadLocal.withInitial(() -> false);
 
-        static {
-            try {
-                // Create directory if it doesn't exist
-                File logDir = new File("target");
-                if (!logDir.exists()) {
-                    logDir.mkdirs();
+        /**
+         * Log writer of the current suite, opened on first use. It is closed at the end of each suite
+         * and opened again by the next, as the test daemon runs many suites with these statics loaded.
+         */
+        private static synchronized FileWriter getLogWriter() {
+            if (logWriter == null) {
+                try {
+                    // Create directory if it doesn't exist
+                    File logDir = new File("target");
+                    if (!logDir.exists()) {
+                        logDir.mkdirs();
+                    }
+
+                    // Initialize log writer
+                    logWriter = new FileWriter(LOG_FILE, true);
+                } catch (IOException e) {
+                    System.err.println("Failed to initialize log file: " + e.getMessage());
                 }
+            }
+            return logWriter;
+        }
 
-                // Initialize log writer
-                logWriter = new FileWriter(LOG_FILE, true);
+        private static synchronized void closeLogWriter() {
+            try {
+                if (logWriter != null) {
+                    logWriter.close();
+                }
             } catch (IOException e) {
-                System.err.println("Failed to initialize log file: " + e.getMessage());
+                System.err.println("Failed to close log file: " + e.getMessage());
+            } finally {
+                logWriter = null;
             }
         }
 
@@ -62,9 +94,12 @@ public class BaseTest {
 
             try {
                 // Write to file
-                if (logWriter != null) {
-                    logWriter.write(logMessage);
-                    logWriter.flush();
+                FileWriter writer = getLogWriter();
+                if (writer != null) {
+                    synchronized (BaseTest.class) {
+                        writer.write(logMessage);
+                        writer.flush();
+                    }
                 }
 
                 // Also print to console
@@ -90,7 +125,14 @@ public class BaseTest {
             log("Environment: " + ConfigReader.getProperty("environment", "N/A"));
             log("Browser: " + ConfigReader.getProperty("browser", "chrome"));
             log("Headless Mode: " + ConfigReader.getProperty("headless", "false"));
+            log("Execution Mode: " + ConfigReader.getProperty("executionMode", "process"));
+            if (Boolean.parseBoolean(ConfigReader.getProperty("grid.enabled", "false"))) {
+                log("Grid: " + ConfigReader.getProperty("grid.url", "http://localhost:4444"));
+            }
             log("==================================================");
+
+            // Open the circuit breaker right away if the target is down
+            CircuitBreaker.preflight();
         }
 
         /**
@@ -113,6 +155,21 @@ public class BaseTest {
             String methodName = method.getName();
             log("STARTING TEST: " + className + "." + methodName);
 
+            // Skip at once while the target is known to be down
+            try {
+                CircuitBreaker.checkOrSkip();
+            } catch (SkipException e) {
+                skippedByBreaker.set(true);
+                log("SKIPPED: " + e.getMessage());
+                throw e;
+            }
+
+            // Collect trace spans from session setup onwards
+            Tracer.beginTest(className + "." + methodName);
+
+            // Seed test data from the test name so a failure can be replayed with the same data
+            TestData.reseed(this.getClass().getName() + "." + methodName);
+
             // Log test metadata
             org.testng.annotations.Test testAnnotation = method.getAnnotation(org.testng.annotations.Test.class);
             if (testAnnotation != null) {
@@ -126,8 +183,18 @@ public class BaseTest {
                 }
             }
 
-            // Initialize WebDriver
-            DriverManager.initDriver();
+            // Wait until the adaptive concurrency level lets one more test run, then initialize WebDriver
+            ConcurrencyController.acquire();
+            if (!(keepsSessionBetweenTests() && DriverManager.hasDriver())) {
+                DriverManager.initDriver();
+            }
+            ScreencastRecorder.startTest(DriverManager.getDriver());
+            HangWatchdog.testStarted(className + "." + methodName);
+            ExecutionStats.testStarted();
+            CommandStats.testStarted();
+            if (Boolean.parseBoolean(ConfigReader.getProperty("grid.enabled", "false"))) {
+                log("Waited " + DriverManager.getGridWaitMillis() + " ms for a grid slot");
+            }
         }
 
         /**
@@ -137,31 +204,103 @@ public class BaseTest {
          */
         @AfterMethod(alwaysRun = true)
         public void tearDown(ITestResult result) {
-            // Log test result
-            String status = getTestResultStatus(result);
-            log("Test completed with status: " + status);
-
-            // Capture screenshot on failure
-            if (result.getStatus() == ITestResult.FAILURE) {
-                String screenshotPath = ScreenshotUtils.takeScreenshot(result.getName());
-                log("Test failed. Screenshot saved to: " + screenshotPath);
-
-                // Log error details
-                Throwable throwable = result.getThrowable();
-                if (throwable != null) {
-                    log("Exception: " + throwable.getMessage());
-                    log("Stack trace: " + Arrays.toString(throwable.getStackTrace()));
-                }
+            if (skippedByBreaker.get()) {
+                skippedByBreaker.remove();
+                return;
             }
 
-            // Quit WebDriver
+            // A session killed by the hang watchdog can no longer be asked for a screenshot
+            String hang = HangWatchdog.getFiredReason();
+            // The session, watchdog, permit and trace are released even if reporting throws,
+            // as a leaked permit would leave later tests waiting for it forever
             try {
-                DriverManager.quitDriver();
-            } catch (Exception e) {
-                log("Error quitting driver: " + e.getMessage());
+                // Log test result
+                String status = getTestResultStatus(result);
+                log("Test completed with status: " + status);
+
+                if (hang != null) {
+                    log("Test killed by hang watchdog: " + hang);
+                    result.setStatus(ITestResult.FAILURE);
+                    result.setThrowable(new RuntimeException("Hang watchdog: " + hang, result.getThrowable()));
+                }
+
+                // Capture screenshot on failure
+                if (result.getStatus() == ITestResult.FAILURE && hang == null) {
+                    try {
+                        String screenshotPath = ScreenshotUtils.takeScreenshot(result.getName());
+                        log("Test failed. Screenshot saved to: " + screenshotPath);
+                    } catch (WebDriverException e) {
+                        log("Test failed. Screenshot could not be taken: " + e.getMessage());
+                    }
+
+                    // Log error details
+                    Throwable throwable = result.getThrowable();
+                    if (throwable != null) {
+                        log("Test data seed: " + TestData.describeSeed());
+                        log("Exception: " + throwable.getMessage());
+                        log("Stack trace: " + Arrays.toString(throwable.getStackTrace()));
+                    }
+                }
+
+                // Keep the last seconds of video only for failures
+                String screencastPath = ScreencastRecorder.finishTest(result.getName(), result.getStatus() == ITestResult.FAILURE);
+                if (screencastPath != null) {
+                    log("Screencast of the last seconds saved to: " + screencastPath);
+                }
+
+                ExecutionStats.testFinished();
+
+                // Consecutive navigation and timeout failures open the circuit breaker
+                if (result.getStatus() == ITestResult.SUCCESS) {
+                    CircuitBreaker.recordResult(null);
+                } else if (result.getThrowable() != null) {
+                    CircuitBreaker.recordResult(result.getThrowable());
+                }
+                log(CommandStats.testFinished());
+
+                // Save the HTTP scenario recorded for protocol-level load runs
+                if (ScenarioRecorder.isEnabled()) {
+                    if (result.getStatus() == ITestResult.SUCCESS) {
+                        ScenarioRecorder.save(result.getName());
+                    } else {
+                        ScenarioRecorder.discard();
+                    }
+                }
+            } finally {
+                try {
+                    // Sample session telemetry, then quit or keep the session for reuse
+                    if (hang != null) {
+                        DriverManager.abandonDriver();
+                    } else if (keepsSessionBetweenTests()) {
+                        log("Keeping " + DriverManager.getSessionLabel() + " for the next test of " + getClass().getSimpleName());
+                    } else {
+                        try {
+                            DriverManager.releaseDriver(result.getName());
+                        } catch (Exception e) {
+                            log("Error releasing driver: " + e.getMessage());
+                            DriverManager.quitDriver();
+                        }
+                    }
+                } finally {
+                    HangWatchdog.testFinished();
+                    ConcurrencyController.release();
+
+                    String tracePath = Tracer.endTest();
+                    if (tracePath != null) {
+                        log("Trace saved to: " + tracePath);
+                    }
+                }
             }
         }
 
+        /**
+         * Whether the tests of this class run one after another in the same session and page,
+         * e.g. cases of a data provider. The class then quits the session in its own @AfterClass.
+         */
+        protected boolean keepsSessionBetweenTests() {
+            return false;
+        }
+
         /**
          * Cleanup executed after test suite
          *
@@ -180,16 +319,19 @@ public class BaseTest {
             log("Passed: " + passed);
             log("Failed: " + failed);
             log("Skipped: " + skipped);
+            log(ExecutionStats.getSummary());
+            log("Detailed results: target/test-reports/results.jsonl, target/test-reports/junit-results.xml");
             log("==================================================");
 
-            // Close log writer
+            // Reused sessions and the tab mode browser stay open for the whole suite
             try {
-                if (logWriter != null) {
-                    logWriter.close();
-                }
-            } catch (IOException e) {
-                System.err.println("Failed to close log file: " + e.getMessage());
+                DriverManager.quitAllDrivers();
+            } catch (Exception e) {
+                log("Error quitting remaining sessions: " + e.getMessage());
             }
+
+            // Close log writer
+            closeLogWriter();
         }
 
         /**
@@ -0,0 +1,110 @@
+package com.amex.ui.tests;
+
+import com.amex.ui.framework.pageobjects.ElementBinder;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.pagefactory.AjaxElementLocatorFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares page construction and element access through generated binders against
+ * PageFactory reflection proxies. Uses an in-memory driver so only framework overhead
+ * is measured, not WebDriver round-trips.
+ *
+ * Run with: java -cp target/classes:target/test-classes:&lt;deps&gt; com.amex.ui.tests.PageBindingBenchmark
+ */
+public class PageBindingBenchmark {
+    private static final int TIMEOUT_SECONDS = 30;
+    private static final int PAGES = 200_000;
+    private static final int ACCESSES = 2_000_000;
+
+    /**
+     * Page shaped like ApplicationFormPage
+     */
+    public static class BenchmarkPage {
+        @FindBy(xpath = "//input[@id='fieldControl-input-firstName']")
+        WebElement firstNameField;
+
+        @FindBy(xpath = "//input[@id='fieldControl-input-lastName']")
+        WebElement lastNameField;
+
+        @FindBy(xpath = "//input[@id='fieldControl-input-email']")
+        WebElement emailField;
+
+        @FindBy(xpath = "//button[@type='submit']")
+        WebElement submitButton;
+
+        @FindBy(xpath = "//div[contains(@class, 'error')]")
+        List<WebElement> validationErrors;
+    }
+
+    public static void main(String[] args) {
+        WebDriver driver = stubDriver();
+        ElementBinder<BenchmarkPage> binder = new PageBindingBenchmark_BenchmarkPage_Elements();
+
+        // Two passes so the second is measured with both paths JIT-compiled
+        for (int pass = 1; pass <= 2; pass++) {
+            long reflectiveInit = time(() -> {
+                for (int i = 0; i < PAGES; i++) {
+                    PageFactory.initElements(new AjaxElementLocatorFactory(driver, TIMEOUT_SECONDS), new BenchmarkPage());
+                }
+            });
+            long generatedInit = time(() -> {
+                for (int i = 0; i < PAGES; i++) {
+                    binder.bind(new BenchmarkPage(), driver, TIMEOUT_SECONDS);
+                }
+            });
+
+            BenchmarkPage reflectivePage = new BenchmarkPage();
+            PageFactory.initElements(new AjaxElementLocatorFactory(driver, TIMEOUT_SECONDS), reflectivePage);
+            BenchmarkPage generatedPage = new BenchmarkPage();
+            binder.bind(generatedPage, driver, TIMEOUT_SECONDS);
+
+            long reflectiveAccess = time(() -> access(reflectivePage));
+            long generatedAccess = time(() -> access(generatedPage));
+
+            System.out.printf("Pass %d: page construction %.0f ns (PageFactory) vs %.0f ns (generated), "
+                            + "element access %.1f ns (PageFactory) vs %.1f ns (generated)%n", pass,
+                    (double) reflectiveInit / PAGES, (double) generatedInit / PAGES,
+                    (double) reflectiveAccess / ACCESSES, (double) generatedAccess / ACCESSES);
+        }
+    }
+
+    private static void access(BenchmarkPage page) {
+        int blackhole = 0;
+        for (int i = 0; i < ACCESSES; i++) {
+            blackhole += page.submitButton.getTagName().length();
+        }
+        if (blackhole == 42) {
+            System.out.println(blackhole);
+        }
+    }
+
+    private static long time(Runnable runnable) {
+        long start = System.nanoTime();
+        runnable.run();
+        return System.nanoTime() - start;
+    }
+
+    // Driver whose findElement returns a shared element answering "input" to every String call
+    private static WebDriver stubDriver() {
+        WebElement element = (WebElement) Proxy.newProxyInstance(WebElement.class.getClassLoader(),
+                new Class<?>[]{WebElement.class}, (proxy, method, args) ->
+                        method.getReturnType() == String.class ? "input" : null);
+        return (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class}, (proxy, method, args) -> {
+                    if ("findElement".equals(method.getName())) {
+                        return element;
+                    }
+                    if ("findElements".equals(method.getName())) {
+                        return Collections.singletonList(element);
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,112 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.TestNG;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads CSV and JSON data sets through their iterators. Rows appended to the file after the
+ * iterator started are still returned, which shows the file is read as the rows are consumed
+ * rather than loaded up front.
+ */
+public class DataSetsTest {
+
+    @Test(description = "CSV rows are parsed one at a time, with quoted fields and missing columns")
+    public void testCsvStreams() throws IOException {
+        Path file = write("applicants.csv", "firstName,lastName,city\n"
+                + "Jean,Dupont,Paris\n"
+                + "\n"
+                + "\"Marie, Anne\",\"Le \"\"Petit\"\"\"\n");
+
+        Iterator<Object[]> rows = DataSets.csv(file.toString());
+        Assert.assertEquals(row(rows.next()).get("firstName"), "Jean");
+        // The iterator reads one row ahead, so this lands before it reaches the end of the file
+        append(file, "Pierre,Martin,Lyon\n");
+        Map<String, Object> second = row(rows.next());
+        Assert.assertEquals(second.get("firstName"), "Marie, Anne");
+        Assert.assertEquals(second.get("lastName"), "Le \"Petit\"");
+        Assert.assertEquals(second.get("city"), "", "A missing column reads as empty");
+
+        Assert.assertTrue(rows.hasNext(), "A row written after the iterator started was not read");
+        Assert.assertEquals(row(rows.next()).get("city"), "Lyon");
+        Assert.assertFalse(rows.hasNext());
+    }
+
+    @Test(description = "JSON array elements are read one at a time by the streaming parser")
+    public void testJsonStreams() throws IOException {
+        Path file = write("applicants.json", "[{\"firstName\": \"Jean\", \"age\": 30},\n{\"firstName\": \"Marie\"},");
+
+        Iterator<Object[]> rows = DataSets.json(file.toString());
+        Assert.assertEquals(row(rows.next()).get("firstName"), "Jean");
+        Assert.assertEquals(row(rows.next()).get("firstName"), "Marie");
+
+        append(file, "\n{\"firstName\": \"Pierre\"}]");
+        Assert.assertTrue(rows.hasNext(), "An element written after the iterator started was not read");
+        Assert.assertEquals(row(rows.next()).get("firstName"), "Pierre");
+        Assert.assertFalse(rows.hasNext());
+    }
+
+    @Test(description = "A data provider returning the iterator runs the test once per row")
+    public void testDataProvider() throws IOException {
+        Path file = write("cards.csv", "card,limit\nGold,5000\nPlatinum,10000\nBlue,1500\n");
+        DataSetConsumer.path = file.toString();
+        DataSetConsumer.cards.clear();
+
+        TestNG testng = new TestNG(false);
+        testng.setTestClasses(new Class<?>[]{DataSetConsumer.class});
+        testng.setVerbose(0);
+        testng.setListenerClasses(Collections.emptyList());
+        testng.setOutputDirectory(file.getParent().resolve("testng").toString());
+        testng.run();
+
+        Assert.assertEquals(testng.getStatus(), 0, "Data-driven fixture test failed");
+        Assert.assertEquals(DataSetConsumer.cards, List.of("Gold", "Platinum", "Blue"));
+    }
+
+    /**
+     * Data-driven test run by the nested TestNG instance above
+     */
+    public static class DataSetConsumer {
+        static String path;
+        static final List<String> cards = Collections.synchronizedList(new ArrayList<>());
+
+        @DataProvider(name = "cards")
+        public Iterator<Object[]> cards() {
+            return DataSets.csv(path);
+        }
+
+        @Test(dataProvider = "cards")
+        public void consume(Map<String, String> row) {
+            Assert.assertFalse(row.get("limit").isEmpty());
+            cards.add(row.get("card"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> row(Object[] arguments) {
+        Assert.assertEquals(arguments.length, 1);
+        return (Map<String, Object>) arguments[0];
+    }
+
+    private static Path write(String name, String content) throws IOException {
+        Path file = Files.createTempDirectory("data-sets").resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void append(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+}
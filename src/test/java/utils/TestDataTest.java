@@ -0,0 +1,86 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks that test data depends only on the seed and test name, and that unique values stay
+ * unique across tests and workers without being redrawn.
+ */
+public class TestDataTest {
+    private final TestData data = new TestData();
+
+    @Test(description = "A test replayed with the same seed gets the same data, whatever ran before it")
+    public void testSameSeedSameSequence() {
+        TestData.reseed("fixture.ApplicationTest.testSubmit");
+        List<String> first = draw();
+
+        TestData.reseed("fixture.ApplicationTest.testOther");
+        List<String> other = draw();
+        // Values the first test already received must not change what it gets on replay
+        TestData.reseed("fixture.ApplicationTest.testSubmit");
+        List<String> replay = draw();
+
+        Assert.assertEquals(replay, first);
+        Assert.assertNotEquals(other, first);
+        Assert.assertTrue(TestData.describeSeed().startsWith("-Dtestdata.seed="), TestData.describeSeed());
+    }
+
+    @Test(description = "Emails and phones are unique within a test and across tests")
+    public void testUniqueAcrossTests() {
+        Set<String> emails = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            TestData.reseed("fixture.GeneratedTest.test" + i);
+            for (int n = 0; n < 3; n++) {
+                Assert.assertTrue(emails.add(data.getRandomEmail()), "Email issued twice");
+            }
+            phones.add(data.getRandomPhone());
+        }
+        Assert.assertTrue(phones.size() > 490, "Too many tests shared a phone number: " + (500 - phones.size()));
+        Assert.assertTrue(data.getRandomPhone().matches("06\\d{8}"));
+        Assert.assertTrue(data.getRandomEmail().matches("test\\d+x[0-9a-z]+n\\d+@example\\.com"));
+    }
+
+    @Test(description = "Workers draw from disjoint ranges even with the same seed and test")
+    public void testDisjointWorkerRanges() {
+        List<Set<String>> ranges = new ArrayList<>();
+        for (int worker = 0; worker < 4; worker++) {
+            Set<String> values = new HashSet<>();
+            for (long seed = -50; seed < 50; seed++) {
+                for (int n = 0; n < 5; n++) {
+                    String phone = TestData.phone(worker, seed * 7919, n);
+                    Assert.assertEquals(phone.substring(2, 4), String.format("%02d", worker));
+                    values.add(phone);
+                    values.add(TestData.email(worker, seed * 7919, n));
+                }
+            }
+            for (Set<String> other : ranges) {
+                Set<String> shared = new HashSet<>(values);
+                shared.retainAll(other);
+                Assert.assertTrue(shared.isEmpty(), "Workers share " + shared);
+            }
+            ranges.add(values);
+        }
+    }
+
+    private List<String> draw() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            values.add(data.getRandomFirstName());
+            values.add(data.getRandomLastName());
+            values.add(data.getRandomEmail());
+            values.add(data.getRandomPhone());
+            values.add(data.getRandomAddress());
+            values.add(data.getRandomPostalCode());
+            values.add(data.getRandomCity());
+            values.add(data.getRandomDateOfBirth());
+        }
+        return values;
+    }
+}
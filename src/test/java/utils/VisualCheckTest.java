@@ -0,0 +1,234 @@
+package utils;
+
+import com.amex.ui.framework.config.ConfigReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs visual checks on synthetic screenshots served by a stand-in driver, covering the
+ * tile hash skip, the perceptual diff, mask scaling and the decoded raster layouts.
+ */
+public class VisualCheckTest {
+    private static final String PAGE = "SyntheticPage";
+    private static final int WIDTH = 256;
+    private static final int HEIGHT = 128;
+
+    private ConfigReader.Overrides config;
+    private final ScreenshotDriver screen = new ScreenshotDriver();
+    private WebDriver driver;
+
+    @BeforeClass
+    public void useTemporaryBaselines() throws IOException {
+        config = ConfigReader.overrides()
+                .set("visual.mode", "warn")
+                .set("visual.baselineDir", Files.createTempDirectory("visual-baselines").toString())
+                .set("visual.tileSize", "32")
+                .set("visual.threshold", "0.1")
+                .set("visual.maxDiffRatio", "0.0005");
+        driver = screen.proxy();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restoreConfig() {
+        if (config != null) {
+            config.close();
+        }
+    }
+
+    @Test(description = "A byte-identical screenshot matches without comparing any tile")
+    public void testIdentical() throws IOException {
+        BufferedImage image = pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        VisualCheck.Result result = checkAgainstBaseline("identical", image, png(image));
+
+        Assert.assertTrue(result.isMatch());
+        Assert.assertEquals(result.tiles, 8 * 4);
+        Assert.assertEquals(result.tilesCompared, 0);
+    }
+
+    @Test(description = "The same pixels decoded as 3BYTE_BGR and 4BYTE_ABGR hash alike, so no tile is compared")
+    public void testRasterLayouts() throws IOException {
+        BufferedImage rgb = pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        BufferedImage argb = pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        // RGB and RGBA PNGs decode to the two byte layouts the fast path reads directly
+        Assert.assertEquals(ImageIO.read(new ByteArrayInputStream(png(rgb))).getType(), BufferedImage.TYPE_3BYTE_BGR);
+        Assert.assertEquals(ImageIO.read(new ByteArrayInputStream(png(argb))).getType(), BufferedImage.TYPE_4BYTE_ABGR);
+
+        VisualCheck.Result result = checkAgainstBaseline("rasterLayouts", rgb, png(argb));
+        Assert.assertTrue(result.isMatch());
+        Assert.assertEquals(result.tilesCompared, 0, "Differently encoded but equal pixels were compared");
+    }
+
+    @Test(description = "A change inside one tile compares and reports only that tile")
+    public void testOneChangedTile() throws IOException {
+        BufferedImage changed = pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        paint(changed, 40, 40, 5, 5, 0xFF0000);
+
+        VisualCheck.Result result = checkAgainstBaseline("oneChangedTile",
+                pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), png(changed));
+        Assert.assertFalse(result.isMatch());
+        Assert.assertEquals(result.tilesCompared, 1);
+        Assert.assertEquals(result.tilesChanged, 1);
+        Assert.assertEquals(result.diffPixels, 25);
+        Assert.assertTrue(Files.exists(Paths.get(result.diffFile)));
+    }
+
+    @Test(description = "Changes below the YIQ threshold are compared but not counted")
+    public void testImperceptibleChange() throws IOException {
+        BufferedImage base = pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        BufferedImage changed = pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        changed.setRGB(100, 100, changed.getRGB(100, 100) ^ 0x000001);
+
+        VisualCheck.Result result = checkAgainstBaseline("imperceptibleChange", base, png(changed));
+        Assert.assertTrue(result.isMatch());
+        Assert.assertEquals(result.tilesCompared, 1);
+        Assert.assertEquals(result.diffPixels, 0);
+    }
+
+    @Test(description = "Mask rectangles in CSS pixels are scaled to the device pixels of the screenshot")
+    public void testMaskedChange() throws IOException {
+        BufferedImage changed = pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        paint(changed, 40, 40, 20, 20, 0x00FF00);
+        // Device pixel ratio 2: the page is half as wide in CSS pixels, so is the rectangle
+        screen.layout.put("width", WIDTH / 2);
+        screen.layout.put("rects", Collections.singletonList(Arrays.asList(20, 20, 10, 10)));
+        try {
+            VisualCheck.Result result = checkAgainstBaseline("maskedChange",
+                    pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), png(changed));
+            Assert.assertTrue(result.isMatch(), "Masked change reported: " + result.diffPixels + " pixels");
+            Assert.assertEquals(result.diffPixels, 0);
+            Assert.assertTrue(result.tilesCompared >= 1, "Masked tiles are always compared pixel by pixel");
+        } finally {
+            screen.layout.put("rects", Collections.emptyList());
+        }
+    }
+
+    @Test(description = "A screenshot of another size fails as a whole, without a pixel diff")
+    public void testSizeMismatch() throws IOException {
+        VisualCheck.Result result = checkAgainstBaseline("sizeMismatch", pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB),
+                png(pattern(WIDTH, HEIGHT - 8, BufferedImage.TYPE_INT_RGB)));
+        Assert.assertFalse(result.isMatch());
+        Assert.assertEquals(result.tilesChanged, result.tiles);
+        Assert.assertEquals(result.tilesCompared, 0);
+    }
+
+    @Test(description = "In fail mode a missing baseline fails the check and is not written")
+    public void testMissingBaselineFails() throws IOException {
+        screen.png = png(pattern(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB));
+        try (ConfigReader.Overrides failMode = ConfigReader.overrides()) {
+            failMode.set("visual.mode", "fail");
+            AssertionError error = Assert.expectThrows(AssertionError.class,
+                    () -> VisualCheck.check(driver, PAGE, "missingBaseline", Collections.emptyList()));
+            Assert.assertTrue(error.getMessage().startsWith("No visual baseline"), error.getMessage());
+        }
+        Assert.assertFalse(Files.exists(Paths.get(ConfigReader.getProperty("visual.baselineDir"), PAGE, "missingBaseline.png")),
+                "Baseline written in fail mode");
+    }
+
+    @Test(description = "Time per full-page compare with a small change, baseline already cached")
+    public void testFullPageCompareTime() throws IOException {
+        int width = 1280;
+        int height = 6000;
+        BufferedImage changed = pattern(width, height, BufferedImage.TYPE_INT_RGB);
+        // Below visual.maxDiffRatio, so no diff image is written and only the compare is timed
+        paint(changed, 600, 3000, 4, 4, 0x0000FF);
+        checkAgainstBaseline("fullPage", pattern(width, height, BufferedImage.TYPE_INT_RGB), png(changed));
+
+        int runs = 5;
+        long total = 0;
+        for (int i = 0; i < runs; i++) {
+            VisualCheck.Result result = VisualCheck.check(driver, PAGE, "fullPage", Collections.emptyList());
+            Assert.assertTrue(result.isMatch());
+            Assert.assertEquals(result.tilesCompared, 1);
+            Assert.assertEquals(result.diffPixels, 16);
+            total += result.millis;
+        }
+        System.out.println("Full-page visual compare " + width + "x" + height + ": " + (total / runs) + "ms per check");
+    }
+
+    /**
+     * Writes the baseline from the first screenshot, then checks the second against it
+     */
+    private VisualCheck.Result checkAgainstBaseline(String checkpoint, BufferedImage baseline, byte[] actual) throws IOException {
+        screen.png = png(baseline);
+        Assert.assertNull(VisualCheck.check(driver, PAGE, checkpoint, Collections.emptyList()), "Baseline not written");
+        screen.png = actual;
+        VisualCheck.Result result = VisualCheck.check(driver, PAGE, checkpoint, Collections.emptyList());
+        Assert.assertNotNull(result, "Visual check failed to run");
+        return result;
+    }
+
+    /**
+     * Opaque pattern that differs from tile to tile, like rendered content rather than a flat fill
+     */
+    private static BufferedImage pattern(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xFF000000 | ((x * 7 + y) & 0xFF) << 16 | ((x ^ y) & 0xFF) << 8 | (y * 3 & 0xFF));
+            }
+        }
+        return image;
+    }
+
+    private static void paint(BufferedImage image, int x0, int y0, int width, int height, int rgb) {
+        for (int y = y0; y < y0 + height; y++) {
+            for (int x = x0; x < x0 + width; x++) {
+                image.setRGB(x, y, 0xFF000000 | rgb);
+            }
+        }
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Driver standing in for the browser: returns the current screenshot and answers the mask
+     * script with the configured layout
+     */
+    private static class ScreenshotDriver {
+        byte[] png;
+        final Map<String, Object> layout = new HashMap<>();
+
+        ScreenshotDriver() {
+            layout.put("width", WIDTH);
+            layout.put("rects", Collections.<List<Number>>emptyList());
+        }
+
+        WebDriver proxy() {
+            return (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(),
+                    new Class<?>[]{WebDriver.class, TakesScreenshot.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getScreenshotAs":
+                                return ((OutputType<?>) args[0]).convertFromPngBytes(png);
+                            case "executeScript":
+                                return layout;
+                            default:
+                                return null;
+                        }
+                    });
+        }
+    }
+}